@@ -0,0 +1,47 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.selimhorri.app.domain.id.FavouriteCountId;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Net favourites of one product liked within one hour; leaderboard windows sum these.
+ */
+@Entity
+@Table(name = "favourite_counts")
+@IdClass(FavouriteCountId.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class FavouriteCount implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "product_id", nullable = false)
+	private Integer productId;
+	
+	@Id
+	@Column(name = "bucket_start", nullable = false)
+	private LocalDateTime bucketStart;
+	
+	@Column(name = "category_id")
+	private Integer categoryId;
+	
+	@Column(name = "like_count", nullable = false)
+	private Long likeCount;
+	
+}
@@ -0,0 +1,28 @@
+package com.selimhorri.app.domain;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import com.selimhorri.app.exception.wrapper.InvalidLeaderboardRequestException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum LeaderboardWindow {
+	
+	DAY("24h", Duration.ofHours(24)),
+	WEEK("7d", Duration.ofDays(7));
+	
+	private final String key;
+	private final Duration duration;
+	
+	public static LeaderboardWindow fromKey(final String key) {
+		return Arrays.stream(values())
+				.filter(window -> window.getKey().equalsIgnoreCase(key))
+				.findFirst()
+				.orElseThrow(() -> new InvalidLeaderboardRequestException(String.format("Unknown leaderboard window: %s", key)));
+	}
+	
+}
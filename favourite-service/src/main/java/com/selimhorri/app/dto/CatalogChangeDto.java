@@ -0,0 +1,32 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of product-service's catalog change feed, reduced to what the snapshots use.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CatalogChangeDto implements Serializable {
+	
+	public static final String PRODUCT = "PRODUCT";
+	public static final String CATEGORY = "CATEGORY";
+	public static final String DELETED = "DELETED";
+	
+	private static final long serialVersionUID = 1L;
+	
+	private String entityType;
+	private Integer entityId;
+	private String changeType;
+	private Instant changedAt;
+	private ProductDto product;
+	
+}
@@ -5,6 +5,7 @@ import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,6 +26,10 @@ public class ProductDto implements Serializable {
 	private Double priceUnit;
 	private Integer quantity;
 	
+	@JsonProperty("category")
+	@JsonInclude(Include.NON_NULL)
+	private CategoryDto categoryDto;
+	
 	@JsonInclude(Include.NON_NULL)
 	private Set<FavouriteDto> favouriteDtos;
 	
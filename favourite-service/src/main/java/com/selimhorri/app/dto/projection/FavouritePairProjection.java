@@ -0,0 +1,8 @@
+package com.selimhorri.app.dto.projection;
+
+public interface FavouritePairProjection {
+	
+	Integer getUserId();
+	Integer getProductId();
+	
+}
@@ -0,0 +1,8 @@
+package com.selimhorri.app.dto.projection;
+
+public interface ProductLikeCountProjection {
+	
+	Integer getProductId();
+	Long getLikeCount();
+	
+}
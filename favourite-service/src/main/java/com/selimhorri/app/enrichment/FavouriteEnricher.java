@@ -0,0 +1,181 @@
+package com.selimhorri.app.enrichment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoBatchCollectionResponse;
+import com.selimhorri.app.snapshot.SnapshotStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Attaches users and products to favourites from the local {@link SnapshotStore}; only
+ * ids missing there are fetched, with one batch call per {@code batch-size} distinct ids.
+ * User and product batches run concurrently on a bounded pool and share one deadline.
+ * <p>
+ * A batch that fails or misses the deadline only leaves its favourites with the id-only
+ * user or product they were mapped with; the listing itself is still served.
+ */
+@Component
+@Slf4j
+public class FavouriteEnricher {
+	
+	private static final String USER_BATCH_URL = AppConstant.DiscoveredDomainsApi.USER_SERVICE_API_URL + "/batch";
+	private static final String PRODUCT_BATCH_URL = AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL + "/batch";
+	
+	private static final ParameterizedTypeReference<DtoBatchCollectionResponse<UserDto>> USER_BATCH_TYPE =
+			new ParameterizedTypeReference<>() {};
+	private static final ParameterizedTypeReference<DtoBatchCollectionResponse<ProductDto>> PRODUCT_BATCH_TYPE =
+			new ParameterizedTypeReference<>() {};
+	
+	private final RestTemplate restTemplate;
+	private final SnapshotStore snapshotStore;
+	private final int batchSize;
+	private final Duration timeout;
+	private final ExecutorService executor;
+	private final Counter failedUserBatches;
+	private final Counter failedProductBatches;
+	
+	public FavouriteEnricher(
+			final RestTemplate restTemplate,
+			final SnapshotStore snapshotStore,
+			final MeterRegistry meterRegistry,
+			@Value("${app.enrichment.batch-size:200}") final int batchSize,
+			@Value("${app.enrichment.parallelism:8}") final int parallelism,
+			@Value("${app.enrichment.timeout:3s}") final Duration timeout) {
+		this.restTemplate = restTemplate;
+		this.snapshotStore = snapshotStore;
+		this.batchSize = batchSize;
+		this.timeout = timeout;
+		final var threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			final var thread = new Thread(runnable, "favourite-enrichment-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.failedUserBatches = Counter.builder("favourite.enrichment.failures")
+				.tag("target", "user")
+				.register(meterRegistry);
+		this.failedProductBatches = Counter.builder("favourite.enrichment.failures")
+				.tag("target", "product")
+				.register(meterRegistry);
+	}
+	
+	public List<FavouriteDto> enrich(final List<FavouriteDto> favouriteDtos) {
+		
+		if (favouriteDtos.isEmpty())
+			return favouriteDtos;
+		
+		final var userIds = distinctIds(favouriteDtos, FavouriteDto::getUserId);
+		final var productIds = distinctIds(favouriteDtos, FavouriteDto::getProductId);
+		final Map<Integer, UserDto> userDtos = new HashMap<>(this.snapshotStore.findUsers(userIds));
+		final Map<Integer, ProductDto> productDtos = new HashMap<>(this.snapshotStore.findProducts(productIds));
+		userIds.removeAll(userDtos.keySet());
+		productIds.removeAll(productDtos.keySet());
+		
+		final var userBatches = this.submit(userIds,
+				batch -> this.fetch(USER_BATCH_URL, batch, USER_BATCH_TYPE, UserDto::getUserId));
+		final var productBatches = this.submit(productIds,
+				batch -> this.fetch(PRODUCT_BATCH_URL, batch, PRODUCT_BATCH_TYPE, ProductDto::getProductId));
+		
+		final var deadline = System.nanoTime() + this.timeout.toNanos();
+		final var fetchedUserDtos = this.join(userBatches, deadline, this.failedUserBatches, "user");
+		final var fetchedProductDtos = this.join(productBatches, deadline, this.failedProductBatches, "product");
+		this.snapshotStore.putUsers(fetchedUserDtos);
+		this.snapshotStore.putProducts(fetchedProductDtos);
+		userDtos.putAll(fetchedUserDtos);
+		productDtos.putAll(fetchedProductDtos);
+		
+		favouriteDtos.forEach(f -> {
+			f.setUserDto(userDtos.getOrDefault(f.getUserId(), f.getUserDto()));
+			f.setProductDto(productDtos.getOrDefault(f.getProductId(), f.getProductDto()));
+		});
+		return favouriteDtos;
+	}
+	
+	private static List<Integer> distinctIds(final List<FavouriteDto> favouriteDtos, 
+			final Function<FavouriteDto, Integer> idExtractor) {
+		return new ArrayList<>(favouriteDtos.stream()
+				.map(idExtractor)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedHashSet::new)));
+	}
+	
+	private <T> List<CompletableFuture<Map<Integer, T>>> submit(final List<Integer> ids, 
+			final Function<List<Integer>, Map<Integer, T>> fetcher) {
+		final var futures = new ArrayList<CompletableFuture<Map<Integer, T>>>();
+		for (int from = 0; from < ids.size(); from += this.batchSize) {
+			final var batch = ids.subList(from, Math.min(from + this.batchSize, ids.size()));
+			futures.add(CompletableFuture.supplyAsync(() -> fetcher.apply(batch), this.executor));
+		}
+		return futures;
+	}
+	
+	private <T> Map<Integer, T> fetch(final String url, final List<Integer> ids,
+			final ParameterizedTypeReference<DtoBatchCollectionResponse<T>> responseType, final Function<T, Integer> idExtractor) {
+		final var response = this.restTemplate
+				.exchange(url, HttpMethod.POST, new HttpEntity<>(ids), responseType)
+				.getBody();
+		final Map<Integer, T> dtos = new HashMap<>(ids.size());
+		if (response != null && response.getCollection() != null)
+			response.getCollection().forEach(dto -> dtos.put(idExtractor.apply(dto), dto));
+		return dtos;
+	}
+	
+	private <T> Map<Integer, T> join(final Collection<CompletableFuture<Map<Integer, T>>> futures, final long deadline,
+			final Counter failures, final String target) {
+		final Map<Integer, T> dtos = new HashMap<>();
+		for (final var future : futures) {
+			try {
+				dtos.putAll(future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				future.cancel(true);
+				failures.increment();
+			}
+			catch (ExecutionException | TimeoutException e) {
+				future.cancel(true);
+				failures.increment();
+				log.warn("*** FavouriteDto List, enrichment; {} batch failed, serving favourites without it *", target, e);
+			}
+		}
+		return dtos;
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+	
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidLeaderboardRequestException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidLeaderboardRequestException() {
+		super();
+	}
+	
+	public InvalidLeaderboardRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidLeaderboardRequestException(String message) {
+		super(message);
+	}
+	
+	public InvalidLeaderboardRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
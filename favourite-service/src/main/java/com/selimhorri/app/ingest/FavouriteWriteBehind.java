@@ -0,0 +1,453 @@
+package com.selimhorri.app.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.leaderboard.FavouriteLeaderboard;
+import com.selimhorri.app.membership.FavouriteMembershipIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional write-behind path for new favourites ({@code app.write-behind.enabled}).
+ * <p>
+ * A favourite is acknowledged once it is fsynced to a local journal. Appends queue up
+ * for a single journal thread that writes whatever has accumulated and fsyncs once, so
+ * concurrent likes share one disk flush. A flusher thread inserts journaled favourites
+ * into the favourites table, a whole journal segment per transaction, once the segment
+ * reaches {@code batch-size} or every {@code flush-interval-ms}. A segment file is only
+ * deleted after its transaction commits, and segments left behind by a crash are
+ * inserted again on startup. Inserts skip favourites that already exist, so replaying
+ * a segment is harmless.
+ * <p>
+ * The journal lives on this instance's disk; it is only as durable as that disk, so
+ * {@code journal-directory} has no default and must point at a persistent volume. Reads
+ * see a favourite after it is flushed, up to one flush interval after it was acknowledged.
+ * When the backlog reaches {@code max-depth} or the journal cannot be written, favourites
+ * are saved synchronously instead.
+ */
+@Component
+@Slf4j
+public class FavouriteWriteBehind {
+	
+	private static final String SEGMENT_PREFIX = "favourites-";
+	private static final String SEGMENT_SUFFIX = ".journal";
+	private static final int MAX_APPENDS_PER_SYNC = 1_000;
+	private static final long APPEND_TIMEOUT_MS = 5_000L;
+	private static final String INSERT_SQL = "INSERT INTO favourites (user_id, product_id, like_date) "
+			+ "SELECT ?, ?, ? FROM DUAL WHERE NOT EXISTS "
+			+ "(SELECT 1 FROM favourites WHERE user_id = ? AND product_id = ? AND like_date = ?)";
+	
+	private final boolean enabled;
+	private final Path journalDirectory;
+	private final int batchSize;
+	private final long flushIntervalMs;
+	private final int maxDepth;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final FavouriteLeaderboard favouriteLeaderboard;
+	private final FavouriteMembershipIndex favouriteMembershipIndex;
+	private final Timer appendTimer;
+	private final Timer flushTimer;
+	
+	private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+	private final AtomicInteger journaled = new AtomicInteger();
+	private final AtomicLong segmentSequence = new AtomicLong();
+	private final Object flushSignal = new Object();
+	
+	/**
+	 * Guards the open segment and the sealed ones awaiting insertion.
+	 */
+	private final Object segmentLock = new Object();
+	private final Deque<Segment> sealedSegments = new ArrayDeque<>();
+	private Segment openSegment;
+	
+	private volatile boolean running;
+	private Thread journalThread;
+	private Thread flushThread;
+	
+	public FavouriteWriteBehind(
+			final JdbcTemplate jdbcTemplate,
+			final TransactionTemplate transactionTemplate,
+			final FavouriteLeaderboard favouriteLeaderboard,
+			final FavouriteMembershipIndex favouriteMembershipIndex,
+			final MeterRegistry meterRegistry,
+			@Value("${app.write-behind.enabled:false}") final boolean enabled,
+			@Value("${app.write-behind.journal-directory:}") final String journalDirectory,
+			@Value("${app.write-behind.batch-size:500}") final int batchSize,
+			@Value("${app.write-behind.flush-interval-ms:200}") final long flushIntervalMs,
+			@Value("${app.write-behind.max-depth:100000}") final int maxDepth) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.favouriteLeaderboard = favouriteLeaderboard;
+		this.favouriteMembershipIndex = favouriteMembershipIndex;
+		this.enabled = enabled;
+		this.journalDirectory = journalDirectory == null || journalDirectory.isBlank() ? null : Paths.get(journalDirectory);
+		this.batchSize = batchSize;
+		this.flushIntervalMs = flushIntervalMs;
+		this.maxDepth = maxDepth;
+		this.appendTimer = Timer.builder("favourite.write_behind.append")
+				.description("Time until a favourite is journaled and acknowledged")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		this.flushTimer = Timer.builder("favourite.write_behind.flush")
+				.description("Time to insert one journal segment into the favourites table")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+		Gauge.builder("favourite.write_behind.depth", this, writeBehind -> writeBehind.depth())
+				.description("Favourites acknowledged but not yet inserted")
+				.register(meterRegistry);
+	}
+	
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+	
+	private int depth() {
+		return this.journaled.get() + this.appends.size();
+	}
+	
+	/**
+	 * @return false when the favourite was not journaled and must be saved synchronously
+	 */
+	public boolean offer(final FavouriteId favouriteId) {
+		
+		if (!this.running || this.depth() >= this.maxDepth)
+			return false;
+		
+		final var append = new Append(favouriteId);
+		final var sample = Timer.start();
+		this.appends.add(append);
+		try {
+			append.journaled.get(APPEND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			sample.stop(this.appendTimer);
+			return true;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch (ExecutionException | TimeoutException e) {
+			log.warn("*** FavouriteWriteBehind; journal append failed, saving synchronously: {} *", e.toString());
+			return false;
+		}
+	}
+	
+	@PostConstruct
+	public void start() throws IOException {
+		
+		if (!this.enabled)
+			return;
+		if (this.journalDirectory == null)
+			throw new IllegalStateException("app.write-behind.journal-directory must be set when write-behind is enabled");
+		
+		Files.createDirectories(this.journalDirectory);
+		try (final Stream<Path> files = Files.list(this.journalDirectory)) {
+			final var leftovers = files
+					.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+					.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+					.sorted()
+					.collect(Collectors.toList());
+			for (final var path : leftovers) {
+				final var segment = Segment.recover(path);
+				this.sealedSegments.addLast(segment);
+				this.journaled.addAndGet(segment.favouriteIds.size());
+				this.segmentSequence.set(Math.max(this.segmentSequence.get(), segment.sequence));
+			}
+			if (!leftovers.isEmpty())
+				log.info("*** FavouriteWriteBehind; recovered {} journaled favourites *", this.journaled.get());
+		}
+		this.openSegment = this.newSegment();
+		
+		this.running = true;
+		this.journalThread = new Thread(this::runJournal, "favourite-journal");
+		this.journalThread.setDaemon(true);
+		this.journalThread.start();
+	}
+	
+	/**
+	 * Inserting waits for the application to be ready, the schema is only guaranteed then.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void startFlushing() {
+		if (!this.enabled)
+			return;
+		this.flushThread = new Thread(this::runFlusher, "favourite-journal-flusher");
+		this.flushThread.setDaemon(true);
+		this.flushThread.start();
+	}
+	
+	private void runJournal() {
+		final var batch = new ArrayList<Append>();
+		while (this.running || !this.appends.isEmpty()) {
+			try {
+				final var first = this.appends.poll(100L, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+				batch.clear();
+				batch.add(first);
+				this.appends.drainTo(batch, MAX_APPENDS_PER_SYNC - 1);
+				this.journal(batch);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	private void journal(final List<Append> batch) {
+		
+		final var text = new StringBuilder(batch.size() * 40);
+		batch.forEach(append -> text.append(Segment.encode(append.favouriteId)));
+		final var bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+		
+		final boolean segmentFull;
+		try {
+			synchronized (this.segmentLock) {
+				while (bytes.hasRemaining())
+					this.openSegment.channel.write(bytes);
+				this.openSegment.channel.force(false);
+				batch.forEach(append -> this.openSegment.favouriteIds.add(append.favouriteId));
+				segmentFull = this.openSegment.favouriteIds.size() >= this.batchSize;
+			}
+		}
+		catch (IOException e) {
+			batch.forEach(append -> append.journaled.completeExceptionally(e));
+			return;
+		}
+		
+		this.journaled.addAndGet(batch.size());
+		batch.forEach(append -> append.journaled.complete(null));
+		if (segmentFull)
+			synchronized (this.flushSignal) {
+				this.flushSignal.notifyAll();
+			}
+	}
+	
+	private void runFlusher() {
+		while (this.running) {
+			try {
+				synchronized (this.flushSignal) {
+					this.flushSignal.wait(this.flushIntervalMs);
+				}
+				this.flush();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (RuntimeException | IOException e) {
+				log.warn("*** FavouriteWriteBehind; flush failed, retrying next run: {} *", e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Seals the open segment and inserts every sealed segment, oldest first, stopping
+	 * at the first failure so segments are applied in journal order. Synchronized so a
+	 * segment is never inserted by two flushes at once.
+	 */
+	private synchronized void flush() throws IOException {
+		
+		final List<Segment> segments;
+		synchronized (this.segmentLock) {
+			if (!this.openSegment.favouriteIds.isEmpty()) {
+				this.openSegment.channel.close();
+				this.sealedSegments.addLast(this.openSegment);
+				this.openSegment = this.newSegment();
+			}
+			segments = new ArrayList<>(this.sealedSegments);
+		}
+		
+		for (final var segment : segments) {
+			final var sample = Timer.start();
+			this.insert(segment.favouriteIds);
+			Files.deleteIfExists(segment.path);
+			synchronized (this.segmentLock) {
+				this.sealedSegments.remove(segment);
+			}
+			this.journaled.addAndGet(-segment.favouriteIds.size());
+			sample.stop(this.flushTimer);
+		}
+	}
+	
+	private void insert(final List<FavouriteId> favouriteIds) {
+		this.transactionTemplate.executeWithoutResult(status -> {
+			for (int from = 0; from < favouriteIds.size(); from += this.batchSize) {
+				final var chunk = favouriteIds.subList(from, Math.min(from + this.batchSize, favouriteIds.size()));
+				final var counts = this.jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+					
+					@Override
+					public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+						final var favouriteId = chunk.get(i);
+						final var likeDate = Timestamp.valueOf(favouriteId.getLikeDate());
+						ps.setInt(1, favouriteId.getUserId());
+						ps.setInt(2, favouriteId.getProductId());
+						ps.setTimestamp(3, likeDate);
+						ps.setInt(4, favouriteId.getUserId());
+						ps.setInt(5, favouriteId.getProductId());
+						ps.setTimestamp(6, likeDate);
+					}
+					
+					@Override
+					public int getBatchSize() {
+						return chunk.size();
+					}
+				
+				});
+				// rewritten batches report SUCCESS_NO_INFO rather than a row count, those count as inserted
+				for (int i = 0; i < counts.length; i++)
+					if (counts[i] != 0) {
+						this.favouriteLeaderboard.recordLiked(chunk.get(i).getProductId(), chunk.get(i).getLikeDate());
+						this.favouriteMembershipIndex.added(chunk.get(i).getUserId(), chunk.get(i).getProductId());
+					}
+			}
+		});
+	}
+	
+	private Segment newSegment() throws IOException {
+		final var sequence = this.segmentSequence.incrementAndGet();
+		final var path = this.journalDirectory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+		return new Segment(sequence, path, FileChannel.open(path,
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+	}
+	
+	/**
+	 * Stops taking appends, journals those already queued and, once the flusher has exited,
+	 * makes a last flush attempt; whatever is left stays in the journal for the next start.
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		
+		if (!this.running)
+			return;
+		
+		this.running = false;
+		this.journalThread.join(APPEND_TIMEOUT_MS);
+		if (this.flushThread != null) {
+			this.flushThread.interrupt();
+			this.flushThread.join(APPEND_TIMEOUT_MS);
+		}
+		if (this.flushThread != null && this.flushThread.isAlive())
+			log.warn("*** FavouriteWriteBehind; flusher still running, {} favourites stay journaled *", this.journaled.get());
+		else
+			try {
+				this.flush();
+			}
+			catch (RuntimeException | IOException e) {
+				log.warn("*** FavouriteWriteBehind; final flush failed, {} favourites stay journaled *", this.journaled.get());
+			}
+		synchronized (this.segmentLock) {
+			try {
+				this.openSegment.channel.close();
+				if (this.openSegment.favouriteIds.isEmpty())
+					Files.deleteIfExists(this.openSegment.path);
+			}
+			catch (IOException e) {
+				log.warn("*** FavouriteWriteBehind; could not close journal segment: {} *", e.getMessage());
+			}
+		}
+	}
+	
+	private static final class Append {
+		
+		private final FavouriteId favouriteId;
+		private final CompletableFuture<Void> journaled = new CompletableFuture<>();
+		
+		private Append(final FavouriteId favouriteId) {
+			this.favouriteId = favouriteId;
+		}
+	
+	}
+	
+	/**
+	 * One journal file, a line "userId,productId,likeDate" per favourite.
+	 */
+	private static final class Segment {
+		
+		private final long sequence;
+		private final Path path;
+		private final FileChannel channel;
+		private final List<FavouriteId> favouriteIds;
+		
+		private Segment(final long sequence, final Path path, final FileChannel channel) {
+			this(sequence, path, channel, new ArrayList<>());
+		}
+		
+		private Segment(final long sequence, final Path path, final FileChannel channel, final List<FavouriteId> favouriteIds) {
+			this.sequence = sequence;
+			this.path = path;
+			this.channel = channel;
+			this.favouriteIds = favouriteIds;
+		}
+		
+		private static String encode(final FavouriteId favouriteId) {
+			return favouriteId.getUserId() + "," + favouriteId.getProductId() + "," + favouriteId.getLikeDate() + "\n";
+		}
+		
+		/**
+		 * A crash can leave the last line half written; such a line was never acknowledged
+		 * and is skipped.
+		 */
+		private static Segment recover(final Path path) throws IOException {
+			final var name = path.getFileName().toString();
+			final var sequence = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+			final var favouriteIds = new ArrayList<FavouriteId>();
+			for (final var line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+				final var parts = line.split(",");
+				try {
+					if (parts.length == 3)
+						favouriteIds.add(new FavouriteId(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+								LocalDateTime.parse(parts[2])));
+				}
+				catch (NumberFormatException | DateTimeParseException e) {
+					log.warn("*** FavouriteWriteBehind; skipping torn journal line in {} *", name);
+				}
+			}
+			return new Segment(sequence, path, null, favouriteIds);
+		}
+	
+	}
+	
+}
@@ -0,0 +1,285 @@
+package com.selimhorri.app.leaderboard;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.LeaderboardWindow;
+import com.selimhorri.app.domain.id.FavouriteCountId;
+import com.selimhorri.app.dto.LeaderboardEntryDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.projection.ProductLikeCountProjection;
+import com.selimhorri.app.dto.response.collection.DtoBatchCollectionResponse;
+import com.selimhorri.app.repository.FavouriteCountRepository;
+import com.selimhorri.app.repository.FavouriteRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps "most favourited" counts as hourly buckets per product instead of aggregating
+ * the favourites table. Likes and unlikes only bump an in-memory delta, keyed by product
+ * and hour; {@link #flush()} adds the deltas to {@code favourite_counts} in place, so every
+ * instance can flush its own share. A window is the sum of its buckets, the oldest one
+ * included whole, so "24h" covers up to 25 hours.
+ * <p>
+ * Rankings are computed from the aggregate table once per flush and served from memory
+ * until the next one. A product's category is looked up once, the first time it is
+ * flushed; a product moved to another category keeps ranking under the old one until
+ * its buckets age out.
+ */
+@Component
+@Slf4j
+public class FavouriteLeaderboard {
+	
+	public static final int MAX_SIZE = 100;
+	private static final Duration RETENTION = LeaderboardWindow.WEEK.getDuration().plusHours(1);
+	private static final int MAX_KNOWN_PRODUCTS = 100_000;
+	private static final String BACKFILL_ID = "favourite_counts";
+	private static final String PRODUCT_BATCH_URL = AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_API_URL + "/batch";
+	private static final ParameterizedTypeReference<DtoBatchCollectionResponse<ProductDto>> PRODUCT_BATCH_TYPE =
+			new ParameterizedTypeReference<>() {};
+	
+	private final FavouriteCountRepository favouriteCountRepository;
+	private final FavouriteRepository favouriteRepository;
+	private final RestTemplate restTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final int lookupBatchSize;
+	private final Clock clock = Clock.systemDefaultZone();
+	
+	/**
+	 * ConcurrentHashMap locks per bin, so writers on different products rarely contend;
+	 * flush drains it key by key with {@code remove}, which never loses a concurrent merge.
+	 */
+	private final Map<FavouriteCountId, Long> pendingDeltas = new ConcurrentHashMap<>();
+	private final Map<Integer, Integer> productCategories = new ConcurrentHashMap<>();
+	private final Map<String, List<ProductLikeCountProjection>> rankings = new ConcurrentHashMap<>();
+	
+	public FavouriteLeaderboard(
+			final FavouriteCountRepository favouriteCountRepository,
+			final FavouriteRepository favouriteRepository,
+			final RestTemplate restTemplate,
+			final TransactionTemplate transactionTemplate,
+			final MeterRegistry meterRegistry,
+			@Value("${app.enrichment.batch-size:200}") final int lookupBatchSize) {
+		this.favouriteCountRepository = favouriteCountRepository;
+		this.favouriteRepository = favouriteRepository;
+		this.restTemplate = restTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.lookupBatchSize = lookupBatchSize;
+		Gauge.builder("favourite.leaderboard.pending", this.pendingDeltas, Map::size)
+				.description("Product-hour buckets with deltas not yet flushed")
+				.register(meterRegistry);
+	}
+	
+	public void recordLiked(final Integer productId, final LocalDateTime likeDate) {
+		this.record(productId, likeDate, 1L);
+	}
+	
+	public void recordUnliked(final Integer productId, final LocalDateTime likeDate) {
+		this.record(productId, likeDate, -1L);
+	}
+	
+	/**
+	 * Deltas are applied once the surrounding transaction commits, so a rolled back like never counts.
+	 */
+	private void record(final Integer productId, final LocalDateTime likeDate, final long delta) {
+		
+		if (productId == null || likeDate == null || likeDate.isBefore(this.now().minus(RETENTION)))
+			return;
+		
+		final var key = new FavouriteCountId(productId, likeDate.truncatedTo(ChronoUnit.HOURS));
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					pendingDeltas.merge(key, delta, Long::sum);
+				}
+			});
+		else
+			this.pendingDeltas.merge(key, delta, Long::sum);
+	}
+	
+	public List<LeaderboardEntryDto> findTop(final LeaderboardWindow window, final Integer categoryId, final int limit) {
+		final var ranking = this.rankings.computeIfAbsent(window.getKey() + "/" + categoryId,
+				key -> this.loadRanking(window, categoryId));
+		return IntStream.range(0, Math.min(limit, ranking.size()))
+				.mapToObj(i -> LeaderboardEntryDto.builder()
+						.rank(i + 1)
+						.productId(ranking.get(i).getProductId())
+						.likeCount(ranking.get(i).getLikeCount())
+						.build())
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+	private List<ProductLikeCountProjection> loadRanking(final LeaderboardWindow window, final Integer categoryId) {
+		final var since = this.now().minus(window.getDuration()).truncatedTo(ChronoUnit.HOURS);
+		final var pageRequest = PageRequest.of(0, MAX_SIZE);
+		return List.copyOf(categoryId == null ? this.favouriteCountRepository.findTop(since, pageRequest)
+				: this.favouriteCountRepository.findTopByCategoryId(since, categoryId, pageRequest));
+	}
+	
+	public void flush() {
+		
+		final Map<FavouriteCountId, Long> deltas = new HashMap<>();
+		for (final var key : this.pendingDeltas.keySet()) {
+			final var delta = this.pendingDeltas.remove(key);
+			if (delta != null && delta != 0L)
+				deltas.put(key, delta);
+		}
+		
+		if (!deltas.isEmpty()) {
+			final var categories = this.resolveCategories(deltas.keySet().stream()
+					.map(FavouriteCountId::getProductId)
+					.collect(Collectors.toSet()));
+			final Map<FavouriteCountId, Long> missing = new HashMap<>();
+			try {
+				this.transactionTemplate.executeWithoutResult(status -> deltas.forEach((key, delta) -> {
+					if (this.favouriteCountRepository.addToCount(key.getProductId(), key.getBucketStart(), 
+							categories.get(key.getProductId()), delta) == 0)
+						missing.put(key, delta);
+				}));
+			}
+			catch (RuntimeException e) {
+				deltas.forEach((key, delta) -> this.pendingDeltas.merge(key, delta, Long::sum));
+				throw e;
+			}
+			
+			final Map<FavouriteCountId, Long> unapplied = new HashMap<>(missing);
+			try {
+				missing.forEach((key, delta) -> {
+					this.insertCount(key, categories.get(key.getProductId()), delta);
+					unapplied.remove(key);
+				});
+			}
+			catch (RuntimeException e) {
+				unapplied.forEach((key, delta) -> this.pendingDeltas.merge(key, delta, Long::sum));
+				throw e;
+			}
+		}
+		
+		this.transactionTemplate.executeWithoutResult(status -> this.favouriteCountRepository
+				.deleteOlderThan(this.now().minus(RETENTION).truncatedTo(ChronoUnit.HOURS)));
+		this.rankings.clear();
+	}
+	
+	/**
+	 * Inserts a bucket that did not exist yet, in its own transaction so that losing the race
+	 * to another instance rolls back only this insert; the delta is then added to the winner's row.
+	 * Both steps are portable across H2 and MySQL, unlike MERGE or ON DUPLICATE KEY UPDATE.
+	 */
+	private void insertCount(final FavouriteCountId key, final Integer categoryId, final long delta) {
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> this.favouriteCountRepository
+					.insertCount(key.getProductId(), key.getBucketStart(), categoryId, delta));
+		}
+		catch (DataIntegrityViolationException e) {
+			this.transactionTemplate.executeWithoutResult(status -> this.favouriteCountRepository
+					.addToCount(key.getProductId(), key.getBucketStart(), categoryId, delta));
+		}
+	}
+	
+	private Map<Integer, Integer> resolveCategories(final Set<Integer> productIds) {
+		
+		if (this.productCategories.size() > MAX_KNOWN_PRODUCTS)
+			this.productCategories.clear();
+		
+		final var unknownIds = productIds.stream()
+				.filter(productId -> !this.productCategories.containsKey(productId))
+				.collect(Collectors.toCollection(ArrayList::new));
+		for (int from = 0; from < unknownIds.size(); from += this.lookupBatchSize) {
+			final var batch = unknownIds.subList(from, Math.min(from + this.lookupBatchSize, unknownIds.size()));
+			try {
+				final var response = this.restTemplate
+						.exchange(PRODUCT_BATCH_URL, HttpMethod.POST, new HttpEntity<>(batch), PRODUCT_BATCH_TYPE)
+						.getBody();
+				if (response != null && response.getCollection() != null)
+					response.getCollection().stream()
+							.filter(productDto -> productDto.getCategoryDto() != null)
+							.forEach(productDto -> this.productCategories.put(productDto.getProductId(),
+									productDto.getCategoryDto().getCategoryId()));
+			}
+			catch (RuntimeException e) {
+				log.warn("*** FavouriteLeaderboard; category lookup failed, counting globally only: {} *", e.getMessage());
+			}
+		}
+		
+		final Map<Integer, Integer> categories = new HashMap<>(productIds.size());
+		productIds.forEach(productId -> {
+			final var categoryId = this.productCategories.get(productId);
+			if (categoryId != null)
+				categories.put(productId, categoryId);
+		});
+		return categories;
+	}
+	
+	/**
+	 * Seeds an empty aggregate table from the favourites still inside the retention window,
+	 * e.g. on the first start after the table was introduced. The seed commits together with
+	 * a claim row, so when several instances start at once only the first one seeds.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		try {
+			if (this.favouriteCountRepository.count() > 0)
+				return;
+			
+			final var now = this.now();
+			final Map<FavouriteCountId, Long> counts = new HashMap<>();
+			this.favouriteRepository.findAllByLikeDateGreaterThanEqual(now.minus(RETENTION)).stream()
+					.filter(favourite -> favourite.getProductId() != null && favourite.getLikeDate() != null)
+					.forEach(favourite -> counts.merge(new FavouriteCountId(favourite.getProductId(), 
+							favourite.getLikeDate().truncatedTo(ChronoUnit.HOURS)), 1L, Long::sum));
+			final var categories = this.resolveCategories(counts.keySet().stream()
+					.map(FavouriteCountId::getProductId)
+					.collect(Collectors.toSet()));
+			
+			this.transactionTemplate.executeWithoutResult(status -> {
+				this.favouriteCountRepository.claimBackfill(BACKFILL_ID, now);
+				log.info("*** FavouriteLeaderboard; seeding {} favourite count buckets *", counts.size());
+				counts.forEach((key, count) -> {
+					final var categoryId = categories.get(key.getProductId());
+					if (this.favouriteCountRepository.addToCount(key.getProductId(), key.getBucketStart(), categoryId, count) == 0)
+						this.favouriteCountRepository.insertCount(key.getProductId(), key.getBucketStart(), categoryId, count);
+				});
+			});
+			this.rankings.clear();
+		}
+		catch (DataIntegrityViolationException e) {
+			log.info("*** FavouriteLeaderboard; favourite counts already seeded or written by another instance *");
+		}
+		catch (RuntimeException e) {
+			log.warn("*** FavouriteLeaderboard; seeding failed, counting new favourites only: {} *", e.getMessage());
+		}
+	}
+	
+	private LocalDateTime now() {
+		return LocalDateTime.now(this.clock);
+	}
+	
+}
@@ -0,0 +1,295 @@
+package com.selimhorri.app.membership;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.repository.FavouriteRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Which products each user has favourited, as one sorted {@code int[]} per user: four bytes
+ * a favourite and a binary search per check. Arrays are copy-on-write, so checks never lock.
+ * <p>
+ * Writes made through this instance are applied after commit. Every write is also logged to
+ * {@code favourite_membership_changes} in the writer's transaction, and {@link #pollChanges()}
+ * replays the recent log so writes made through other instances show up within a poll interval.
+ * The periodic {@link #rebuild()} repairs anything the log missed; until the first build
+ * completes, checks are answered from the database.
+ */
+@Component
+@Slf4j
+public class FavouriteMembershipIndex {
+	
+	private static final String INSERT_CHANGE_SQL = 
+			"INSERT INTO favourite_membership_changes (user_id, product_id, added) VALUES (?, ?, ?)";
+	private static final String SELECT_CHANGES_SQL = "SELECT user_id, product_id, added FROM favourite_membership_changes "
+			+ "WHERE changed_at >= ? ORDER BY change_id";
+	private static final String DELETE_CHANGES_SQL = "DELETE FROM favourite_membership_changes WHERE changed_at < ?";
+	
+	private final FavouriteRepository favouriteRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate readOnlyTransactionTemplate;
+	private final Duration changeOverlap;
+	private final Duration changeRetention;
+	private final Clock clock = Clock.systemDefaultZone();
+	private volatile LocalDateTime lastPolledAt;
+	
+	/**
+	 * Writers share the read lock, each user's array being replaced atomically by
+	 * {@code compute}; swapping in a rebuilt map takes the write lock so no write is lost.
+	 */
+	private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+	private volatile Map<Integer, int[]> productIdsByUser = new ConcurrentHashMap<>();
+	private volatile Queue<Write> writesDuringRebuild;
+	private volatile boolean warm;
+	
+	public FavouriteMembershipIndex(
+			final FavouriteRepository favouriteRepository,
+			final JdbcTemplate jdbcTemplate,
+			final PlatformTransactionManager transactionManager,
+			final MeterRegistry meterRegistry,
+			@Value("${app.membership.change-overlap:10s}") final Duration changeOverlap,
+			@Value("${app.membership.change-retention:10m}") final Duration changeRetention) {
+		this.favouriteRepository = favouriteRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.changeOverlap = changeOverlap;
+		this.changeRetention = changeRetention;
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+		Gauge.builder("favourite.membership.users", this, index -> index.productIdsByUser.size())
+				.description("Users with at least one favourite in the membership index")
+				.register(meterRegistry);
+	}
+	
+	public Map<Integer, Boolean> check(final Integer userId, final Collection<Integer> productIds) {
+		
+		final Map<Integer, Boolean> favourited = new LinkedHashMap<>(productIds.size() * 2);
+		if (!this.warm) {
+			final var found = new HashSet<>(this.favouriteRepository.findProductIdsByUserIdAndProductIdIn(userId, productIds));
+			productIds.forEach(productId -> favourited.put(productId, found.contains(productId)));
+			return favourited;
+		}
+		
+		final var userProductIds = this.productIdsByUser.get(userId);
+		productIds.forEach(productId -> favourited.put(productId,
+				userProductIds != null && productId != null && Arrays.binarySearch(userProductIds, productId) >= 0));
+		return favourited;
+	}
+	
+	public void added(final Integer userId, final Integer productId) {
+		this.afterCommit(new Write(userId, productId, true));
+	}
+	
+	/**
+	 * Only call once no other favourite of this user and product remains.
+	 */
+	public void removed(final Integer userId, final Integer productId) {
+		this.afterCommit(new Write(userId, productId, false));
+	}
+	
+	private void afterCommit(final Write write) {
+		this.jdbcTemplate.update(INSERT_CHANGE_SQL, write.userId, write.productId, write.add);
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(write);
+				}
+			});
+		else
+			this.apply(write);
+	}
+	
+	private void apply(final Write write) {
+		this.swapLock.readLock().lock();
+		try {
+			write.applyTo(this.productIdsByUser);
+			final var pending = this.writesDuringRebuild;
+			if (pending != null)
+				pending.add(write);
+		}
+		finally {
+			this.swapLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Reloads every (user, product) pair in one ordered scan. Writes applied while the scan
+	 * runs are replayed onto the new map before it replaces the old one; replaying a write
+	 * the scan already saw is harmless, adds and removes being idempotent.
+	 */
+	public synchronized void rebuild() {
+		
+		this.swapLock.writeLock().lock();
+		try {
+			this.writesDuringRebuild = new ConcurrentLinkedQueue<>();
+		}
+		finally {
+			this.swapLock.writeLock().unlock();
+		}
+		
+		final Map<Integer, int[]> rebuilt = new ConcurrentHashMap<>();
+		try {
+			this.readOnlyTransactionTemplate.executeWithoutResult(status -> {
+				try (final var pairs = this.favouriteRepository.streamAllPairs()) {
+					final var builder = new Builder(rebuilt);
+					pairs.forEach(pair -> builder.add(pair.getUserId(), pair.getProductId()));
+					builder.finish();
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			this.writesDuringRebuild = null;
+			throw e;
+		}
+		
+		this.swapLock.writeLock().lock();
+		try {
+			this.writesDuringRebuild.forEach(write -> write.applyTo(rebuilt));
+			this.productIdsByUser = rebuilt;
+			this.writesDuringRebuild = null;
+			this.warm = true;
+		}
+		finally {
+			this.swapLock.writeLock().unlock();
+		}
+		log.info("*** FavouriteMembershipIndex; indexed favourites of {} users *", rebuilt.size());
+	}
+	
+	/**
+	 * Replays the changes logged since the previous poll, reaching back by the overlap so that
+	 * a transaction committing after a later one is still seen. Replaying in log order leaves
+	 * each (user, product) pair as its last change set it, whichever instance made it.
+	 */
+	public void pollChanges() {
+		
+		final var polledAt = LocalDateTime.now(this.clock);
+		final var since = (this.lastPolledAt != null ? this.lastPolledAt : polledAt).minus(this.changeOverlap);
+		final var changes = this.jdbcTemplate.query(SELECT_CHANGES_SQL, 
+				(rs, rowNum) -> new Write(rs.getInt("user_id"), rs.getInt("product_id"), rs.getBoolean("added")), 
+				Timestamp.valueOf(since));
+		changes.forEach(this::apply);
+		this.lastPolledAt = polledAt;
+	}
+	
+	public int purgeChanges() {
+		return this.jdbcTemplate.update(DELETE_CHANGES_SQL, 
+				Timestamp.valueOf(LocalDateTime.now(this.clock).minus(this.changeRetention)));
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUp() {
+		try {
+			this.rebuild();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** FavouriteMembershipIndex; warm-up failed, checking against the database: {} *", e.getMessage());
+		}
+	}
+	
+	private static final class Write {
+		
+		private final Integer userId;
+		private final int productId;
+		private final boolean add;
+		
+		private Write(final Integer userId, final Integer productId, final boolean add) {
+			this.userId = userId;
+			this.productId = productId;
+			this.add = add;
+		}
+		
+		private void applyTo(final Map<Integer, int[]> productIdsByUser) {
+			productIdsByUser.compute(this.userId, (userId, productIds) -> this.add ? insert(productIds, this.productId)
+					: remove(productIds, this.productId));
+		}
+		
+		private static int[] insert(final int[] productIds, final int productId) {
+			if (productIds == null)
+				return new int[] {productId};
+			final var at = Arrays.binarySearch(productIds, productId);
+			if (at >= 0)
+				return productIds;
+			final var insertAt = -at - 1;
+			final var grown = new int[productIds.length + 1];
+			System.arraycopy(productIds, 0, grown, 0, insertAt);
+			grown[insertAt] = productId;
+			System.arraycopy(productIds, insertAt, grown, insertAt + 1, productIds.length - insertAt);
+			return grown;
+		}
+		
+		private static int[] remove(final int[] productIds, final int productId) {
+			if (productIds == null)
+				return null;
+			final var at = Arrays.binarySearch(productIds, productId);
+			if (at < 0)
+				return productIds;
+			if (productIds.length == 1)
+				return null;
+			final var shrunk = new int[productIds.length - 1];
+			System.arraycopy(productIds, 0, shrunk, 0, at);
+			System.arraycopy(productIds, at + 1, shrunk, at, productIds.length - at - 1);
+			return shrunk;
+		}
+	
+	}
+	
+	/**
+	 * Collects the pairs of one user at a time; the scan is ordered by (userId, productId),
+	 * so each array comes out sorted and free of duplicates.
+	 */
+	private static final class Builder {
+		
+		private final Map<Integer, int[]> target;
+		private Integer userId;
+		private int[] buffer = new int[16];
+		private int size;
+		
+		private Builder(final Map<Integer, int[]> target) {
+			this.target = target;
+		}
+		
+		private void add(final Integer userId, final Integer productId) {
+			if (!userId.equals(this.userId)) {
+				this.finish();
+				this.userId = userId;
+			}
+			if (this.size == this.buffer.length)
+				this.buffer = Arrays.copyOf(this.buffer, this.size * 2);
+			this.buffer[this.size++] = productId;
+		}
+		
+		private void finish() {
+			if (this.userId != null && this.size > 0)
+				this.target.put(this.userId, Arrays.copyOf(this.buffer, this.size));
+			this.size = 0;
+		}
+	
+	}
+	
+}
@@ -0,0 +1,63 @@
+package com.selimhorri.app.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.FavouriteCount;
+import com.selimhorri.app.domain.id.FavouriteCountId;
+import com.selimhorri.app.dto.projection.ProductLikeCountProjection;
+
+public interface FavouriteCountRepository extends JpaRepository<FavouriteCount, FavouriteCountId> {
+	
+	/**
+	 * Adds in place so that instances flushing the same bucket never overwrite each other.
+	 */
+	@Modifying
+	@Query("UPDATE FavouriteCount c SET c.likeCount = c.likeCount + :delta, "
+			+ "c.categoryId = COALESCE(:categoryId, c.categoryId) "
+			+ "WHERE c.productId = :productId AND c.bucketStart = :bucketStart")
+	int addToCount(@Param("productId") final Integer productId, @Param("bucketStart") final LocalDateTime bucketStart, 
+			@Param("categoryId") final Integer categoryId, @Param("delta") final long delta);
+	
+	/**
+	 * Fails on the key when another instance inserted the bucket first, in which case the
+	 * caller adds to that row instead.
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO favourite_counts (product_id, bucket_start, category_id, like_count) "
+			+ "VALUES (:productId, :bucketStart, :categoryId, :likeCount)", nativeQuery = true)
+	int insertCount(@Param("productId") final Integer productId, @Param("bucketStart") final LocalDateTime bucketStart, 
+			@Param("categoryId") final Integer categoryId, @Param("likeCount") final long likeCount);
+	
+	/**
+	 * Claims a one-off backfill; fails on the key once any instance has claimed it.
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO favourite_count_backfills (backfill_id, claimed_at) VALUES (:backfillId, :claimedAt)", 
+			nativeQuery = true)
+	int claimBackfill(@Param("backfillId") final String backfillId, @Param("claimedAt") final LocalDateTime claimedAt);
+	
+	@Query("SELECT c.productId AS productId, SUM(c.likeCount) AS likeCount FROM FavouriteCount c "
+			+ "WHERE c.bucketStart >= :since "
+			+ "GROUP BY c.productId HAVING SUM(c.likeCount) > 0 "
+			+ "ORDER BY SUM(c.likeCount) DESC, c.productId")
+	List<ProductLikeCountProjection> findTop(@Param("since") final LocalDateTime since, final Pageable pageable);
+	
+	@Query("SELECT c.productId AS productId, SUM(c.likeCount) AS likeCount FROM FavouriteCount c "
+			+ "WHERE c.bucketStart >= :since AND c.categoryId = :categoryId "
+			+ "GROUP BY c.productId HAVING SUM(c.likeCount) > 0 "
+			+ "ORDER BY SUM(c.likeCount) DESC, c.productId")
+	List<ProductLikeCountProjection> findTopByCategoryId(@Param("since") final LocalDateTime since, 
+			@Param("categoryId") final Integer categoryId, final Pageable pageable);
+	
+	@Modifying
+	@Query("DELETE FROM FavouriteCount c WHERE c.bucketStart < :before")
+	int deleteOlderThan(@Param("before") final LocalDateTime before);
+	
+}
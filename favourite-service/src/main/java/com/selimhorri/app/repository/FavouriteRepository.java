@@ -1,12 +1,42 @@
 package com.selimhorri.app.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.projection.FavouritePairProjection;
 
 public interface FavouriteRepository extends JpaRepository<Favourite, FavouriteId> {
 	
+	@Query("SELECT f FROM Favourite f WHERE f.userId = :userId "
+			+ "ORDER BY f.likeDate DESC, f.productId DESC")
+	List<Favourite> findFirstPageByUserId(@Param("userId") final Integer userId, final Pageable pageable);
+	
+	@Query("SELECT f FROM Favourite f WHERE f.userId = :userId "
+			+ "AND (f.likeDate < :likeDate OR (f.likeDate = :likeDate AND f.productId < :productId)) "
+			+ "ORDER BY f.likeDate DESC, f.productId DESC")
+	List<Favourite> findPageByUserIdAfter(@Param("userId") final Integer userId, 
+			@Param("likeDate") final LocalDateTime likeDate, @Param("productId") final Integer productId, 
+			final Pageable pageable);
+	
+	List<Favourite> findAllByLikeDateGreaterThanEqual(final LocalDateTime likeDate);
+	
+	@Query("SELECT DISTINCT f.userId AS userId, f.productId AS productId FROM Favourite f "
+			+ "ORDER BY f.userId, f.productId")
+	Stream<FavouritePairProjection> streamAllPairs();
+	
+	@Query("SELECT DISTINCT f.productId FROM Favourite f WHERE f.userId = :userId AND f.productId IN :productIds")
+	List<Integer> findProductIdsByUserIdAndProductIdIn(@Param("userId") final Integer userId, 
+			@Param("productIds") final Collection<Integer> productIds);
 	
+	boolean existsByUserIdAndProductId(final Integer userId, final Integer productId);
 	
 }
@@ -2,6 +2,7 @@ package com.selimhorri.app.resource;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -14,12 +15,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.dto.FavouriteCheckDto;
 import com.selimhorri.app.dto.FavouriteDto;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
 import com.selimhorri.app.service.FavouriteService;
 
 import lombok.RequiredArgsConstructor;
@@ -39,6 +44,26 @@ public class FavouriteResource {
 		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteService.findAll()));
 	}
 	
+	/**
+	 * One user's favourites, newest first. Follow {@code next} to page on; pass
+	 * {@code enrich=false} when only the ids are needed, to skip the user and product lookups.
+	 */
+	@GetMapping("/user/{userId}")
+	public ResponseEntity<DtoPageResponse<FavouriteDto>> findAllByUserId(
+			@PathVariable("userId") final String userId, 
+			@RequestParam(name = "after", required = false) final String after, 
+			@RequestParam(name = "limit", defaultValue = AppConstant.PAGE_DEFAULT_LIMIT) final int limit, 
+			@RequestParam(name = "enrich", defaultValue = "true") final boolean enrich) {
+		log.info("*** FavouriteDto Page, controller; fetch favourites page by userId *");
+		final var page = this.favouriteService.findPageByUserId(Integer.parseInt(userId.strip()), after, 
+				Math.max(1, Math.min(limit, AppConstant.PAGE_MAX_LIMIT)), enrich);
+		if (page.getNextCursor() != null)
+			page.setNext(ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", page.getNextCursor())
+					.toUriString());
+		return ResponseEntity.ok(page);
+	}
+	
 	@GetMapping("/{userId}/{productId}/{likeDate}")
 	public ResponseEntity<FavouriteDto> findById(
 			@PathVariable("userId") final String userId, 
@@ -59,6 +84,19 @@ public class FavouriteResource {
 		return ResponseEntity.ok(this.favouriteService.findById(favouriteId));
 	}
 	
+	/**
+	 * Tells, per product id, whether the user has favourited it; answered from memory.
+	 */
+	@PostMapping("/check")
+	public ResponseEntity<Map<Integer, Boolean>> check(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL") 
+			@Valid final FavouriteCheckDto favouriteCheckDto) {
+		log.info("*** Boolean Map, resource; check favourited products *");
+		return ResponseEntity.ok(this.favouriteService.check(favouriteCheckDto.getUserId(), 
+				favouriteCheckDto.getProductIds()));
+	}
+	
 	@PostMapping
 	public ResponseEntity<FavouriteDto> save(
 			@RequestBody 
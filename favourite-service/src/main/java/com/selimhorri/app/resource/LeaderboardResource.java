@@ -0,0 +1,40 @@
+package com.selimhorri.app.resource;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimhorri.app.domain.LeaderboardWindow;
+import com.selimhorri.app.dto.LeaderboardEntryDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.leaderboard.FavouriteLeaderboard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/favourites/leaderboard")
+@Slf4j
+@RequiredArgsConstructor
+public class LeaderboardResource {
+	
+	private final FavouriteLeaderboard favouriteLeaderboard;
+	
+	/**
+	 * Most favourited products over the last {@code window} (24h or 7d), optionally within
+	 * one category. Rankings lag new favourites by up to one flush interval.
+	 */
+	@GetMapping
+	public ResponseEntity<DtoCollectionResponse<LeaderboardEntryDto>> findTop(
+			@RequestParam(name = "window", defaultValue = "24h") final String window, 
+			@RequestParam(name = "categoryId", required = false) final Integer categoryId, 
+			@RequestParam(name = "limit", defaultValue = "10") final int limit) {
+		log.info("*** LeaderboardEntryDto List, controller; fetch most favourited products *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.favouriteLeaderboard.findTop(
+				LeaderboardWindow.fromKey(window), categoryId, 
+				Math.max(1, Math.min(limit, FavouriteLeaderboard.MAX_SIZE)))));
+	}
+	
+}
@@ -0,0 +1,34 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.leaderboard.FavouriteLeaderboard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes buffered like counts to the aggregate table; the flush interval is also
+ * how stale a leaderboard may be.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LeaderboardFlusher {
+	
+	private final FavouriteLeaderboard favouriteLeaderboard;
+	
+	@Scheduled(
+			initialDelayString = "${app.leaderboard.flush-interval-ms:10000}", 
+			fixedDelayString = "${app.leaderboard.flush-interval-ms:10000}")
+	public void flush() {
+		try {
+			this.favouriteLeaderboard.flush();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** LeaderboardFlusher; flush failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
@@ -0,0 +1,50 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.membership.FavouriteMembershipIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polling the change log bounds how long a favourite written through another instance can
+ * be missing from this instance's membership index; rebuilds repair whatever the log missed.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MembershipIndexRebuilder {
+	
+	private final FavouriteMembershipIndex favouriteMembershipIndex;
+	
+	@Scheduled(
+			initialDelayString = "${app.membership.rebuild-interval-ms:600000}", 
+			fixedDelayString = "${app.membership.rebuild-interval-ms:600000}")
+	public void rebuild() {
+		try {
+			this.favouriteMembershipIndex.rebuild();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** MembershipIndexRebuilder; rebuild failed, retrying next run: {} *", e.getMessage());
+		}
+		try {
+			this.favouriteMembershipIndex.purgeChanges();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** MembershipIndexRebuilder; change log purge failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+	@Scheduled(fixedDelayString = "${app.membership.poll-interval-ms:2000}")
+	public void pollChanges() {
+		try {
+			this.favouriteMembershipIndex.pollChanges();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** MembershipIndexRebuilder; change poll failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
@@ -0,0 +1,31 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.snapshot.ProductChangePoller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The poll interval bounds how stale an embedded product can be.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SnapshotRefresher {
+	
+	private final ProductChangePoller productChangePoller;
+	
+	@Scheduled(fixedDelayString = "${app.snapshots.poll-interval-ms:5000}")
+	public void refresh() {
+		try {
+			this.productChangePoller.poll();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** SnapshotRefresher; product change poll failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
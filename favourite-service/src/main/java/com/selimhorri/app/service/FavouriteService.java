@@ -1,16 +1,21 @@
 package com.selimhorri.app.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
 
 public interface FavouriteService {
 	
 	List<FavouriteDto> findAll();
 	FavouriteDto findById(final FavouriteId favouriteId);
+	DtoPageResponse<FavouriteDto> findPageByUserId(final Integer userId, final String after, final int limit, final boolean enrich);
 	FavouriteDto save(final FavouriteDto favouriteDto);
 	FavouriteDto update(final FavouriteDto favouriteDto);
 	void deleteById(final FavouriteId favouriteId);
+	Map<Integer, Boolean> check(final Integer userId, final Collection<Integer> productIds);
 	
 }
@@ -1,20 +1,31 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.Favourite;
 import com.selimhorri.app.domain.id.FavouriteId;
 import com.selimhorri.app.dto.FavouriteDto;
-import com.selimhorri.app.dto.ProductDto;
-import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.enrichment.FavouriteEnricher;
 import com.selimhorri.app.exception.wrapper.FavouriteNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+import com.selimhorri.app.helper.CursorHelper;
 import com.selimhorri.app.helper.FavouriteMappingHelper;
+import com.selimhorri.app.ingest.FavouriteWriteBehind;
+import com.selimhorri.app.leaderboard.FavouriteLeaderboard;
+import com.selimhorri.app.membership.FavouriteMembershipIndex;
 import com.selimhorri.app.repository.FavouriteRepository;
 import com.selimhorri.app.service.FavouriteService;
 
@@ -28,25 +39,20 @@ import lombok.extern.slf4j.Slf4j;
 public class FavouriteServiceImpl implements FavouriteService {
 	
 	private final FavouriteRepository favouriteRepository;
-	private final RestTemplate restTemplate;
+	private final FavouriteEnricher favouriteEnricher;
+	private final FavouriteLeaderboard favouriteLeaderboard;
+	private final FavouriteMembershipIndex favouriteMembershipIndex;
+	private final FavouriteWriteBehind favouriteWriteBehind;
+	private final TransactionTemplate transactionTemplate;
 	
 	@Override
 	public List<FavouriteDto> findAll() {
 		log.info("*** FavouriteDto List, service; fetch all favourites *");
-		return this.favouriteRepository.findAll()
+		return List.copyOf(this.favouriteEnricher.enrich(this.favouriteRepository.findAll()
 				.stream()
 					.map(FavouriteMappingHelper::map)
-					.map(f -> {
-						f.setUserDto(this.restTemplate
-								.getForObject(AppConstant.DiscoveredDomainsApi
-										.USER_SERVICE_API_URL + "/" + f.getUserId(), UserDto.class));
-						f.setProductDto(this.restTemplate
-								.getForObject(AppConstant.DiscoveredDomainsApi
-										.PRODUCT_SERVICE_API_URL + "/" + f.getProductId(), ProductDto.class));
-						return f;
-					})
 					.distinct()
-					.collect(Collectors.toUnmodifiableList());
+					.collect(Collectors.toList())));
 	}
 	
 	@Override
@@ -54,34 +60,100 @@ public class FavouriteServiceImpl implements FavouriteService {
 		log.info("*** FavouriteDto, service; fetch favourite by id *");
 		return this.favouriteRepository.findById(favouriteId)
 				.map(FavouriteMappingHelper::map)
-				.map(f -> {
-					f.setUserDto(this.restTemplate
-							.getForObject(AppConstant.DiscoveredDomainsApi
-									.USER_SERVICE_API_URL + "/" + f.getUserId(), UserDto.class));
-					f.setProductDto(this.restTemplate
-							.getForObject(AppConstant.DiscoveredDomainsApi
-									.PRODUCT_SERVICE_API_URL + "/" + f.getProductId(), ProductDto.class));
-					return f;
-				})
+				.map(f -> this.favouriteEnricher.enrich(List.of(f)).get(0))
 				.orElseThrow(() -> new FavouriteNotFoundException(
 						String.format("Favourite with id: [%s] not found!", favouriteId)));
 	}
 	
+	/**
+	 * Pages one user's favourites newest first by keyset on (likeDate, productId), which
+	 * is unique within a user and walks the (user_id, like_date, product_id) index.
+	 */
 	@Override
+	public DtoPageResponse<FavouriteDto> findPageByUserId(final Integer userId, final String after, 
+			final int limit, final boolean enrich) {
+		
+		log.info("*** FavouriteDto Page, service; fetch favourites page by userId *");
+		final var pageRequest = PageRequest.of(0, limit + 1);
+		final List<Favourite> rows;
+		if (after == null)
+			rows = this.favouriteRepository.findFirstPageByUserId(userId, pageRequest);
+		else {
+			final var parts = CursorHelper.decode(after, 2);
+			try {
+				rows = this.favouriteRepository.findPageByUserIdAfter(userId, 
+						LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]), pageRequest);
+			}
+			catch (NullPointerException | NumberFormatException | DateTimeParseException e) {
+				throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", after), e);
+			}
+		}
+		
+		final var hasNext = rows.size() > limit;
+		final var page = (hasNext ? rows.subList(0, limit) : rows).stream()
+				.map(FavouriteMappingHelper::map)
+				.collect(Collectors.toList());
+		final var last = page.isEmpty() ? null : page.get(page.size() - 1);
+		return DtoPageResponse.<FavouriteDto>builder()
+				.collection(List.copyOf(enrich ? this.favouriteEnricher.enrich(page) : page))
+				.nextCursor(hasNext ? CursorHelper.encode(last.getLikeDate(), last.getProductId()) : null)
+				.build();
+	}
+	
+	/**
+	 * In write-behind mode a new favourite is acknowledged once journaled and inserted
+	 * by a later batch; no transaction is opened for it here.
+	 */
+	@Override
+	@Transactional(TxType.SUPPORTS)
 	public FavouriteDto save(final FavouriteDto favouriteDto) {
-		return FavouriteMappingHelper.map(this.favouriteRepository
-				.save(FavouriteMappingHelper.map(favouriteDto)));
+		log.info("*** FavouriteDto, service; save favourite *");
+		if (this.favouriteWriteBehind.isEnabled()) {
+			final var favourite = FavouriteMappingHelper.map(favouriteDto);
+			if (favourite.getLikeDate() == null)
+				favourite.setLikeDate(LocalDateTime.now());
+			if (this.favouriteWriteBehind.offer(
+					new FavouriteId(favourite.getUserId(), favourite.getProductId(), favourite.getLikeDate())))
+				return FavouriteMappingHelper.map(favourite);
+		}
+		return this.transactionTemplate.execute(status -> this.saveAndCount(favouriteDto));
 	}
 	
 	@Override
 	public FavouriteDto update(final FavouriteDto favouriteDto) {
-		return FavouriteMappingHelper.map(this.favouriteRepository
-				.save(FavouriteMappingHelper.map(favouriteDto)));
+		return this.saveAndCount(favouriteDto);
+	}
+	
+	/**
+	 * Saving is an upsert on the full key, only a favourite that did not exist yet is a new like.
+	 */
+	private FavouriteDto saveAndCount(final FavouriteDto favouriteDto) {
+		final var favourite = FavouriteMappingHelper.map(favouriteDto);
+		final var isNew = !this.favouriteRepository.existsById(
+				new FavouriteId(favourite.getUserId(), favourite.getProductId(), favourite.getLikeDate()));
+		final var saved = this.favouriteRepository.save(favourite);
+		if (isNew) {
+			this.favouriteLeaderboard.recordLiked(saved.getProductId(), saved.getLikeDate());
+			this.favouriteMembershipIndex.added(saved.getUserId(), saved.getProductId());
+		}
+		return FavouriteMappingHelper.map(saved);
 	}
 	
 	@Override
 	public void deleteById(final FavouriteId favouriteId) {
+		final var existed = this.favouriteRepository.existsById(favouriteId);
 		this.favouriteRepository.deleteById(favouriteId);
+		if (existed) {
+			this.favouriteLeaderboard.recordUnliked(favouriteId.getProductId(), favouriteId.getLikeDate());
+			if (!this.favouriteRepository.existsByUserIdAndProductId(favouriteId.getUserId(), favouriteId.getProductId()))
+				this.favouriteMembershipIndex.removed(favouriteId.getUserId(), favouriteId.getProductId());
+		}
+	}
+	
+	@Override
+	public Map<Integer, Boolean> check(final Integer userId, final Collection<Integer> productIds) {
+		log.info("*** Boolean Map, service; check favourited products *");
+		return this.favouriteMembershipIndex.check(userId, productIds);
 	}
 	
 	
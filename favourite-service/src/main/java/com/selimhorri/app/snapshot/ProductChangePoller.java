@@ -0,0 +1,103 @@
+package com.selimhorri.app.snapshot;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.CatalogChangeDto;
+import com.selimhorri.app.dto.response.collection.DtoChangeFeedResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Follows product-service's catalog change feed and applies it to the product snapshots.
+ * The feed is read from {@code start-lag} before startup, which covers products fetched
+ * into the store while their change was still settling upstream.
+ * <p>
+ * While the feed cannot be read, snapshots go stale; once that has lasted {@code max-outage}
+ * the product snapshots are dropped, so reads fetch them again, and the feed is picked up
+ * from then on.
+ */
+@Component
+@Slf4j
+public class ProductChangePoller {
+	
+	private static final String CHANGES_URL = AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_HOST + "/api/changes";
+	private static final ParameterizedTypeReference<DtoChangeFeedResponse<CatalogChangeDto>> FEED_TYPE = 
+			new ParameterizedTypeReference<>() {};
+	
+	private final RestTemplate restTemplate;
+	private final SnapshotStore snapshotStore;
+	private final int pageSize;
+	private final Duration startLag;
+	private final Duration maxOutage;
+	
+	private String cursor;
+	private Instant since;
+	private Instant lastSuccess;
+	
+	public ProductChangePoller(
+			final RestTemplate restTemplate,
+			final SnapshotStore snapshotStore,
+			@Value("${app.snapshots.feed-page-size:500}") final int pageSize,
+			@Value("${app.snapshots.start-lag:1m}") final Duration startLag,
+			@Value("${app.snapshots.max-outage:1h}") final Duration maxOutage) {
+		this.restTemplate = restTemplate;
+		this.snapshotStore = snapshotStore;
+		this.pageSize = pageSize;
+		this.startLag = startLag;
+		this.maxOutage = maxOutage;
+		this.lastSuccess = Instant.now();
+		this.since = this.lastSuccess.minus(startLag);
+	}
+	
+	public synchronized void poll() {
+		
+		if (this.lastSuccess.plus(this.maxOutage).isBefore(Instant.now())) {
+			log.warn("*** ProductChangePoller; feed unreachable since {}, dropping product snapshots *", this.lastSuccess);
+			this.snapshotStore.evictAllProducts();
+			this.cursor = null;
+			this.lastSuccess = Instant.now();
+			this.since = this.lastSuccess.minus(this.startLag);
+		}
+		
+		var hasMore = true;
+		while (hasMore) {
+			final var uri = UriComponentsBuilder.fromHttpUrl(CHANGES_URL)
+					.queryParam("limit", this.pageSize);
+			if (this.cursor != null)
+				uri.queryParam("after", this.cursor);
+			else
+				uri.queryParam("since", this.since);
+			final var page = this.restTemplate
+					.exchange(uri.build().toUriString(), HttpMethod.GET, null, FEED_TYPE)
+					.getBody();
+			if (page == null)
+				return;
+			if (page.getCollection() != null)
+				page.getCollection().forEach(this::apply);
+			this.cursor = page.getCursor();
+			this.lastSuccess = Instant.now();
+			hasMore = page.isHasMore();
+		}
+	}
+	
+	private void apply(final CatalogChangeDto change) {
+		if (CatalogChangeDto.CATEGORY.equals(change.getEntityType()))
+			this.snapshotStore.evictProductsOfCategory(change.getEntityId());
+		else if (CatalogChangeDto.PRODUCT.equals(change.getEntityType())) {
+			if (CatalogChangeDto.DELETED.equals(change.getChangeType()) || change.getProduct() == null)
+				this.snapshotStore.evictProduct(change.getEntityId());
+			else
+				this.snapshotStore.refreshProduct(change.getProduct());
+		}
+	}
+	
+}
@@ -0,0 +1,94 @@
+package com.selimhorri.app.snapshot;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Local copies of the users and products favourites embed, bounded in size; once full,
+ * Caffeine evicts the entries it estimates are least likely to be read again, weighing
+ * how often as well as how recently they were read. Products are kept current by the
+ * catalog change feed, see {@link ProductChangePoller}. A change can still be lost when it
+ * is applied between a fetch and the put of the older copy that fetch returned, so product
+ * snapshots also expire after {@code product-ttl}. user-service publishes no change feed,
+ * so user snapshots expire after {@code user-ttl}. Expired snapshots are fetched again on
+ * the next read.
+ */
+@Component
+public class SnapshotStore {
+	
+	private final Cache<Integer, ProductDto> products;
+	private final Cache<Integer, UserDto> users;
+	
+	public SnapshotStore(final MeterRegistry meterRegistry, 
+			@Value("${app.snapshots.product-maximum-size:50000}") final long productMaximumSize, 
+			@Value("${app.snapshots.user-maximum-size:50000}") final long userMaximumSize, 
+			@Value("${app.snapshots.product-ttl:30m}") final Duration productTtl, 
+			@Value("${app.snapshots.user-ttl:10m}") final Duration userTtl) {
+		this.products = Caffeine.newBuilder()
+				.maximumSize(productMaximumSize)
+				.expireAfterWrite(productTtl)
+				.recordStats()
+				.build();
+		this.users = Caffeine.newBuilder()
+				.maximumSize(userMaximumSize)
+				.expireAfterWrite(userTtl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, this.products, "productSnapshots");
+		CaffeineCacheMetrics.monitor(meterRegistry, this.users, "userSnapshots");
+	}
+	
+	public Map<Integer, ProductDto> findProducts(final Collection<Integer> productIds) {
+		return this.products.getAllPresent(productIds);
+	}
+	
+	public Map<Integer, UserDto> findUsers(final Collection<Integer> userIds) {
+		return this.users.getAllPresent(userIds);
+	}
+	
+	public void putProducts(final Map<Integer, ProductDto> productDtos) {
+		this.products.putAll(productDtos);
+	}
+	
+	public void putUsers(final Map<Integer, UserDto> userDtos) {
+		this.users.putAll(userDtos);
+	}
+	
+	/**
+	 * Only replaces a product already held: the store follows what favourites are read,
+	 * not the whole catalog.
+	 */
+	public void refreshProduct(final ProductDto productDto) {
+		this.products.asMap().computeIfPresent(productDto.getProductId(), (productId, current) -> productDto);
+	}
+	
+	public void evictProduct(final Integer productId) {
+		this.products.invalidate(productId);
+	}
+	
+	/**
+	 * Products embed their category, so a category change drops the products filed under it.
+	 */
+	public void evictProductsOfCategory(final Integer categoryId) {
+		this.products.asMap().values().removeIf(productDto -> productDto.getCategoryDto() != null 
+				&& Objects.equals(productDto.getCategoryDto().getCategoryId(), categoryId));
+	}
+	
+	public void evictAllProducts() {
+		this.products.invalidateAll();
+	}
+	
+}
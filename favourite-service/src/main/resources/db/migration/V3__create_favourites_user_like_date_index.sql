@@ -0,0 +1,4 @@
+
+-- serves the per-user wishlist, newest first, without a sort step
+CREATE INDEX idx_favourites_user_like_date ON favourites (user_id, like_date DESC, product_id DESC);
+
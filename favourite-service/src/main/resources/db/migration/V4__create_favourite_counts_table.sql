@@ -0,0 +1,12 @@
+
+CREATE TABLE favourite_counts (
+	product_id INT(11) NOT NULL,
+	bucket_start TIMESTAMP NOT NULL,
+	category_id INT(11),
+	like_count BIGINT NOT NULL,
+	PRIMARY KEY (product_id, bucket_start)
+);
+
+CREATE INDEX idx_favourite_counts_bucket ON favourite_counts (bucket_start);
+CREATE INDEX idx_favourite_counts_category_bucket ON favourite_counts (category_id, bucket_start);
+
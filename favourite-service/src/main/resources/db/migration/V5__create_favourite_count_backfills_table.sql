@@ -0,0 +1,6 @@
+CREATE TABLE favourite_count_backfills (
+	backfill_id VARCHAR(64) NOT NULL,
+	claimed_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (backfill_id)
+);
+
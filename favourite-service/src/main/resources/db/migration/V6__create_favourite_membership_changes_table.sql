@@ -0,0 +1,11 @@
+CREATE TABLE favourite_membership_changes (
+	change_id BIGINT AUTO_INCREMENT NOT NULL,
+	user_id INT(11) NOT NULL,
+	product_id INT(11) NOT NULL,
+	added BOOLEAN NOT NULL,
+	changed_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL,
+	PRIMARY KEY (change_id)
+);
+
+CREATE INDEX idx_favourite_membership_changes_changed_at ON favourite_membership_changes (changed_at);
+
@@ -0,0 +1,140 @@
+package com.selimhorri.app.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.id.FavouriteId;
+import com.selimhorri.app.leaderboard.FavouriteLeaderboard;
+import com.selimhorri.app.membership.FavouriteMembershipIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class FavouriteWriteBehindTest {
+	
+	private static final LocalDateTime LIKE_DATE = LocalDateTime.of(2026, 10, 1, 10, 0);
+	
+	@Mock
+	private FavouriteLeaderboard favouriteLeaderboard;
+	
+	@Mock
+	private FavouriteMembershipIndex favouriteMembershipIndex;
+	
+	@TempDir
+	Path journalDirectory;
+	
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	
+	@BeforeEach
+	void setUp() {
+		final var dataSource = new DriverManagerDataSource("jdbc:h2:mem:write_behind;DB_CLOSE_DELAY=-1", "sa", "");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		this.jdbcTemplate.execute("CREATE TABLE favourites (user_id INT NOT NULL, product_id INT NOT NULL, "
+				+ "like_date TIMESTAMP NOT NULL, PRIMARY KEY (user_id, product_id, like_date))");
+	}
+	
+	@AfterEach
+	void tearDown() {
+		this.jdbcTemplate.execute("DROP TABLE favourites");
+	}
+	
+	@Test
+	void testStart_ShouldInsertLeftoverSegmentsAndSkipTornLines() throws Exception {
+		this.writeSegment(1, "1,10," + LIKE_DATE + "\n2,20," + LIKE_DATE + "\n3,30,2026-10-0");
+		this.writeSegment(2, "");
+		
+		final var writeBehind = this.writeBehind(this.journalDirectory.toString(), 100);
+		writeBehind.start();
+		writeBehind.stop();
+		
+		assertEquals(List.of("1,10", "2,20"), this.favourites());
+		assertTrue(this.segments().isEmpty());
+	}
+	
+	@Test
+	void testStart_ShouldReplayRepeatedFavouritesOnce() throws Exception {
+		this.jdbcTemplate.update("INSERT INTO favourites (user_id, product_id, like_date) VALUES (1, 10, ?)", LIKE_DATE);
+		this.writeSegment(1, "1,10," + LIKE_DATE + "\n2,20," + LIKE_DATE + "\n");
+		this.writeSegment(2, "2,20," + LIKE_DATE + "\n");
+		
+		final var writeBehind = this.writeBehind(this.journalDirectory.toString(), 100);
+		writeBehind.start();
+		writeBehind.stop();
+		
+		assertEquals(List.of("1,10", "2,20"), this.favourites());
+		verify(this.favouriteLeaderboard, times(1)).recordLiked(any(), any());
+		verify(this.favouriteLeaderboard).recordLiked(eq(20), eq(LIKE_DATE));
+		verify(this.favouriteMembershipIndex, times(1)).added(2, 20);
+	}
+	
+	@Test
+	void testOffer_ShouldFallBackOnceMaxDepthIsReached() throws Exception {
+		final var writeBehind = this.writeBehind(this.journalDirectory.toString(), 2);
+		writeBehind.start();
+		
+		assertTrue(writeBehind.offer(new FavouriteId(1, 10, LIKE_DATE)));
+		assertTrue(writeBehind.offer(new FavouriteId(2, 20, LIKE_DATE)));
+		assertFalse(writeBehind.offer(new FavouriteId(3, 30, LIKE_DATE)));
+		writeBehind.stop();
+		
+		assertEquals(List.of("1,10", "2,20"), this.favourites());
+	}
+	
+	@Test
+	void testStart_ShouldRequireJournalDirectoryWhenEnabled() {
+		final var writeBehind = this.writeBehind("", 100);
+		
+		assertThrows(IllegalStateException.class, writeBehind::start);
+	}
+	
+	private FavouriteWriteBehind writeBehind(final String journalDirectory, final int maxDepth) {
+		return new FavouriteWriteBehind(this.jdbcTemplate, this.transactionTemplate, this.favouriteLeaderboard,
+				this.favouriteMembershipIndex, new SimpleMeterRegistry(), true, journalDirectory, 500, 200L, maxDepth);
+	}
+	
+	private void writeSegment(final long sequence, final String lines) throws IOException {
+		Files.writeString(this.journalDirectory.resolve(String.format("favourites-%020d.journal", sequence)),
+				lines, StandardCharsets.UTF_8);
+	}
+	
+	private List<Path> segments() throws IOException {
+		try (final Stream<Path> files = Files.list(this.journalDirectory)) {
+			return files.collect(Collectors.toList());
+		}
+	}
+	
+	private List<String> favourites() {
+		return this.jdbcTemplate.queryForList(
+				"SELECT user_id || ',' || product_id FROM favourites ORDER BY user_id, product_id", String.class);
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.selimhorri.app.leaderboard;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.response.collection.DtoBatchCollectionResponse;
+import com.selimhorri.app.repository.FavouriteCountRepository;
+import com.selimhorri.app.repository.FavouriteRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FavouriteLeaderboardTest {
+	
+	private static final LocalDateTime BUCKET = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.HOURS);
+	private static final LocalDateTime LIKE_DATE = BUCKET.plusMinutes(10);
+	
+	@Mock
+	private FavouriteCountRepository favouriteCountRepository;
+	
+	@Mock
+	private FavouriteRepository favouriteRepository;
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private FavouriteLeaderboard favouriteLeaderboard;
+	
+	@BeforeEach
+	void setUp() {
+		this.favouriteLeaderboard = new FavouriteLeaderboard(this.favouriteCountRepository, this.favouriteRepository,
+				this.restTemplate, new TransactionTemplate(this.transactionManager), new SimpleMeterRegistry(), 200);
+		when(this.restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenReturn(ResponseEntity.ok(DtoBatchCollectionResponse.builder()
+						.collection(List.of(product(10, 3), product(20, 4)))
+						.build()));
+		when(this.favouriteCountRepository.addToCount(any(), any(), any(), anyLong())).thenReturn(1);
+	}
+	
+	@Test
+	void testFlush_ShouldAddNetDeltaPerBucketAndSkipCancelledOnes() {
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE);
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE.plusSeconds(1));
+		this.favouriteLeaderboard.recordUnliked(10, LIKE_DATE);
+		this.favouriteLeaderboard.recordLiked(20, LIKE_DATE);
+		this.favouriteLeaderboard.recordUnliked(20, LIKE_DATE);
+		this.favouriteLeaderboard.recordLiked(30, LocalDateTime.now().minusDays(30));
+		
+		this.favouriteLeaderboard.flush();
+		
+		verify(this.favouriteCountRepository).addToCount(10, BUCKET, 3, 1L);
+		verify(this.favouriteCountRepository, never()).addToCount(eq(20), any(), any(), anyLong());
+		verify(this.favouriteCountRepository, never()).addToCount(eq(30), any(), any(), anyLong());
+		verify(this.favouriteCountRepository).deleteOlderThan(any());
+		
+		this.favouriteLeaderboard.flush();
+		
+		verify(this.favouriteCountRepository, times(1)).addToCount(any(), any(), any(), anyLong());
+	}
+	
+	@Test
+	void testFlush_ShouldRequeueDeltasWhenTheUpdateFails() {
+		when(this.favouriteCountRepository.addToCount(any(), any(), any(), anyLong()))
+				.thenThrow(new QueryTimeoutException("timed out"))
+				.thenReturn(1);
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE);
+		
+		assertThrows(QueryTimeoutException.class, this.favouriteLeaderboard::flush);
+		
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE);
+		this.favouriteLeaderboard.flush();
+		
+		verify(this.favouriteCountRepository).addToCount(10, BUCKET, 3, 2L);
+	}
+	
+	@Test
+	void testFlush_ShouldInsertMissingBucketsAndAddToTheWinnerOnConflict() {
+		when(this.favouriteCountRepository.addToCount(any(), any(), any(), anyLong())).thenReturn(0, 1);
+		when(this.favouriteCountRepository.insertCount(any(), any(), any(), anyLong()))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"));
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE);
+		
+		this.favouriteLeaderboard.flush();
+		
+		verify(this.favouriteCountRepository).insertCount(10, BUCKET, 3, 1L);
+		verify(this.favouriteCountRepository, times(2)).addToCount(10, BUCKET, 3, 1L);
+	}
+	
+	@Test
+	void testFlush_ShouldRequeueMissingBucketsWhenTheInsertFails() {
+		when(this.favouriteCountRepository.addToCount(any(), any(), any(), anyLong())).thenReturn(0);
+		when(this.favouriteCountRepository.insertCount(any(), any(), any(), anyLong()))
+				.thenThrow(new QueryTimeoutException("timed out"))
+				.thenReturn(1);
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE);
+		
+		assertThrows(QueryTimeoutException.class, this.favouriteLeaderboard::flush);
+		this.favouriteLeaderboard.flush();
+		
+		verify(this.favouriteCountRepository, times(2)).insertCount(10, BUCKET, 3, 1L);
+	}
+	
+	@Test
+	void testFlush_ShouldCountGloballyWhenCategoryLookupFails() {
+		when(this.restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenReturn(ResponseEntity.ok().build());
+		this.favouriteLeaderboard.recordLiked(10, LIKE_DATE);
+		
+		this.favouriteLeaderboard.flush();
+		
+		verify(this.favouriteCountRepository).addToCount(eq(10), eq(BUCKET), isNull(), eq(1L));
+	}
+	
+	private static ProductDto product(final Integer productId, final Integer categoryId) {
+		return ProductDto.builder()
+				.productId(productId)
+				.categoryDto(CategoryDto.builder()
+						.categoryId(categoryId)
+						.build())
+				.build();
+	}
+	
+}
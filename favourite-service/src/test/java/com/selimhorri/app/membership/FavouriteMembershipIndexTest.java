@@ -0,0 +1,152 @@
+package com.selimhorri.app.membership;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.selimhorri.app.dto.projection.FavouritePairProjection;
+import com.selimhorri.app.repository.FavouriteRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class FavouriteMembershipIndexTest {
+	
+	@Mock
+	private FavouriteRepository favouriteRepository;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private JdbcTemplate jdbcTemplate;
+	private FavouriteMembershipIndex favouriteMembershipIndex;
+	
+	@BeforeEach
+	void setUp() {
+		this.jdbcTemplate = new JdbcTemplate(
+				new DriverManagerDataSource("jdbc:h2:mem:membership;DB_CLOSE_DELAY=-1", "sa", ""));
+		this.jdbcTemplate.execute("CREATE TABLE favourite_membership_changes (change_id BIGINT AUTO_INCREMENT NOT NULL, "
+				+ "user_id INT NOT NULL, product_id INT NOT NULL, added BOOLEAN NOT NULL, "
+				+ "changed_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL, PRIMARY KEY (change_id))");
+		this.favouriteMembershipIndex = new FavouriteMembershipIndex(this.favouriteRepository, this.jdbcTemplate,
+				this.transactionManager, new SimpleMeterRegistry(), Duration.ofSeconds(10), Duration.ofMinutes(10));
+	}
+	
+	@AfterEach
+	void tearDown() {
+		this.jdbcTemplate.execute("DROP TABLE favourite_membership_changes");
+	}
+	
+	@Test
+	void testCheck_ShouldAskTheDatabaseUntilTheFirstRebuild() {
+		when(this.favouriteRepository.findProductIdsByUserIdAndProductIdIn(1, List.of(10, 20))).thenReturn(List.of(20));
+		
+		assertEquals(Map.of(10, false, 20, true), this.favouriteMembershipIndex.check(1, List.of(10, 20)));
+	}
+	
+	@Test
+	void testRebuild_ShouldReplayWritesMadeWhileScanning() {
+		when(this.favouriteRepository.streamAllPairs()).thenAnswer(invocation -> {
+			CompletableFuture.runAsync(() -> {
+				this.favouriteMembershipIndex.added(1, 30);
+				this.favouriteMembershipIndex.removed(2, 10);
+				this.favouriteMembershipIndex.added(3, 10);
+			}).join();
+			return Stream.of(pair(1, 10), pair(1, 20), pair(2, 10));
+		});
+		
+		this.favouriteMembershipIndex.rebuild();
+		
+		assertEquals(Map.of(10, true, 20, true, 30, true, 40, false),
+				this.favouriteMembershipIndex.check(1, List.of(10, 20, 30, 40)));
+		assertEquals(Map.of(10, false), this.favouriteMembershipIndex.check(2, List.of(10)));
+		assertEquals(Map.of(10, true), this.favouriteMembershipIndex.check(3, List.of(10)));
+		assertEquals(3, this.changeCount());
+	}
+	
+	@Test
+	void testRebuild_ShouldKeepTheCurrentIndexWhenTheScanFails() {
+		when(this.favouriteRepository.streamAllPairs())
+				.thenReturn(Stream.of(pair(1, 10)))
+				.thenThrow(new QueryTimeoutException("timed out"));
+		this.favouriteMembershipIndex.rebuild();
+		
+		assertThrows(QueryTimeoutException.class, this.favouriteMembershipIndex::rebuild);
+		this.favouriteMembershipIndex.added(1, 20);
+		
+		assertEquals(Map.of(10, true, 20, true), this.favouriteMembershipIndex.check(1, List.of(10, 20)));
+	}
+	
+	@Test
+	void testPollChanges_ShouldApplyWritesLoggedByOtherInstancesInOrder() {
+		when(this.favouriteRepository.streamAllPairs()).thenReturn(Stream.of(pair(1, 10)));
+		this.favouriteMembershipIndex.rebuild();
+		this.logChange(1, 10, false, LocalDateTime.now());
+		this.logChange(1, 20, true, LocalDateTime.now());
+		this.logChange(1, 20, false, LocalDateTime.now());
+		this.logChange(1, 30, true, LocalDateTime.now());
+		this.logChange(1, 40, true, LocalDateTime.now().minusMinutes(1));
+		
+		this.favouriteMembershipIndex.pollChanges();
+		
+		assertEquals(Map.of(10, false, 20, false, 30, true, 40, false),
+				this.favouriteMembershipIndex.check(1, List.of(10, 20, 30, 40)));
+		verify(this.favouriteRepository).streamAllPairs();
+	}
+	
+	@Test
+	void testPurgeChanges_ShouldDeleteChangesPastRetention() {
+		this.logChange(1, 10, true, LocalDateTime.now().minusMinutes(11));
+		this.logChange(1, 20, true, LocalDateTime.now());
+		
+		assertEquals(1, this.favouriteMembershipIndex.purgeChanges());
+		assertEquals(1, this.changeCount());
+		verifyNoInteractions(this.favouriteRepository);
+	}
+	
+	private void logChange(final int userId, final int productId, final boolean added, final LocalDateTime changedAt) {
+		this.jdbcTemplate.update("INSERT INTO favourite_membership_changes (user_id, product_id, added, changed_at) "
+				+ "VALUES (?, ?, ?, ?)", userId, productId, added, changedAt);
+	}
+	
+	private int changeCount() {
+		return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favourite_membership_changes", Integer.class);
+	}
+	
+	private static FavouritePairProjection pair(final Integer userId, final Integer productId) {
+		return new FavouritePairProjection() {
+			
+			@Override
+			public Integer getUserId() {
+				return userId;
+			}
+			
+			@Override
+			public Integer getProductId() {
+				return productId;
+			}
+			
+		};
+	}
+	
+}
@@ -0,0 +1,125 @@
+package com.selimhorri.app.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.dto.CatalogChangeDto;
+import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.response.collection.DtoChangeFeedResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangePollerTest {
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	private SnapshotStore snapshotStore;
+	
+	@BeforeEach
+	void setUp() {
+		this.snapshotStore = new SnapshotStore(new SimpleMeterRegistry(), 100, 100, Duration.ofMinutes(30),
+				Duration.ofMinutes(10));
+		this.snapshotStore.putProducts(Map.of(
+				1, product(1, "old", 3),
+				2, product(2, "old", 3),
+				3, product(3, "old", 4),
+				4, product(4, "old", 5)));
+	}
+	
+	@Test
+	void testPoll_ShouldApplyEveryFeedPageToHeldSnapshots() {
+		when(this.restTemplate.exchange(contains("since="), eq(HttpMethod.GET), isNull(),
+				any(ParameterizedTypeReference.class))).thenReturn(page("c1", true,
+						change(CatalogChangeDto.PRODUCT, 1, "UPDATED", product(1, "new", 3)),
+						change(CatalogChangeDto.PRODUCT, 9, "CREATED", product(9, "new", 3)),
+						change(CatalogChangeDto.PRODUCT, 2, CatalogChangeDto.DELETED, null)));
+		when(this.restTemplate.exchange(contains("after=c1"), eq(HttpMethod.GET), isNull(),
+				any(ParameterizedTypeReference.class))).thenReturn(page("c2", false,
+						change(CatalogChangeDto.CATEGORY, 4, "UPDATED", null)));
+		
+		this.poller(Duration.ofHours(1)).poll();
+		
+		final var products = this.snapshotStore.findProducts(List.of(1, 2, 3, 4, 9));
+		assertEquals(Set.of(1, 4), products.keySet());
+		assertEquals("new", products.get(1).getProductTitle());
+		assertEquals("old", products.get(4).getProductTitle());
+	}
+	
+	@Test
+	void testPoll_ShouldDropSnapshotsAndRestartFeedOnceOutageLastsTooLong() throws Exception {
+		final var poller = this.poller(Duration.ofMillis(200));
+		when(this.restTemplate.exchange(contains("since="), eq(HttpMethod.GET), isNull(),
+				any(ParameterizedTypeReference.class))).thenReturn(page("c1", false));
+		poller.poll();
+		when(this.restTemplate.exchange(contains("after=c1"), eq(HttpMethod.GET), isNull(),
+				any(ParameterizedTypeReference.class))).thenThrow(new ResourceAccessException("connection refused"));
+		
+		assertThrows(ResourceAccessException.class, poller::poll);
+		assertEquals(4, this.snapshotStore.findProducts(List.of(1, 2, 3, 4)).size());
+		
+		Thread.sleep(300L);
+		poller.poll();
+		
+		assertEquals(Map.of(), this.snapshotStore.findProducts(List.of(1, 2, 3, 4)));
+		verify(this.restTemplate, times(2)).exchange(contains("since="), eq(HttpMethod.GET), isNull(),
+				any(ParameterizedTypeReference.class));
+	}
+	
+	private ProductChangePoller poller(final Duration maxOutage) {
+		return new ProductChangePoller(this.restTemplate, this.snapshotStore, 500, Duration.ofMinutes(1), maxOutage);
+	}
+	
+	private static ResponseEntity<DtoChangeFeedResponse<CatalogChangeDto>> page(final String cursor,
+			final boolean hasMore, final CatalogChangeDto... changes) {
+		return ResponseEntity.ok(new DtoChangeFeedResponse<>(List.of(changes), cursor, hasMore));
+	}
+	
+	private static CatalogChangeDto change(final String entityType, final Integer entityId, final String changeType,
+			final ProductDto productDto) {
+		return CatalogChangeDto.builder()
+				.entityType(entityType)
+				.entityId(entityId)
+				.changeType(changeType)
+				.changedAt(Instant.now())
+				.product(productDto)
+				.build();
+	}
+	
+	private static ProductDto product(final Integer productId, final String productTitle, final Integer categoryId) {
+		return ProductDto.builder()
+				.productId(productId)
+				.productTitle(productTitle)
+				.categoryDto(CategoryDto.builder()
+						.categoryId(categoryId)
+						.build())
+				.build();
+	}
+	
+}
@@ -0,0 +1,95 @@
+package com.selimhorri.app.archive;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.repository.ArchivedOrderRepository;
+import com.selimhorri.app.repository.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves orders dated before the horizon from {@code orders} to {@code orders_archive},
+ * oldest first, one chunk per transaction: each chunk is copied and deleted atomically,
+ * so a run that stops halfway leaves every order in exactly one table. A short pause
+ * between chunks keeps row locks and log volume from piling up under live traffic.
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+	
+	private final OrderRepository orderRepository;
+	private final ArchivedOrderRepository archivedOrderRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final Duration horizon;
+	private final int chunkSize;
+	private final Duration chunkPause;
+	private final Counter movedRows;
+	private final Timer chunkLatency;
+	
+	public OrderArchiver(
+			final OrderRepository orderRepository,
+			final ArchivedOrderRepository archivedOrderRepository,
+			final TransactionTemplate transactionTemplate,
+			final MeterRegistry meterRegistry,
+			@Value("${app.archive.horizon:365d}") final Duration horizon,
+			@Value("${app.archive.chunk-size:500}") final int chunkSize,
+			@Value("${app.archive.chunk-pause:100ms}") final Duration chunkPause) {
+		this.orderRepository = orderRepository;
+		this.archivedOrderRepository = archivedOrderRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.horizon = horizon;
+		this.chunkSize = chunkSize;
+		this.chunkPause = chunkPause;
+		this.movedRows = Counter.builder("order.archive.rows")
+				.description("Orders moved to the archive table")
+				.register(meterRegistry);
+		this.chunkLatency = Timer.builder("order.archive.chunk")
+				.description("Time to copy and delete one chunk of orders")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+	}
+	
+	public int archive() {
+		
+		final var cutoff = LocalDateTime.now().minus(this.horizon);
+		var archived = 0;
+		while (true) {
+			final var moved = this.chunkLatency.record(() -> this.archiveChunk(cutoff));
+			archived += moved;
+			if (moved < this.chunkSize)
+				break;
+			try {
+				Thread.sleep(this.chunkPause.toMillis());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		log.info("*** OrderArchiver; archived {} orders dated before {} *", archived, cutoff);
+		return archived;
+	}
+	
+	private int archiveChunk(final LocalDateTime cutoff) {
+		return this.transactionTemplate.execute(status -> {
+			final var orderIds = this.orderRepository.findIdsOrderedBefore(cutoff, PageRequest.of(0, this.chunkSize));
+			if (orderIds.isEmpty())
+				return 0;
+			this.archivedOrderRepository.copyFromOrders(orderIds, Instant.now());
+			final var moved = this.orderRepository.deleteAllByOrderIdIn(orderIds);
+			this.movedRows.increment(moved);
+			return moved;
+		});
+	}
+	
+}
@@ -0,0 +1,76 @@
+package com.selimhorri.app.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.UserDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, TTL-evicting cache of the users carts embed. A miss is loaded inside the
+ * cache's per-key compute, so concurrent misses for one user wait for a single fetch
+ * from user-service instead of each making their own.
+ * <p>
+ * Hit rate is published through the cache metrics ("userSummaries"); the age of every
+ * summary served is recorded as {@code user.summary.cache.staleness}.
+ */
+@Component
+public class UserSummaryCache {
+	
+	private final RestTemplate restTemplate;
+	private final Cache<Integer, UserSummary> cache;
+	private final Timer staleness;
+	
+	public UserSummaryCache(final RestTemplate restTemplate, final MeterRegistry meterRegistry, 
+			@Value("${app.cache.user-summary.maximum-size:10000}") final long maximumSize, 
+			@Value("${app.cache.user-summary.expire-after-write:5m}") final Duration expireAfterWrite) {
+		this.restTemplate = restTemplate;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "userSummaries");
+		this.staleness = Timer.builder("user.summary.cache.staleness")
+				.description("Age of the user summaries served to carts")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+	}
+	
+	public UserDto get(final Integer userId) {
+		final var summary = this.cache.get(userId, this::fetch);
+		if (summary == null)
+			return null;
+		this.staleness.record(Duration.between(summary.fetchedAt, Instant.now()));
+		return summary.userDto;
+	}
+	
+	private UserSummary fetch(final Integer userId) {
+		final var userDto = this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
+				.USER_SERVICE_API_URL + "/" + userId, UserDto.class);
+		return userDto == null ? null : new UserSummary(userDto, Instant.now());
+	}
+	
+	private static final class UserSummary {
+		
+		private final UserDto userDto;
+		private final Instant fetchedAt;
+		
+		private UserSummary(final UserDto userDto, final Instant fetchedAt) {
+			this.userDto = userDto;
+			this.fetchedAt = fetchedAt;
+		}
+		
+	}
+	
+}
@@ -1,5 +1,9 @@
 package com.selimhorri.app.config.client;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,10 +12,19 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class ClientConfig {
 	
+	/**
+	 * Timed out so a hung instance fails the call instead of holding a checkout or outbox
+	 * relay thread indefinitely.
+	 */
 	@LoadBalanced
 	@Bean
-	public RestTemplate restTemplateBean() {
-		return new RestTemplate();
+	public RestTemplate restTemplateBean(final RestTemplateBuilder restTemplateBuilder, 
+			@Value("${app.client.connect-timeout:1s}") final Duration connectTimeout, 
+			@Value("${app.client.read-timeout:3s}") final Duration readTimeout) {
+		return restTemplateBuilder
+				.setConnectTimeout(connectTimeout)
+				.setReadTimeout(readTimeout)
+				.build();
 	}
 	
 	
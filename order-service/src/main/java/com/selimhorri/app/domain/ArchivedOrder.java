@@ -0,0 +1,51 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order moved out of the hot table by the archiver; read-only from then on.
+ */
+@Entity
+@Table(name = "orders_archive")
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Builder
+public final class ArchivedOrder extends AbstractMappedEntity implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "order_id", unique = true, nullable = false, updatable = false)
+	private Integer orderId;
+	
+	@Column(name = "order_date", nullable = false, updatable = false)
+	private LocalDateTime orderDate;
+	
+	@Column(name = "order_desc", updatable = false)
+	private String orderDesc;
+	
+	@Column(name = "order_fee", columnDefinition = "decimal", updatable = false)
+	private Double orderFee;
+	
+	@Column(name = "cart_id", updatable = false)
+	private Integer cartId;
+	
+	@Column(name = "archived_at", nullable = false, updatable = false)
+	private Instant archivedAt;
+	
+}
@@ -0,0 +1,42 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "idempotency_records")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class IdempotencyRecord implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "idempotency_key", unique = true, nullable = false, updatable = false, length = 160)
+	private String idempotencyKey;
+	
+	@Column(name = "request_hash", nullable = false, updatable = false, length = 64)
+	private String requestHash;
+	
+	@Column(name = "response")
+	private String response;
+	
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private Instant createdAt;
+	
+	@Column(name = "expires_at", nullable = false, updatable = false)
+	private Instant expiresAt;
+	
+}
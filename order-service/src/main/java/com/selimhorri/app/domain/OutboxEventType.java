@@ -0,0 +1,19 @@
+package com.selimhorri.app.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum OutboxEventType {
+	
+	CART_CREATED("CART"),
+	CART_UPDATED("CART"),
+	CART_DELETED("CART"),
+	ORDER_CREATED("ORDER"),
+	ORDER_UPDATED("ORDER"),
+	ORDER_DELETED("ORDER");
+	
+	private final String aggregateType;
+	
+}
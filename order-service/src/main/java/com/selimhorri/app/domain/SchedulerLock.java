@@ -0,0 +1,39 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A lease on a scheduled job, held by at most one instance until {@code lockedUntil}.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class SchedulerLock implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(name = "lock_name", unique = true, nullable = false, updatable = false, length = 64)
+	private String lockName;
+	
+	@Column(name = "locked_until", nullable = false)
+	private Instant lockedUntil;
+	
+	@Column(name = "locked_by", nullable = false, length = 64)
+	private String lockedBy;
+	
+}
@@ -13,6 +13,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
 import com.selimhorri.app.exception.wrapper.CartNotFoundException;
+import com.selimhorri.app.exception.wrapper.CheckoutFailedException;
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyInProgressException;
+import com.selimhorri.app.exception.wrapper.InvalidCheckoutRequestException;
+import com.selimhorri.app.exception.wrapper.InvalidIdempotencyKeyException;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
 import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
 
 import lombok.RequiredArgsConstructor;
@@ -44,6 +49,9 @@ public class ApiExceptionHandler {
 	@ExceptionHandler(value = {
 		CartNotFoundException.class,
 		OrderNotFoundException.class,
+		InvalidPageRequestException.class,
+		InvalidCheckoutRequestException.class,
+		InvalidIdempotencyKeyException.class,
 		IllegalStateException.class,
 	})
 	public <T extends RuntimeException> ResponseEntity<ExceptionMsg> handleApiRequestException(final T e) {
@@ -60,6 +68,40 @@ public class ApiExceptionHandler {
 					.build(), badRequest);
 	}
 	
+	@ExceptionHandler(value = {
+		CheckoutFailedException.class,
+	})
+	public ResponseEntity<ExceptionMsg> handleCheckoutFailedException(final CheckoutFailedException e) {
+		
+		log.info("**ApiExceptionHandler controller, handle failed checkout*\n");
+		final var httpStatus = e.getHttpStatus();
+		
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+					.msg("#### " + e.getMessage() + "! ####")
+					.httpStatus(httpStatus)
+					.timestamp(ZonedDateTime
+							.now(ZoneId.systemDefault()))
+					.build(), httpStatus);
+	}
+	
+	@ExceptionHandler(value = {
+		IdempotencyKeyInProgressException.class,
+	})
+	public ResponseEntity<ExceptionMsg> handleIdempotencyKeyInProgressException(final IdempotencyKeyInProgressException e) {
+		
+		log.info("**ApiExceptionHandler controller, handle idempotency key in progress*\n");
+		final var conflict = HttpStatus.CONFLICT;
+		
+		return new ResponseEntity<>(
+				ExceptionMsg.builder()
+					.msg("#### " + e.getMessage() + "! ####")
+					.httpStatus(conflict)
+					.timestamp(ZonedDateTime
+							.now(ZoneId.systemDefault()))
+					.build(), conflict);
+	}
+	
 	
 	
 }
@@ -0,0 +1,41 @@
+package com.selimhorri.app.exception.wrapper;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Carries the status to answer with; the message is meant for clients and never
+ * includes what a downstream service returned.
+ */
+public class CheckoutFailedException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final HttpStatus httpStatus;
+	
+	public CheckoutFailedException(String message, HttpStatus httpStatus, Throwable cause) {
+		super(message, cause);
+		this.httpStatus = httpStatus;
+	}
+	
+	public CheckoutFailedException(String message, HttpStatus httpStatus) {
+		super(message);
+		this.httpStatus = httpStatus;
+	}
+	
+	public HttpStatus getHttpStatus() {
+		return this.httpStatus;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidCheckoutRequestException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidCheckoutRequestException() {
+		super();
+	}
+	
+	public InvalidCheckoutRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidCheckoutRequestException(String message) {
+		super(message);
+	}
+	
+	public InvalidCheckoutRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
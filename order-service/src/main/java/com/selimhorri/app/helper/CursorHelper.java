@@ -0,0 +1,51 @@
+package com.selimhorri.app.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+
+public interface CursorHelper {
+	
+	public static final String SEPARATOR = "\u001f";
+	public static final String NULL_VALUE = "\u0000";
+	
+	public static String encode(final Object... parts) {
+		final var raw = Arrays.stream(parts)
+				.map(part -> part == null ? NULL_VALUE : part.toString())
+				.collect(Collectors.joining(SEPARATOR));
+		return Base64.getUrlEncoder()
+				.withoutPadding()
+				.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static String[] decode(final String cursor, final int expectedParts) {
+		try {
+			final var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+					.split(SEPARATOR, -1);
+			if (parts.length != expectedParts)
+				throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", cursor));
+			return Arrays.stream(parts)
+					.map(part -> NULL_VALUE.equals(part) ? null : part)
+					.toArray(String[]::new);
+		}
+		catch (IllegalArgumentException e) {
+			throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", cursor), e);
+		}
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -1,5 +1,6 @@
 package com.selimhorri.app.helper;
 
+import com.selimhorri.app.domain.ArchivedOrder;
 import com.selimhorri.app.domain.Cart;
 import com.selimhorri.app.domain.Order;
 import com.selimhorri.app.dto.CartDto;
@@ -16,6 +17,20 @@ public interface OrderMappingHelper {
 				.cartDto(
 						CartDto.builder()
 							.cartId(order.getCart().getCartId())
+							.userId(order.getCart().getUserId())
+							.build())
+				.build();
+	}
+	
+	public static OrderDto map(final ArchivedOrder archivedOrder) {
+		return OrderDto.builder()
+				.orderId(archivedOrder.getOrderId())
+				.orderDate(archivedOrder.getOrderDate())
+				.orderDesc(archivedOrder.getOrderDesc())
+				.orderFee(archivedOrder.getOrderFee())
+				.cartDto(
+						CartDto.builder()
+							.cartId(archivedOrder.getCartId())
 							.build())
 				.build();
 	}
@@ -0,0 +1,61 @@
+package com.selimhorri.app.lock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.SchedulerLock;
+import com.selimhorri.app.repository.SchedulerLockRepository;
+
+/**
+ * Elects one instance to run a scheduled job through a lease row in {@code scheduler_locks}.
+ * A holder that dies keeps the lease until it runs out, so the lease has to outlast the
+ * longest run but stay short enough for the next run to go ahead.
+ */
+@Component
+public class SchedulerLocks {
+	
+	private final SchedulerLockRepository schedulerLockRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final String owner = UUID.randomUUID().toString();
+	
+	public SchedulerLocks(final SchedulerLockRepository schedulerLockRepository, 
+			final TransactionTemplate transactionTemplate) {
+		this.schedulerLockRepository = schedulerLockRepository;
+		this.transactionTemplate = transactionTemplate;
+	}
+	
+	/**
+	 * A lock without its row yet is created held; of two instances creating it at once,
+	 * the second fails on the key and does not run.
+	 */
+	public boolean tryAcquire(final String lockName, final Duration lease) {
+		final var now = Instant.now();
+		if (this.transactionTemplate.execute(status -> this.schedulerLockRepository
+				.acquire(lockName, this.owner, now, now.plus(lease)) == 1))
+			return true;
+		if (this.schedulerLockRepository.existsById(lockName))
+			return false;
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> this.schedulerLockRepository.save(SchedulerLock.builder()
+					.lockName(lockName)
+					.lockedUntil(now.plus(lease))
+					.lockedBy(this.owner)
+					.build()));
+			return true;
+		}
+		catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+	
+	public void release(final String lockName) {
+		this.transactionTemplate.executeWithoutResult(status -> this.schedulerLockRepository
+				.release(lockName, this.owner, Instant.now()));
+	}
+	
+}
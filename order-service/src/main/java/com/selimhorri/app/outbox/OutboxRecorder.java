@@ -0,0 +1,54 @@
+package com.selimhorri.app.outbox;
+
+import java.time.Instant;
+
+import javax.transaction.Transactional;
+import javax.transaction.Transactional.TxType;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.domain.OutboxEvent;
+import com.selimhorri.app.domain.OutboxEventType;
+import com.selimhorri.app.repository.OutboxEventRepository;
+
+/**
+ * Writes domain events to the outbox table. It joins the caller's transaction and refuses
+ * to run without one, so an event is stored if and only if the change it describes is.
+ */
+@Component
+public class OutboxRecorder {
+	
+	private final OutboxEventRepository outboxEventRepository;
+	private final ObjectWriter payloadWriter;
+	
+	public OutboxRecorder(final OutboxEventRepository outboxEventRepository, final ObjectMapper objectMapper) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.payloadWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+	}
+	
+	@Transactional(TxType.MANDATORY)
+	public void record(final OutboxEventType eventType, final Object aggregateId, final Object payload) {
+		final String json;
+		try {
+			json = this.payloadWriter.writeValueAsString(payload);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException(String.format("%s event could not be serialized", eventType), e);
+		}
+		final var now = Instant.now();
+		this.outboxEventRepository.save(OutboxEvent.builder()
+				.aggregateType(eventType.getAggregateType())
+				.aggregateId(String.valueOf(aggregateId))
+				.eventType(eventType.name())
+				.payload(json)
+				.occurredAt(now)
+				.attempts(0)
+				.nextAttemptAt(now)
+				.build());
+	}
+	
+}
@@ -0,0 +1,241 @@
+package com.selimhorri.app.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.domain.OutboxEvent;
+import com.selimhorri.app.dto.OutboxEventDto;
+import com.selimhorri.app.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers outbox events to every configured subscriber as a JSON array, oldest first,
+ * one POST per subscriber and batch. A batch is deleted once all subscribers answered
+ * 2xx; otherwise it is retried whole with exponential backoff, so subscribers must
+ * tolerate duplicates and can deduplicate on {@code eventId}.
+ * <p>
+ * A batch is leased before it is sent, which keeps other instances off its aggregates
+ * until it is delivered or the lease runs out. An aggregate whose event is leased or
+ * backing off is skipped entirely, so its events are always delivered in order. The lease
+ * has to outlast the client read timeout times the number of subscribers, or a slow
+ * subscriber lets another instance send the batch again.
+ * <p>
+ * Once a batch has failed {@code max-attempts} times it is split and its events are sent
+ * one by one, so a single undeliverable event no longer holds back the rest. An event that
+ * fails on its own after {@code max-attempts} is moved to {@code outbox_dead_letters} for
+ * an operator to inspect or replay; later events of its aggregate then go ahead. Events
+ * still pending after a failure are reported as {@code outbox.stuck}.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+	
+	private static final int MAX_ERROR_LENGTH = 255;
+	
+	private final OutboxEventRepository outboxEventRepository;
+	private final RestTemplate restTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final String source;
+	private final List<String> subscribers;
+	private final int batchSize;
+	private final Duration lease;
+	private final Duration maxBackoff;
+	private final int maxAttempts;
+	private final Counter deliveredEvents;
+	private final Counter failedBatches;
+	private final Counter deadLetteredEvents;
+	private final Timer deliveryLag;
+	
+	public OutboxRelay(
+			final OutboxEventRepository outboxEventRepository,
+			final RestTemplate restTemplate,
+			final TransactionTemplate transactionTemplate,
+			final MeterRegistry meterRegistry,
+			@Value("${spring.application.name:ORDER-SERVICE}") final String source,
+			@Value("${app.outbox.subscribers:}") final List<String> subscribers,
+			@Value("${app.outbox.batch-size:100}") final int batchSize,
+			@Value("${app.outbox.lease:30s}") final Duration lease,
+			@Value("${app.outbox.max-backoff:5m}") final Duration maxBackoff,
+			@Value("${app.outbox.max-attempts:20}") final int maxAttempts) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.restTemplate = restTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.source = source;
+		this.subscribers = subscribers.stream()
+				.map(String::strip)
+				.filter(subscriber -> !subscriber.isEmpty())
+				.collect(Collectors.toUnmodifiableList());
+		this.batchSize = batchSize;
+		this.lease = lease;
+		this.maxBackoff = maxBackoff;
+		this.maxAttempts = maxAttempts;
+		this.deliveredEvents = Counter.builder("outbox.delivered")
+				.register(meterRegistry);
+		this.failedBatches = Counter.builder("outbox.delivery.failures")
+				.register(meterRegistry);
+		this.deadLetteredEvents = Counter.builder("outbox.dead_lettered")
+				.description("Events moved to the dead-letter table after exhausting their attempts")
+				.register(meterRegistry);
+		Gauge.builder("outbox.stuck", outboxEventRepository, repository -> repository.countByAttemptsGreaterThan(0))
+				.description("Events still in the outbox after at least one failed delivery")
+				.register(meterRegistry);
+		Gauge.builder("outbox.dead_letters", outboxEventRepository, OutboxEventRepository::countDeadLetters)
+				.description("Events waiting in the dead-letter table")
+				.register(meterRegistry);
+		this.deliveryLag = Timer.builder("outbox.delivery.lag")
+				.description("Time from an event being recorded to all subscribers acknowledging it")
+				.publishPercentiles(0.5, 0.99)
+				.register(meterRegistry);
+	}
+	
+	/**
+	 * Sends batches until the due events are drained or a batch fails.
+	 */
+	public int relay() {
+		var delivered = 0;
+		while (true) {
+			final var batch = this.relayBatch();
+			delivered += batch;
+			if (batch < this.batchSize)
+				return delivered;
+		}
+	}
+	
+	private int relayBatch() {
+		
+		final var now = Instant.now();
+		final List<OutboxEvent> events = this.transactionTemplate.execute(status -> {
+			final var due = this.outboxEventRepository.findDue(now, PageRequest.of(0, this.batchSize));
+			if (!due.isEmpty())
+				this.outboxEventRepository.lease(eventIds(due), now.plus(this.lease));
+			return due;
+		});
+		if (events.isEmpty())
+			return 0;
+		
+		try {
+			this.send(events);
+		}
+		catch (RuntimeException e) {
+			final var attempts = events.stream().mapToInt(OutboxEvent::getAttempts).max().orElse(0) + 1;
+			this.failedBatches.increment();
+			if (attempts >= this.maxAttempts && events.size() > 1) {
+				log.warn("*** OutboxRelay; delivery of {} events failed (attempt {}), sending them one by one: {} *", 
+						events.size(), attempts, e.getMessage());
+				return this.relayEach(events);
+			}
+			if (attempts >= this.maxAttempts)
+				return this.deadLetter(events.get(0), e);
+			this.reschedule(eventIds(events), attempts);
+			log.warn("*** OutboxRelay; delivery of {} events failed (attempt {}), retrying later: {} *", 
+					events.size(), attempts, e.getMessage());
+			return 0;
+		}
+		
+		this.acknowledge(events);
+		return events.size();
+	}
+	
+	/**
+	 * Sends each event of a leased batch on its own. An event that fails is rescheduled, or
+	 * dead-lettered once out of attempts; events after a rescheduled one on the same aggregate
+	 * are not sent and stay leased until the lease runs out.
+	 */
+	private int relayEach(final List<OutboxEvent> events) {
+		
+		final Set<String> blockedAggregates = new HashSet<>();
+		var delivered = 0;
+		for (final var event : events) {
+			final var aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+			if (blockedAggregates.contains(aggregate))
+				continue;
+			try {
+				this.send(List.of(event));
+			}
+			catch (RuntimeException e) {
+				final var attempts = event.getAttempts() + 1;
+				if (attempts >= this.maxAttempts)
+					this.deadLetter(event, e);
+				else {
+					this.reschedule(List.of(event.getEventId()), attempts);
+					blockedAggregates.add(aggregate);
+				}
+				continue;
+			}
+			this.acknowledge(List.of(event));
+			delivered++;
+		}
+		return delivered;
+	}
+	
+	private void send(final List<OutboxEvent> events) {
+		final var eventDtos = events.stream()
+				.map(this::map)
+				.collect(Collectors.toUnmodifiableList());
+		this.subscribers.forEach(subscriber -> this.restTemplate.postForEntity(subscriber, eventDtos, Void.class));
+	}
+	
+	private void acknowledge(final List<OutboxEvent> events) {
+		this.transactionTemplate.executeWithoutResult(status -> this.outboxEventRepository.deleteAllByEventIdIn(eventIds(events)));
+		final var acknowledged = Instant.now();
+		events.forEach(event -> this.deliveryLag.record(Duration.between(event.getOccurredAt(), acknowledged)));
+		this.deliveredEvents.increment(events.size());
+	}
+	
+	private void reschedule(final List<Long> eventIds, final int attempts) {
+		this.transactionTemplate.executeWithoutResult(status -> this.outboxEventRepository
+				.reschedule(eventIds, Instant.now().plus(this.backoff(attempts))));
+	}
+	
+	private int deadLetter(final OutboxEvent event, final RuntimeException cause) {
+		final var lastError = String.valueOf(cause.getMessage());
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.outboxEventRepository.copyToDeadLetters(event.getEventId(), Instant.now(), 
+					lastError.length() > MAX_ERROR_LENGTH ? lastError.substring(0, MAX_ERROR_LENGTH) : lastError);
+			this.outboxEventRepository.deleteAllByEventIdIn(List.of(event.getEventId()));
+		});
+		this.deadLetteredEvents.increment();
+		log.error("*** OutboxRelay; event {} of {} {} dead-lettered after {} attempts: {} *", event.getEventId(), 
+				event.getAggregateType(), event.getAggregateId(), event.getAttempts() + 1, lastError);
+		return 0;
+	}
+	
+	private Duration backoff(final int attempts) {
+		final var backoff = Duration.ofSeconds(1L << Math.min(attempts - 1, 20));
+		return backoff.compareTo(this.maxBackoff) > 0 ? this.maxBackoff : backoff;
+	}
+	
+	private OutboxEventDto map(final OutboxEvent event) {
+		return OutboxEventDto.builder()
+				.eventId(event.getEventId())
+				.source(this.source)
+				.aggregateType(event.getAggregateType())
+				.aggregateId(event.getAggregateId())
+				.eventType(event.getEventType())
+				.occurredAt(event.getOccurredAt())
+				.payload(event.getPayload())
+				.build();
+	}
+	
+	private static List<Long> eventIds(final List<OutboxEvent> events) {
+		return events.stream()
+				.map(OutboxEvent::getEventId)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+}
@@ -0,0 +1,36 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.ArchivedOrder;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Integer> {
+	
+	@Query("SELECT a FROM ArchivedOrder a WHERE a.cartId IN (SELECT c.cartId FROM Cart c WHERE c.userId = :userId) "
+			+ "ORDER BY a.orderDate DESC, a.orderId DESC")
+	List<ArchivedOrder> findFirstPageByUserId(@Param("userId") final Integer userId, final Pageable pageable);
+	
+	@Query("SELECT a FROM ArchivedOrder a WHERE a.cartId IN (SELECT c.cartId FROM Cart c WHERE c.userId = :userId) "
+			+ "AND (a.orderDate < :orderDate OR (a.orderDate = :orderDate AND a.orderId < :orderId)) "
+			+ "ORDER BY a.orderDate DESC, a.orderId DESC")
+	List<ArchivedOrder> findPageByUserIdAfter(@Param("userId") final Integer userId, 
+			@Param("orderDate") final LocalDateTime orderDate, @Param("orderId") final Integer orderId, 
+			final Pageable pageable);
+	
+	@Modifying
+	@Query(value = "INSERT INTO orders_archive "
+			+ "(order_id, order_date, order_desc, order_fee, cart_id, created_at, updated_at, archived_at) "
+			+ "SELECT order_id, order_date, order_desc, order_fee, cart_id, created_at, updated_at, :archivedAt "
+			+ "FROM orders WHERE order_id IN (:orderIds)", nativeQuery = true)
+	int copyFromOrders(@Param("orderIds") final Collection<Integer> orderIds, @Param("archivedAt") final Instant archivedAt);
+	
+}
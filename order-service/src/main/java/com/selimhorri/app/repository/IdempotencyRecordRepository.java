@@ -0,0 +1,39 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.IdempotencyRecord;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+	
+	/**
+	 * A plain insert, unlike {@code save}, fails on a key another transaction already holds.
+	 */
+	@Modifying
+	@Query(value = "INSERT INTO idempotency_records (idempotency_key, request_hash, created_at, expires_at) "
+			+ "VALUES (:idempotencyKey, :requestHash, :createdAt, :expiresAt)", nativeQuery = true)
+	int insert(@Param("idempotencyKey") final String idempotencyKey, @Param("requestHash") final String requestHash, 
+			@Param("createdAt") final Instant createdAt, @Param("expiresAt") final Instant expiresAt);
+	
+	@Modifying
+	@Query("UPDATE IdempotencyRecord r SET r.response = :response WHERE r.idempotencyKey = :idempotencyKey")
+	int updateResponse(@Param("idempotencyKey") final String idempotencyKey, @Param("response") final String response);
+	
+	@Modifying
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey AND r.response IS NULL")
+	int deletePending(@Param("idempotencyKey") final String idempotencyKey);
+	
+	@Modifying
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :idempotencyKey AND r.expiresAt <= :now")
+	int deleteExpired(@Param("idempotencyKey") final String idempotencyKey, @Param("now") final Instant now);
+	
+	@Modifying
+	@Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+	int deleteExpiredBefore(@Param("now") final Instant now);
+	
+}
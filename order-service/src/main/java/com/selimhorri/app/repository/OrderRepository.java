@@ -1,11 +1,35 @@
 package com.selimhorri.app.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Order;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 	
+	@Query("SELECT o FROM Order o JOIN FETCH o.cart c WHERE c.userId = :userId "
+			+ "ORDER BY o.orderDate DESC, o.orderId DESC")
+	List<Order> findFirstPageByUserId(@Param("userId") final Integer userId, final Pageable pageable);
+	
+	@Query("SELECT o FROM Order o JOIN FETCH o.cart c WHERE c.userId = :userId "
+			+ "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.orderId < :orderId)) "
+			+ "ORDER BY o.orderDate DESC, o.orderId DESC")
+	List<Order> findPageByUserIdAfter(@Param("userId") final Integer userId, 
+			@Param("orderDate") final LocalDateTime orderDate, @Param("orderId") final Integer orderId, 
+			final Pageable pageable);
+	
+	@Query("SELECT o.orderId FROM Order o WHERE o.orderDate < :horizon ORDER BY o.orderDate, o.orderId")
+	List<Integer> findIdsOrderedBefore(@Param("horizon") final LocalDateTime horizon, final Pageable pageable);
 	
+	@Modifying
+	@Query("DELETE FROM Order o WHERE o.orderId IN :orderIds")
+	int deleteAllByOrderIdIn(@Param("orderIds") final Collection<Integer> orderIds);
 	
 }
@@ -0,0 +1,58 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+	
+	/**
+	 * Oldest events that are due, skipping every aggregate whose earlier event is leased
+	 * or backing off, so an aggregate's events never overtake each other.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT e FROM OutboxEvent e WHERE e.nextAttemptAt <= :now "
+			+ "AND NOT EXISTS (SELECT b.eventId FROM OutboxEvent b WHERE b.aggregateType = e.aggregateType "
+			+ "AND b.aggregateId = e.aggregateId AND b.eventId < e.eventId AND b.nextAttemptAt > :now) "
+			+ "ORDER BY e.eventId")
+	List<OutboxEvent> findDue(@Param("now") final Instant now, final Pageable pageable);
+	
+	@Modifying
+	@Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :until WHERE e.eventId IN :eventIds")
+	int lease(@Param("eventIds") final Collection<Long> eventIds, @Param("until") final Instant until);
+	
+	@Modifying
+	@Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt "
+			+ "WHERE e.eventId IN :eventIds")
+	int reschedule(@Param("eventIds") final Collection<Long> eventIds, 
+			@Param("nextAttemptAt") final Instant nextAttemptAt);
+	
+	@Modifying
+	@Query(value = "INSERT INTO outbox_dead_letters (event_id, aggregate_type, aggregate_id, event_type, payload, "
+			+ "occurred_at, attempts, dead_lettered_at, last_error) "
+			+ "SELECT event_id, aggregate_type, aggregate_id, event_type, payload, occurred_at, attempts + 1, "
+			+ ":deadLetteredAt, :lastError FROM outbox_events WHERE event_id = :eventId", nativeQuery = true)
+	int copyToDeadLetters(@Param("eventId") final Long eventId, @Param("deadLetteredAt") final Instant deadLetteredAt, 
+			@Param("lastError") final String lastError);
+	
+	long countByAttemptsGreaterThan(final Integer attempts);
+	
+	@Query(value = "SELECT COUNT(*) FROM outbox_dead_letters", nativeQuery = true)
+	long countDeadLetters();
+	
+	@Modifying
+	@Query("DELETE FROM OutboxEvent e WHERE e.eventId IN :eventIds")
+	int deleteAllByEventIdIn(@Param("eventIds") final Collection<Long> eventIds);
+	
+}
@@ -0,0 +1,29 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.SchedulerLock;
+
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+	
+	/**
+	 * Takes the lease only if it has run out; the row lock makes concurrent takers queue up
+	 * and all but the first find it held.
+	 */
+	@Modifying
+	@Query("UPDATE SchedulerLock l SET l.lockedUntil = :until, l.lockedBy = :owner "
+			+ "WHERE l.lockName = :lockName AND l.lockedUntil <= :now")
+	int acquire(@Param("lockName") final String lockName, @Param("owner") final String owner, 
+			@Param("now") final Instant now, @Param("until") final Instant until);
+	
+	@Modifying
+	@Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.lockName = :lockName AND l.lockedBy = :owner")
+	int release(@Param("lockName") final String lockName, @Param("owner") final String owner, 
+			@Param("now") final Instant now);
+	
+}
@@ -11,11 +11,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.CheckoutDto;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.idempotency.IdempotencyStore;
+import com.selimhorri.app.service.CheckoutService;
 import com.selimhorri.app.service.OrderService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,6 +36,8 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderResource {
 	
 	private final OrderService orderService;
+	private final IdempotencyStore idempotencyStore;
+	private final CheckoutService checkoutService;
 	
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<OrderDto>> findAll() {
@@ -44,13 +54,54 @@ public class OrderResource {
 		return ResponseEntity.ok(this.orderService.findById(Integer.parseInt(orderId)));
 	}
 	
+	/**
+	 * One user's orders, newest first. Follow {@code next} to page on.
+	 */
+	@GetMapping("/user/{userId}")
+	public ResponseEntity<DtoPageResponse<OrderDto>> findAllByUserId(
+			@PathVariable("userId") final String userId, 
+			@RequestParam(name = "after", required = false) final String after, 
+			@RequestParam(name = "limit", defaultValue = AppConstant.PAGE_DEFAULT_LIMIT) final int limit) {
+		log.info("*** OrderDto Page, resource; fetch orders page by userId *");
+		final var page = this.orderService.findPageByUserId(Integer.parseInt(userId.strip()), after, 
+				Math.max(1, Math.min(limit, AppConstant.PAGE_MAX_LIMIT)));
+		if (page.getNextCursor() != null)
+			page.setNext(ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", page.getNextCursor())
+					.toUriString());
+		return ResponseEntity.ok(page);
+	}
+	
+	/**
+	 * Retries carrying the same {@code Idempotency-Key} get the first response back
+	 * instead of creating another order.
+	 */
 	@PostMapping
 	public ResponseEntity<OrderDto> save(
+			@RequestHeader(name = IdempotencyStore.HEADER, required = false) final String idempotencyKey, 
 			@RequestBody 
 			@NotNull(message = "Input must not be NULL") 
 			@Valid final OrderDto orderDto) {
 		log.info("*** OrderDto, resource; save order *");
-		return ResponseEntity.ok(this.orderService.save(orderDto));
+		return ResponseEntity.ok(this.idempotencyStore.execute("order", idempotencyKey, orderDto, OrderDto.class, 
+				() -> this.orderService.save(orderDto)));
+	}
+	
+	/**
+	 * Reserves stock and saves the order, its items and a pending payment in one call;
+	 * nothing is left behind when a step fails. A retry carrying the same
+	 * {@code Idempotency-Key} waits for the first attempt and gets its response back,
+	 * or a 409 while it is still running.
+	 */
+	@PostMapping("/checkout")
+	public ResponseEntity<CheckoutDto> checkout(
+			@RequestHeader(name = IdempotencyStore.HEADER, required = false) final String idempotencyKey, 
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL") 
+			@Valid final CheckoutDto checkoutDto) {
+		log.info("*** CheckoutDto, resource; checkout order *");
+		return ResponseEntity.ok(this.idempotencyStore.executeDetached("checkout", idempotencyKey, checkoutDto, CheckoutDto.class, 
+				() -> this.checkoutService.checkout(checkoutDto)));
 	}
 	
 	@PutMapping
@@ -0,0 +1,31 @@
+package com.selimhorri.app.scheduler;
+
+import java.time.Instant;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.repository.IdempotencyRecordRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops expired keys; a retry arriving after that runs as a new request.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyRecordPurger {
+	
+	private final IdempotencyRecordRepository idempotencyRecordRepository;
+	
+	@Scheduled(cron = "${app.idempotency.purge-cron:0 15 * * * *}")
+	@Transactional
+	public void purge() {
+		final var purged = this.idempotencyRecordRepository.deleteExpiredBefore(Instant.now());
+		log.info("*** IdempotencyRecordPurger; purged {} idempotency records *", purged);
+	}
+	
+}
@@ -0,0 +1,70 @@
+package com.selimhorri.app.scheduler;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.archive.OrderArchiver;
+import com.selimhorri.app.lock.SchedulerLocks;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs off-peak on one instance at a time; a failed run picks up where it stopped the
+ * next night.
+ */
+@Component
+@Slf4j
+public class OrderArchiveSweeper {
+	
+	private static final String LOCK_NAME = "order-archive";
+	
+	private final OrderArchiver orderArchiver;
+	private final SchedulerLocks schedulerLocks;
+	private final Duration lease;
+	
+	public OrderArchiveSweeper(
+			final OrderArchiver orderArchiver,
+			final SchedulerLocks schedulerLocks,
+			@Value("${app.archive.lease:6h}") final Duration lease) {
+		this.orderArchiver = orderArchiver;
+		this.schedulerLocks = schedulerLocks;
+		this.lease = lease;
+	}
+	
+	@Scheduled(cron = "${app.archive.cron:0 0 3 * * *}")
+	public void sweep() {
+		try {
+			if (!this.schedulerLocks.tryAcquire(LOCK_NAME, this.lease)) {
+				log.info("*** OrderArchiveSweeper; archival already running on another instance *");
+				return;
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn("*** OrderArchiveSweeper; could not take the archival lock, retrying next run: {} *", e.getMessage());
+			return;
+		}
+		try {
+			this.orderArchiver.archive();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** OrderArchiveSweeper; archival failed, retrying next run: {} *", e.getMessage());
+		}
+		finally {
+			this.release();
+		}
+	}
+	
+	private void release() {
+		try {
+			this.schedulerLocks.release(LOCK_NAME);
+		}
+		catch (RuntimeException e) {
+			log.warn("*** OrderArchiveSweeper; could not release the archival lock, it runs out after {}: {} *", 
+					this.lease, e.getMessage());
+		}
+	}
+	
+}
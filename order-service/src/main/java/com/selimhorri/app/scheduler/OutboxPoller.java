@@ -0,0 +1,31 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.outbox.OutboxRelay;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The poll interval bounds how long a recorded event waits before it is sent.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxPoller {
+	
+	private final OutboxRelay outboxRelay;
+	
+	@Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+	public void poll() {
+		try {
+			this.outboxRelay.relay();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** OutboxPoller; relay failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
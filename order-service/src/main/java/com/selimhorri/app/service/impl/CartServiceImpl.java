@@ -6,13 +6,13 @@ import java.util.stream.Collectors;
 import javax.transaction.Transactional;
 
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.cache.UserSummaryCache;
+import com.selimhorri.app.domain.OutboxEventType;
 import com.selimhorri.app.dto.CartDto;
-import com.selimhorri.app.dto.UserDto;
 import com.selimhorri.app.exception.wrapper.CartNotFoundException;
 import com.selimhorri.app.helper.CartMappingHelper;
+import com.selimhorri.app.outbox.OutboxRecorder;
 import com.selimhorri.app.repository.CartRepository;
 import com.selimhorri.app.service.CartService;
 
@@ -26,7 +26,8 @@ import lombok.extern.slf4j.Slf4j;
 public class CartServiceImpl implements CartService {
 	
 	private final CartRepository cartRepository;
-	private final RestTemplate restTemplate;
+	private final UserSummaryCache userSummaryCache;
+	private final OutboxRecorder outboxRecorder;
 	
 	@Override
 	public List<CartDto> findAll() {
@@ -35,8 +36,7 @@ public class CartServiceImpl implements CartService {
 				.stream()
 					.map(CartMappingHelper::map)
 					.map(c -> {
-						c.setUserDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
-								.USER_SERVICE_API_URL + "/" + c.getUserDto().getUserId(), UserDto.class));
+						c.setUserDto(this.userSummaryCache.get(c.getUserDto().getUserId()));
 						return c;
 					})
 					.distinct()
@@ -49,8 +49,7 @@ public class CartServiceImpl implements CartService {
 		return this.cartRepository.findById(cartId)
 				.map(CartMappingHelper::map)
 				.map(c -> {
-					c.setUserDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
-							.USER_SERVICE_API_URL + "/" + c.getUserDto().getUserId(), UserDto.class));
+					c.setUserDto(this.userSummaryCache.get(c.getUserDto().getUserId()));
 					return c;
 				})
 				.orElseThrow(() -> new CartNotFoundException(String
@@ -60,28 +59,37 @@ public class CartServiceImpl implements CartService {
 	@Override
 	public CartDto save(final CartDto cartDto) {
 		log.info("*** CartDto, service; save cart *");
-		return CartMappingHelper.map(this.cartRepository
+		final var savedCartDto = CartMappingHelper.map(this.cartRepository
 				.save(CartMappingHelper.map(cartDto)));
+		this.outboxRecorder.record(OutboxEventType.CART_CREATED, savedCartDto.getCartId(), savedCartDto);
+		return savedCartDto;
 	}
 	
 	@Override
 	public CartDto update(final CartDto cartDto) {
 		log.info("*** CartDto, service; update cart *");
-		return CartMappingHelper.map(this.cartRepository
+		final var savedCartDto = CartMappingHelper.map(this.cartRepository
 				.save(CartMappingHelper.map(cartDto)));
+		this.outboxRecorder.record(OutboxEventType.CART_UPDATED, savedCartDto.getCartId(), savedCartDto);
+		return savedCartDto;
 	}
 	
 	@Override
 	public CartDto update(final Integer cartId, final CartDto cartDto) {
 		log.info("*** CartDto, service; update cart with cartId *");
-		return CartMappingHelper.map(this.cartRepository
+		final var savedCartDto = CartMappingHelper.map(this.cartRepository
 				.save(CartMappingHelper.map(this.findById(cartId))));
+		this.outboxRecorder.record(OutboxEventType.CART_UPDATED, savedCartDto.getCartId(), savedCartDto);
+		return savedCartDto;
 	}
 	
 	@Override
 	public void deleteById(final Integer cartId) {
 		log.info("*** Void, service; delete cart by id *");
 		this.cartRepository.deleteById(cartId);
+		this.outboxRecorder.record(OutboxEventType.CART_DELETED, cartId, CartDto.builder()
+				.cartId(cartId)
+				.build());
 	}
 	
 	
@@ -0,0 +1,351 @@
+package com.selimhorri.app.service.impl;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.CheckoutDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderItemDto;
+import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.dto.ProductReservationDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.exception.wrapper.CheckoutFailedException;
+import com.selimhorri.app.exception.wrapper.InvalidCheckoutRequestException;
+import com.selimhorri.app.service.CheckoutService;
+import com.selimhorri.app.service.OrderService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Places an order in one call. Stock is reserved for every line item while the order row
+ * is written; once both are done, the line items (one batch) and the pending payment are
+ * created concurrently, and the reservations are confirmed last. All steps run on a
+ * bounded pool and share one deadline.
+ * <p>
+ * Each step that succeeds registers its undo. When a step fails or the deadline passes,
+ * the undos registered so far run concurrently, and a step that only completes afterwards
+ * undoes itself. Undos run on a pool of their own, so a backlog of forward steps never
+ * delays them. A reservation confirmed before another failed to confirm can no longer
+ * be released; that shows up as a failed compensation.
+ * <p>
+ * A failed checkout answers 409 when stock ran out, 504 when a step timed out and 502
+ * or 503 when a downstream service failed or could not be reached; what the downstream
+ * service said is logged, not returned.
+ */
+@Service
+@Slf4j
+public class CheckoutServiceImpl implements CheckoutService {
+	
+	private static final String RESERVATION_API_URL = AppConstant.DiscoveredDomainsApi.PRODUCT_SERVICE_HOST + "/api/reservations";
+	private static final String ORDER_ITEM_BATCH_URL = AppConstant.DiscoveredDomainsApi.SHIPPING_SERVICE_API_URL + "/batch";
+	private static final ParameterizedTypeReference<DtoCollectionResponse<OrderItemDto>> ORDER_ITEMS_TYPE =
+			new ParameterizedTypeReference<>() {};
+	
+	private final OrderService orderService;
+	private final RestTemplate restTemplate;
+	private final Duration timeout;
+	private final ExecutorService executor;
+	private final ExecutorService compensationExecutor;
+	private final Timer succeededCheckouts;
+	private final Timer failedCheckouts;
+	private final Counter failedCompensations;
+	
+	public CheckoutServiceImpl(
+			final OrderService orderService,
+			final RestTemplate restTemplate,
+			final MeterRegistry meterRegistry,
+			@Value("${app.checkout.parallelism:16}") final int parallelism,
+			@Value("${app.checkout.compensation-parallelism:4}") final int compensationParallelism,
+			@Value("${app.checkout.timeout:5s}") final Duration timeout) {
+		this.orderService = orderService;
+		this.restTemplate = restTemplate;
+		this.timeout = timeout;
+		this.executor = newPool(parallelism, "order-checkout-");
+		this.compensationExecutor = newPool(compensationParallelism, "order-checkout-undo-");
+		this.succeededCheckouts = Timer.builder("order.checkout")
+				.tag("outcome", "success")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		this.failedCheckouts = Timer.builder("order.checkout")
+				.tag("outcome", "failure")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		this.failedCompensations = Counter.builder("order.checkout.compensation.failures")
+				.description("Checkout steps that could not be undone and need reconciliation")
+				.register(meterRegistry);
+	}
+	
+	private static ExecutorService newPool(final int threads, final String namePrefix) {
+		final var threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, runnable -> {
+			final var thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Override
+	public CheckoutDto checkout(final CheckoutDto checkoutDto) {
+		
+		log.info("*** CheckoutDto, service; checkout order *");
+		final var quantities = quantitiesByProduct(checkoutDto);
+		final var orderDto = checkoutDto.getOrderDto();
+		orderDto.setOrderId(null);
+		if (orderDto.getOrderDate() == null)
+			orderDto.setOrderDate(LocalDateTime.now());
+		
+		final var start = System.nanoTime();
+		final var deadline = start + this.timeout.toNanos();
+		final var saga = new Saga();
+		try {
+			final var reservations = quantities.entrySet().stream()
+					.map(entry -> saga.step("reservation of product " + entry.getKey(),
+							() -> this.reserve(entry.getKey(), entry.getValue()),
+							reservation -> this.release(reservation.getReservationId())))
+					.collect(Collectors.toList());
+			final var order = saga.step("order",
+					() -> this.orderService.save(orderDto),
+					savedOrderDto -> this.orderService.deleteById(savedOrderDto.getOrderId()));
+			final var savedOrderDto = this.await(order, deadline);
+			final var reservationDtos = this.awaitAll(reservations, deadline);
+			
+			final var orderId = savedOrderDto.getOrderId();
+			final var orderItemDtos = quantities.entrySet().stream()
+					.map(entry -> OrderItemDto.builder()
+							.orderId(orderId)
+							.productId(entry.getKey())
+							.orderedQuantity(entry.getValue())
+							.build())
+					.collect(Collectors.toUnmodifiableList());
+			final var orderItems = saga.step("order items of order " + orderId,
+					() -> this.saveOrderItems(orderItemDtos),
+					savedOrderItemDtos -> this.restTemplate.delete(AppConstant.DiscoveredDomainsApi
+							.SHIPPING_SERVICE_API_URL + "/order/" + orderId));
+			final var payment = saga.step("payment of order " + orderId,
+					() -> this.createPayment(orderId),
+					paymentDto -> this.restTemplate.delete(AppConstant.DiscoveredDomainsApi
+							.PAYMENT_SERVICE_API_URL + "/" + paymentDto.getPaymentId()));
+			final var savedOrderItemDtos = this.await(orderItems, deadline);
+			final var paymentDto = this.await(payment, deadline);
+			
+			this.awaitAll(reservationDtos.stream()
+					.map(reservation -> saga.step("confirmation of reservation " + reservation.getReservationId(),
+							() -> this.confirm(reservation.getReservationId()),
+							confirmed -> {}))
+					.collect(Collectors.toList()), deadline);
+			
+			this.succeededCheckouts.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return CheckoutDto.builder()
+					.orderDto(savedOrderDto)
+					.orderItemDtos(savedOrderItemDtos)
+					.paymentDto(paymentDto)
+					.build();
+		}
+		catch (RuntimeException e) {
+			saga.abort(deadline);
+			this.failedCheckouts.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+	}
+	
+	private static Map<Integer, Integer> quantitiesByProduct(final CheckoutDto checkoutDto) {
+		
+		final var orderDto = checkoutDto.getOrderDto();
+		if (orderDto == null || orderDto.getCartDto() == null || orderDto.getCartDto().getCartId() == null)
+			throw new InvalidCheckoutRequestException("Checkout needs an order with a cart");
+		if (checkoutDto.getOrderItemDtos() == null || checkoutDto.getOrderItemDtos().isEmpty())
+			throw new InvalidCheckoutRequestException("Checkout needs at least one order item");
+		
+		final Map<Integer, Integer> quantities = new LinkedHashMap<>();
+		checkoutDto.getOrderItemDtos().forEach(orderItemDto -> {
+			if (orderItemDto == null || orderItemDto.getProductId() == null 
+					|| orderItemDto.getOrderedQuantity() == null || orderItemDto.getOrderedQuantity() <= 0)
+				throw new InvalidCheckoutRequestException("Every order item needs a productId and a positive orderedQuantity");
+			quantities.merge(orderItemDto.getProductId(), orderItemDto.getOrderedQuantity(), Integer::sum);
+		});
+		return quantities;
+	}
+	
+	private ProductReservationDto reserve(final Integer productId, final Integer quantity) {
+		return this.restTemplate.postForObject(RESERVATION_API_URL, ProductReservationDto.builder()
+				.productId(productId)
+				.quantity(quantity)
+				.build(), ProductReservationDto.class);
+	}
+	
+	private ProductReservationDto confirm(final String reservationId) {
+		return this.restTemplate.postForObject(RESERVATION_API_URL + "/" + reservationId + "/confirm", 
+				null, ProductReservationDto.class);
+	}
+	
+	private void release(final String reservationId) {
+		this.restTemplate.postForObject(RESERVATION_API_URL + "/" + reservationId + "/release", 
+				null, ProductReservationDto.class);
+	}
+	
+	private List<OrderItemDto> saveOrderItems(final List<OrderItemDto> orderItemDtos) {
+		final var response = this.restTemplate
+				.exchange(ORDER_ITEM_BATCH_URL, HttpMethod.POST, new HttpEntity<>(orderItemDtos), ORDER_ITEMS_TYPE)
+				.getBody();
+		return response == null || response.getCollection() == null ? orderItemDtos 
+				: List.copyOf(response.getCollection());
+	}
+	
+	private PaymentDto createPayment(final Integer orderId) {
+		return this.restTemplate.postForObject(AppConstant.DiscoveredDomainsApi.PAYMENT_SERVICE_API_URL, 
+				PaymentDto.builder()
+					.isPayed(false)
+					.paymentStatus("NOT_STARTED")
+					.orderDto(OrderDto.builder()
+							.orderId(orderId)
+							.build())
+					.build(), PaymentDto.class);
+	}
+	
+	private <T> T await(final CompletableFuture<T> future, final long deadline) {
+		try {
+			return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CheckoutFailedException("Checkout was interrupted", HttpStatus.SERVICE_UNAVAILABLE, e);
+		}
+		catch (ExecutionException e) {
+			throw this.failed(e.getCause());
+		}
+		catch (TimeoutException e) {
+			throw new CheckoutFailedException(String.format("Checkout did not complete within %s", this.timeout), 
+					HttpStatus.GATEWAY_TIMEOUT, e);
+		}
+	}
+	
+	private CheckoutFailedException failed(final Throwable cause) {
+		log.warn("*** CheckoutDto, service; checkout step failed: {} *", cause.toString());
+		if (cause instanceof HttpStatusCodeException && ((HttpStatusCodeException) cause).getStatusCode() == HttpStatus.CONFLICT)
+			return new CheckoutFailedException("Not enough stock for one or more order items", HttpStatus.CONFLICT, cause);
+		if (cause instanceof ResourceAccessException && cause.getCause() instanceof SocketTimeoutException)
+			return new CheckoutFailedException("A downstream service did not answer in time", HttpStatus.GATEWAY_TIMEOUT, cause);
+		if (cause instanceof ResourceAccessException || cause instanceof IllegalStateException)
+			return new CheckoutFailedException("A downstream service is unavailable", HttpStatus.SERVICE_UNAVAILABLE, cause);
+		return new CheckoutFailedException("A downstream service failed", HttpStatus.BAD_GATEWAY, cause);
+	}
+	
+	private <T> List<T> awaitAll(final List<CompletableFuture<T>> futures, final long deadline) {
+		final var results = new ArrayList<T>(futures.size());
+		for (final var future : futures)
+			results.add(this.await(future, deadline));
+		return results;
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		this.executor.shutdown();
+		this.compensationExecutor.shutdown();
+	}
+	
+	/**
+	 * Undo log of one checkout.
+	 */
+	private final class Saga {
+		
+		private final List<Compensation> compensations = new ArrayList<>();
+		private boolean aborted;
+		
+		private <T> CompletableFuture<T> step(final String description, final Supplier<T> action, 
+				final Consumer<T> compensation) {
+			return CompletableFuture.supplyAsync(action, executor)
+					.thenApply(result -> {
+						this.register(new Compensation(description, () -> compensation.accept(result)));
+						return result;
+					});
+		}
+		
+		private void register(final Compensation compensation) {
+			synchronized (this) {
+				if (!this.aborted) {
+					this.compensations.add(compensation);
+					return;
+				}
+			}
+			compensationExecutor.execute(compensation::run);
+		}
+		
+		private void abort(final long deadline) {
+			final List<Compensation> registered;
+			synchronized (this) {
+				this.aborted = true;
+				registered = List.copyOf(this.compensations);
+				this.compensations.clear();
+			}
+			final var undos = registered.stream()
+					.map(compensation -> CompletableFuture.runAsync(compensation::run, compensationExecutor))
+					.toArray(CompletableFuture[]::new);
+			try {
+				CompletableFuture.allOf(undos).get(Math.max(0L, deadline - System.nanoTime()) 
+						+ timeout.toNanos(), TimeUnit.NANOSECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException | TimeoutException e) {
+				log.warn("*** CheckoutDto, service; compensations still running after checkout failed *");
+			}
+		}
+	
+	}
+	
+	private final class Compensation {
+		
+		private final String description;
+		private final Runnable undo;
+		
+		private Compensation(final String description, final Runnable undo) {
+			this.description = description;
+			this.undo = undo;
+		}
+		
+		private void run() {
+			try {
+				this.undo.run();
+			}
+			catch (RuntimeException e) {
+				failedCompensations.increment();
+				log.error("*** CheckoutDto, service; could not undo {}, needs reconciliation: {} *", 
+						this.description, e.getMessage());
+			}
+		}
+	
+	}
+	
+}
@@ -1,15 +1,26 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.selimhorri.app.domain.OutboxEventType;
 import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
 import com.selimhorri.app.exception.wrapper.OrderNotFoundException;
+import com.selimhorri.app.helper.CursorHelper;
 import com.selimhorri.app.helper.OrderMappingHelper;
+import com.selimhorri.app.outbox.OutboxRecorder;
+import com.selimhorri.app.repository.ArchivedOrderRepository;
 import com.selimhorri.app.repository.OrderRepository;
 import com.selimhorri.app.service.OrderService;
 
@@ -23,6 +34,8 @@ import lombok.extern.slf4j.Slf4j;
 public class OrderServiceImpl implements OrderService {
 	
 	private final OrderRepository orderRepository;
+	private final ArchivedOrderRepository archivedOrderRepository;
+	private final OutboxRecorder outboxRecorder;
 	
 	@Override
 	public List<OrderDto> findAll() {
@@ -34,40 +47,118 @@ public class OrderServiceImpl implements OrderService {
 					.collect(Collectors.toUnmodifiableList());
 	}
 	
+	/**
+	 * Falls back to the archive for orders past the archival horizon.
+	 */
 	@Override
 	public OrderDto findById(final Integer orderId) {
 		log.info("*** OrderDto, service; fetch order by id *");
 		return this.orderRepository.findById(orderId)
 				.map(OrderMappingHelper::map)
+				.or(() -> this.archivedOrderRepository.findById(orderId)
+						.map(OrderMappingHelper::map))
 				.orElseThrow(() -> new OrderNotFoundException(String
 						.format("Order with id: %d not found", orderId)));
 	}
 	
+	private OrderDto findHotById(final Integer orderId) {
+		return this.orderRepository.findById(orderId)
+				.map(OrderMappingHelper::map)
+				.orElseThrow(() -> new OrderNotFoundException(String
+						.format("Order with id: %d not found or archived", orderId)));
+	}
+	
+	/**
+	 * Pages one user's orders newest first by keyset on (orderDate, orderId), fetching
+	 * each order's cart in the same query; only the user's carts are probed, through
+	 * the carts (user_id) and orders (cart_id, order_date) indexes. A page the hot table
+	 * cannot fill continues into the archive with the same keyset. The hot table is read
+	 * first, so an order archived in between shows up in both reads and is kept once.
+	 */
+	@Override
+	public DtoPageResponse<OrderDto> findPageByUserId(final Integer userId, final String after, final int limit) {
+		
+		log.info("*** OrderDto Page, service; fetch orders page by userId *");
+		final var pageRequest = PageRequest.of(0, limit + 1);
+		LocalDateTime afterOrderDate = null;
+		Integer afterOrderId = null;
+		if (after != null) {
+			final var parts = CursorHelper.decode(after, 2);
+			try {
+				afterOrderDate = LocalDateTime.parse(parts[0]);
+				afterOrderId = Integer.parseInt(parts[1]);
+			}
+			catch (NullPointerException | NumberFormatException | DateTimeParseException e) {
+				throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", after), e);
+			}
+		}
+		
+		final var rows = (after == null ? this.orderRepository.findFirstPageByUserId(userId, pageRequest)
+				: this.orderRepository.findPageByUserIdAfter(userId, afterOrderDate, afterOrderId, pageRequest))
+				.stream()
+					.map(OrderMappingHelper::map)
+					.collect(Collectors.toCollection(ArrayList::new));
+		if (rows.size() <= limit) {
+			final var seen = rows.stream()
+					.map(OrderDto::getOrderId)
+					.collect(Collectors.toSet());
+			(after == null ? this.archivedOrderRepository.findFirstPageByUserId(userId, pageRequest)
+					: this.archivedOrderRepository.findPageByUserIdAfter(userId, afterOrderDate, afterOrderId, pageRequest))
+					.stream()
+						.filter(archivedOrder -> seen.add(archivedOrder.getOrderId()))
+						.map(archivedOrder -> {
+							final var orderDto = OrderMappingHelper.map(archivedOrder);
+							orderDto.getCartDto().setUserId(userId);
+							return orderDto;
+						})
+						.forEach(rows::add);
+			rows.sort(Comparator.comparing(OrderDto::getOrderDate)
+					.thenComparing(OrderDto::getOrderId)
+					.reversed());
+		}
+		
+		final var hasNext = rows.size() > limit;
+		final var page = (hasNext ? rows.subList(0, limit) : rows);
+		final var last = page.isEmpty() ? null : page.get(page.size() - 1);
+		return DtoPageResponse.<OrderDto>builder()
+				.collection(List.copyOf(page))
+				.nextCursor(hasNext ? CursorHelper.encode(last.getOrderDate(), last.getOrderId()) : null)
+				.build();
+	}
+	
 	@Override
 	public OrderDto save(final OrderDto orderDto) {
 		log.info("*** OrderDto, service; save order *");
-		return OrderMappingHelper.map(this.orderRepository
+		final var savedOrderDto = OrderMappingHelper.map(this.orderRepository
 				.save(OrderMappingHelper.map(orderDto)));
+		this.outboxRecorder.record(OutboxEventType.ORDER_CREATED, savedOrderDto.getOrderId(), savedOrderDto);
+		return savedOrderDto;
 	}
 	
 	@Override
 	public OrderDto update(final OrderDto orderDto) {
 		log.info("*** OrderDto, service; update order *");
-		return OrderMappingHelper.map(this.orderRepository
+		final var savedOrderDto = OrderMappingHelper.map(this.orderRepository
 				.save(OrderMappingHelper.map(orderDto)));
+		this.outboxRecorder.record(OutboxEventType.ORDER_UPDATED, savedOrderDto.getOrderId(), savedOrderDto);
+		return savedOrderDto;
 	}
 	
 	@Override
 	public OrderDto update(final Integer orderId, final OrderDto orderDto) {
 		log.info("*** OrderDto, service; update order with orderId *");
-		return OrderMappingHelper.map(this.orderRepository
-				.save(OrderMappingHelper.map(this.findById(orderId))));
+		final var savedOrderDto = OrderMappingHelper.map(this.orderRepository
+				.save(OrderMappingHelper.map(this.findHotById(orderId))));
+		this.outboxRecorder.record(OutboxEventType.ORDER_UPDATED, savedOrderDto.getOrderId(), savedOrderDto);
+		return savedOrderDto;
 	}
 	
 	@Override
 	public void deleteById(final Integer orderId) {
 		log.info("*** Void, service; delete order by id *");
-		this.orderRepository.delete(OrderMappingHelper.map(this.findById(orderId)));
+		final var orderDto = this.findHotById(orderId);
+		this.orderRepository.delete(OrderMappingHelper.map(orderDto));
+		this.outboxRecorder.record(OutboxEventType.ORDER_DELETED, orderId, orderDto);
 	}
 	
 	
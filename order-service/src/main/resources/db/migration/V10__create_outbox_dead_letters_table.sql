@@ -0,0 +1,12 @@
+CREATE TABLE outbox_dead_letters (
+	event_id BIGINT NOT NULL PRIMARY KEY,
+	aggregate_type VARCHAR(32) NOT NULL,
+	aggregate_id VARCHAR(64) NOT NULL,
+	event_type VARCHAR(64) NOT NULL,
+	payload TEXT NOT NULL,
+	occurred_at TIMESTAMP NOT NULL,
+	attempts INT(11) NOT NULL,
+	dead_lettered_at TIMESTAMP NOT NULL,
+	last_error VARCHAR(255)
+);
+
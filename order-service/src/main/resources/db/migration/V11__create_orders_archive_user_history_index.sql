@@ -0,0 +1,3 @@
+-- lets the per-user order history continue into the archive, one user's carts at a time
+CREATE INDEX idx_orders_archive_cart_order_date ON orders_archive (cart_id, order_date DESC, order_id DESC);
+
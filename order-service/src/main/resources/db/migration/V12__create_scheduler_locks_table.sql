@@ -0,0 +1,6 @@
+CREATE TABLE scheduler_locks (
+	lock_name VARCHAR(64) NOT NULL PRIMARY KEY,
+	locked_until TIMESTAMP NOT NULL,
+	locked_by VARCHAR(64) NOT NULL
+);
+
@@ -0,0 +1,5 @@
+
+-- lets the per-user order history find a user's carts, then each cart's orders newest first
+CREATE INDEX idx_carts_user_id ON carts (user_id);
+CREATE INDEX idx_orders_cart_order_date ON orders (cart_id, order_date DESC, order_id DESC);
+
@@ -0,0 +1,15 @@
+
+CREATE TABLE outbox_events (
+	event_id BIGINT NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	aggregate_type VARCHAR(32) NOT NULL,
+	aggregate_id VARCHAR(64) NOT NULL,
+	event_type VARCHAR(64) NOT NULL,
+	payload TEXT NOT NULL,
+	occurred_at TIMESTAMP NOT NULL,
+	attempts INT(11) DEFAULT 0 NOT NULL,
+	next_attempt_at TIMESTAMP NOT NULL
+);
+
+-- lets the relay check whether an earlier event of the same aggregate is still pending
+CREATE INDEX idx_outbox_events_aggregate ON outbox_events (aggregate_type, aggregate_id, event_id);
+
@@ -0,0 +1,11 @@
+
+CREATE TABLE idempotency_records (
+	idempotency_key VARCHAR(160) NOT NULL PRIMARY KEY,
+	request_hash VARCHAR(64) NOT NULL,
+	response TEXT,
+	created_at TIMESTAMP NOT NULL,
+	expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_idempotency_records_expires_at ON idempotency_records (expires_at);
+
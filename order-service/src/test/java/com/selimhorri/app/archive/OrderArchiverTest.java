@@ -0,0 +1,93 @@
+package com.selimhorri.app.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.repository.ArchivedOrderRepository;
+import com.selimhorri.app.repository.OrderRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiverTest {
+	
+	@Mock
+	private OrderRepository orderRepository;
+	
+	@Mock
+	private ArchivedOrderRepository archivedOrderRepository;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	@Mock
+	private TransactionStatus transactionStatus;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private OrderArchiver orderArchiver;
+	
+	@BeforeEach
+	void setUp() {
+		this.meterRegistry = new SimpleMeterRegistry();
+		when(this.transactionManager.getTransaction(any())).thenReturn(this.transactionStatus);
+		this.orderArchiver = new OrderArchiver(this.orderRepository, this.archivedOrderRepository,
+				new TransactionTemplate(this.transactionManager), this.meterRegistry, Duration.ofDays(365), 2,
+				Duration.ZERO);
+	}
+	
+	@Test
+	void testArchive_ShouldCopyThenDeleteEachChunkInItsOwnTransaction() {
+		when(this.orderRepository.findIdsOrderedBefore(any(), any()))
+				.thenReturn(List.of(1, 2), List.of(3, 4), List.of(5));
+		when(this.orderRepository.deleteAllByOrderIdIn(any()))
+				.thenAnswer(invocation -> invocation.<List<Integer>>getArgument(0).size());
+		final var before = LocalDateTime.now().minusDays(365);
+		
+		assertEquals(5, this.orderArchiver.archive());
+		
+		final var order = inOrder(this.archivedOrderRepository, this.orderRepository, this.transactionManager);
+		for (final var chunk : List.of(List.of(1, 2), List.of(3, 4), List.of(5))) {
+			order.verify(this.archivedOrderRepository).copyFromOrders(any(), any());
+			order.verify(this.orderRepository).deleteAllByOrderIdIn(chunk);
+			order.verify(this.transactionManager).commit(this.transactionStatus);
+		}
+		final ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+		final ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+		verify(this.orderRepository, times(3)).findIdsOrderedBefore(cutoff.capture(), pageable.capture());
+		assertEquals(1, cutoff.getAllValues().stream().distinct().count());
+		assertEquals(before.toLocalDate(), cutoff.getValue().toLocalDate());
+		assertEquals(2, pageable.getValue().getPageSize());
+		assertEquals(5.0, this.meterRegistry.get("order.archive.rows").counter().count());
+	}
+	
+	@Test
+	void testArchive_ShouldStopAfterEmptyChunkWithoutCopying() {
+		when(this.orderRepository.findIdsOrderedBefore(any(), any())).thenReturn(List.of(1, 2), List.of());
+		when(this.orderRepository.deleteAllByOrderIdIn(any())).thenReturn(2);
+		
+		assertEquals(2, this.orderArchiver.archive());
+		
+		verify(this.archivedOrderRepository, times(1)).copyFromOrders(any(), any());
+		verify(this.orderRepository, times(1)).deleteAllByOrderIdIn(any());
+	}
+	
+}
@@ -0,0 +1,234 @@
+package com.selimhorri.app.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.selimhorri.app.domain.IdempotencyRecord;
+import com.selimhorri.app.exception.wrapper.IdempotencyKeyInProgressException;
+import com.selimhorri.app.exception.wrapper.InvalidIdempotencyKeyException;
+import com.selimhorri.app.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyStoreTest {
+	
+	private static final Map<String, Integer> REQUEST = Map.of("cartId", 1);
+	
+	@Mock
+	private IdempotencyRecordRepository idempotencyRecordRepository;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private ObjectMapper objectMapper;
+	private IdempotencyStore idempotencyStore;
+	private final AtomicInteger runs = new AtomicInteger();
+	
+	@BeforeEach
+	void setUp() {
+		this.objectMapper = new ObjectMapper();
+		this.idempotencyStore = this.store(Duration.ofSeconds(2));
+		when(this.idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+	}
+	
+	@Test
+	void testExecute_ShouldRunOnceAndReplayRepeats() {
+		assertEquals("created-1", this.idempotencyStore.execute("order", "key-1", REQUEST, String.class, this::create));
+		assertEquals("created-1", this.idempotencyStore.execute("order", "key-1", REQUEST, String.class, this::create));
+		
+		assertEquals(1, this.runs.get());
+		verify(this.idempotencyRecordRepository).updateResponse("order:key-1", "\"created-1\"");
+	}
+	
+	@Test
+	void testExecute_ShouldRejectKeyReusedForDifferentRequest() {
+		this.idempotencyStore.execute("order", "key-1", REQUEST, String.class, this::create);
+		
+		assertThrows(InvalidIdempotencyKeyException.class, () -> this.idempotencyStore
+				.execute("order", "key-1", Map.of("cartId", 2), String.class, this::create));
+		assertEquals(1, this.runs.get());
+	}
+	
+	@Test
+	void testExecute_ShouldReclaimExpiredKeyBeforeInserting() {
+		when(this.idempotencyRecordRepository.findById("order:key-1")).thenReturn(Optional.of(this.record("\"old\"", 
+				Instant.now().minusSeconds(1))));
+		
+		assertEquals("created-1", this.idempotencyStore.execute("order", "key-1", REQUEST, String.class, this::create));
+		
+		final var inOrder = inOrder(this.idempotencyRecordRepository);
+		inOrder.verify(this.idempotencyRecordRepository).deleteExpired(eq("order:key-1"), any());
+		inOrder.verify(this.idempotencyRecordRepository).insert(eq("order:key-1"), anyString(), any(), any());
+	}
+	
+	@Test
+	void testExecute_ShouldLetConcurrentRepeatWaitForTheFirstExecution() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var first = CompletableFuture.supplyAsync(() -> this.idempotencyStore.execute("order", "key-1", REQUEST, 
+				String.class, () -> {
+					started.countDown();
+					await(release);
+					return this.create();
+				}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		final var second = CompletableFuture.supplyAsync(() -> this.idempotencyStore.execute("order", "key-1", REQUEST, 
+				String.class, this::create));
+		release.countDown();
+		
+		assertEquals("created-1", first.get(5, TimeUnit.SECONDS));
+		assertEquals("created-1", second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, this.runs.get());
+	}
+	
+	@Test
+	void testExecuteDetached_ShouldCommitClaimBeforeRunningAction() {
+		final var commitsBeforeAction = new AtomicInteger(-1);
+		
+		final var response = this.idempotencyStore.executeDetached("checkout", "key-1", REQUEST, String.class, () -> {
+			commitsBeforeAction.set(mockingDetails(this.transactionManager).getInvocations().stream()
+					.filter(invocation -> invocation.getMethod().getName().equals("commit"))
+					.mapToInt(invocation -> 1)
+					.sum());
+			return this.create();
+		});
+		
+		assertEquals("created-1", response);
+		assertEquals(1, commitsBeforeAction.get());
+		final var inOrder = inOrder(this.idempotencyRecordRepository);
+		inOrder.verify(this.idempotencyRecordRepository).insert(eq("checkout:key-1"), anyString(), any(), any());
+		inOrder.verify(this.idempotencyRecordRepository).updateResponse("checkout:key-1", "\"created-1\"");
+	}
+	
+	@Test
+	void testExecuteDetached_ShouldReleaseKeyWhenActionFails() {
+		final var failure = new IllegalStateException("payment declined");
+		
+		final var thrown = assertThrows(IllegalStateException.class, () -> this.idempotencyStore
+				.executeDetached("checkout", "key-1", REQUEST, String.class, () -> {
+					throw failure;
+				}));
+		
+		assertSame(failure, thrown);
+		verify(this.idempotencyRecordRepository).deletePending("checkout:key-1");
+		verify(this.idempotencyRecordRepository, never()).updateResponse(anyString(), anyString());
+	}
+	
+	@Test
+	void testExecuteDetached_ShouldAnswerRetryFromPendingRowOnceCompleted() {
+		when(this.idempotencyRecordRepository.findById("checkout:key-1"))
+				.thenReturn(Optional.empty())
+				.thenReturn(Optional.of(this.record(null, Instant.now().plusSeconds(60))))
+				.thenReturn(Optional.of(this.record(null, Instant.now().plusSeconds(60))))
+				.thenReturn(Optional.of(this.record("\"created-elsewhere\"", Instant.now().plusSeconds(60))));
+		
+		assertEquals("created-elsewhere", this.idempotencyStore
+				.executeDetached("checkout", "key-1", REQUEST, String.class, this::create));
+		assertEquals(0, this.runs.get());
+		verify(this.idempotencyRecordRepository, never()).insert(anyString(), anyString(), any(), any());
+	}
+	
+	@Test
+	void testExecuteDetached_ShouldReportKeyInProgressAfterWaitTimeout() {
+		this.idempotencyStore = this.store(Duration.ofMillis(120));
+		when(this.idempotencyRecordRepository.findById("checkout:key-1"))
+				.thenReturn(Optional.of(this.record(null, Instant.now().plusSeconds(60))));
+		
+		assertThrows(IdempotencyKeyInProgressException.class, () -> this.idempotencyStore
+				.executeDetached("checkout", "key-1", REQUEST, String.class, this::create));
+		assertEquals(0, this.runs.get());
+	}
+	
+	@Test
+	void testExecuteDetached_ShouldWaitWhenAnotherInstanceClaimsFirst() {
+		when(this.idempotencyRecordRepository.insert(anyString(), anyString(), any(), any()))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"));
+		when(this.idempotencyRecordRepository.findById("checkout:key-1"))
+				.thenReturn(Optional.empty())
+				.thenReturn(Optional.empty())
+				.thenReturn(Optional.of(this.record("\"created-elsewhere\"", Instant.now().plusSeconds(60))));
+		
+		assertEquals("created-elsewhere", this.idempotencyStore
+				.executeDetached("checkout", "key-1", REQUEST, String.class, this::create));
+		assertEquals(0, this.runs.get());
+	}
+	
+	private IdempotencyStore store(final Duration waitTimeout) {
+		return new IdempotencyStore(this.idempotencyRecordRepository, new TransactionTemplate(this.transactionManager), 
+				this.objectMapper, new SimpleMeterRegistry(), Duration.ofHours(24), 100, waitTimeout);
+	}
+	
+	private String create() {
+		return "created-" + this.runs.incrementAndGet();
+	}
+	
+	private IdempotencyRecord record(final String response, final Instant expiresAt) {
+		return IdempotencyRecord.builder()
+				.idempotencyKey("key")
+				.requestHash(this.hashOf(REQUEST))
+				.response(response)
+				.createdAt(Instant.now())
+				.expiresAt(expiresAt)
+				.build();
+	}
+	
+	private String hashOf(final Object request) {
+		final byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256").digest(this.objectMapper.writeValueAsBytes(request));
+		}
+		catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final var hex = new StringBuilder(digest.length * 2);
+		for (final var b : digest)
+			hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+	
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+}
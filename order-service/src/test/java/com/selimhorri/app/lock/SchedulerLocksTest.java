@@ -0,0 +1,86 @@
+package com.selimhorri.app.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.SchedulerLock;
+import com.selimhorri.app.repository.SchedulerLockRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLocksTest {
+	
+	private static final String LOCK_NAME = "order-archive";
+	
+	@Mock
+	private SchedulerLockRepository schedulerLockRepository;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private SchedulerLocks schedulerLocks;
+	
+	@BeforeEach
+	void setUp() {
+		this.schedulerLocks = new SchedulerLocks(this.schedulerLockRepository, new TransactionTemplate(this.transactionManager));
+	}
+	
+	@Test
+	void testTryAcquire_ShouldTakeLeaseThatRanOut() {
+		when(this.schedulerLockRepository.acquire(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+		
+		assertTrue(this.schedulerLocks.tryAcquire(LOCK_NAME, Duration.ofHours(6)));
+		verify(this.schedulerLockRepository, never()).save(any());
+	}
+	
+	@Test
+	void testTryAcquire_ShouldLoseToLeaseHeldElsewhere() {
+		when(this.schedulerLockRepository.acquire(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(0);
+		when(this.schedulerLockRepository.existsById(LOCK_NAME)).thenReturn(true);
+		
+		assertFalse(this.schedulerLocks.tryAcquire(LOCK_NAME, Duration.ofHours(6)));
+		verify(this.schedulerLockRepository, never()).save(any());
+	}
+	
+	@Test
+	void testTryAcquire_ShouldCreateMissingLockHeldByThisInstance() {
+		when(this.schedulerLockRepository.acquire(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(0);
+		when(this.schedulerLockRepository.existsById(LOCK_NAME)).thenReturn(false);
+		
+		assertTrue(this.schedulerLocks.tryAcquire(LOCK_NAME, Duration.ofHours(6)));
+		
+		final ArgumentCaptor<SchedulerLock> created = ArgumentCaptor.forClass(SchedulerLock.class);
+		verify(this.schedulerLockRepository).save(created.capture());
+		this.schedulerLocks.release(LOCK_NAME);
+		verify(this.schedulerLockRepository).release(eq(LOCK_NAME), eq(created.getValue().getLockedBy()), any());
+		assertEquals(LOCK_NAME, created.getValue().getLockName());
+	}
+	
+	@Test
+	void testTryAcquire_ShouldLoseRaceToCreateMissingLock() {
+		when(this.schedulerLockRepository.acquire(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(0);
+		when(this.schedulerLockRepository.existsById(LOCK_NAME)).thenReturn(false);
+		when(this.schedulerLockRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+		
+		assertFalse(this.schedulerLocks.tryAcquire(LOCK_NAME, Duration.ofHours(6)));
+	}
+	
+}
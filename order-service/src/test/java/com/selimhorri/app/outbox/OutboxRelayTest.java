@@ -0,0 +1,155 @@
+package com.selimhorri.app.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.domain.OutboxEvent;
+import com.selimhorri.app.dto.OutboxEventDto;
+import com.selimhorri.app.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxRelayTest {
+	
+	private static final List<String> SUBSCRIBERS = List.of("http://first/events", "http://second/events");
+	
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private OutboxRelay outboxRelay;
+	private final List<List<Long>> sentBatches = new ArrayList<>();
+	private final List<Long> failingEventIds = new ArrayList<>();
+	
+	@BeforeEach
+	void setUp() {
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.outboxRelay = new OutboxRelay(this.outboxEventRepository, this.restTemplate,
+				new TransactionTemplate(this.transactionManager), this.meterRegistry, "ORDER-SERVICE", SUBSCRIBERS,
+				100, Duration.ofSeconds(30), Duration.ofMinutes(5), 3);
+		when(this.restTemplate.postForEntity(anyString(), anyList(), eq(Void.class))).thenAnswer(invocation -> {
+			final List<OutboxEventDto> eventDtos = invocation.getArgument(1);
+			final var eventIds = eventDtos.stream()
+					.map(OutboxEventDto::getEventId)
+					.collect(Collectors.toUnmodifiableList());
+			this.sentBatches.add(eventIds);
+			if (eventIds.stream().anyMatch(this.failingEventIds::contains))
+				throw new ResourceAccessException("Connection refused");
+			return ResponseEntity.ok().build();
+		});
+	}
+	
+	@Test
+	void testRelay_ShouldLeaseBatchSendItToEverySubscriberAndDeleteIt() {
+		this.givenDue(event(1L, "1", 0), event(2L, "2", 0));
+		
+		assertEquals(2, this.outboxRelay.relay());
+		
+		final var order = inOrder(this.outboxEventRepository, this.restTemplate);
+		order.verify(this.outboxEventRepository).lease(eq(List.of(1L, 2L)), any());
+		order.verify(this.restTemplate).postForEntity(eq(SUBSCRIBERS.get(0)), anyList(), eq(Void.class));
+		order.verify(this.restTemplate).postForEntity(eq(SUBSCRIBERS.get(1)), anyList(), eq(Void.class));
+		order.verify(this.outboxEventRepository).deleteAllByEventIdIn(List.of(1L, 2L));
+		assertEquals(List.of(List.of(1L, 2L), List.of(1L, 2L)), this.sentBatches);
+		assertEquals(2.0, this.meterRegistry.get("outbox.delivered").counter().count());
+	}
+	
+	@Test
+	void testRelay_ShouldRescheduleFailedBatchWholeWithBackoff() {
+		this.givenDue(event(1L, "1", 1), event(2L, "1", 0));
+		this.failingEventIds.add(2L);
+		final var before = Instant.now();
+		
+		assertEquals(0, this.outboxRelay.relay());
+		
+		final ArgumentCaptor<Instant> nextAttemptAt = ArgumentCaptor.forClass(Instant.class);
+		verify(this.outboxEventRepository).reschedule(eq(List.of(1L, 2L)), nextAttemptAt.capture());
+		assertFalse(nextAttemptAt.getValue().isBefore(before.plusSeconds(2)));
+		verify(this.outboxEventRepository, never()).deleteAllByEventIdIn(any());
+		assertEquals(1, this.sentBatches.size());
+	}
+	
+	@Test
+	void testRelay_ShouldSplitExhaustedBatchAndHoldBackLaterEventsOfFailingAggregate() {
+		this.givenDue(event(1L, "1", 2), event(2L, "1", 0), event(3L, "2", 0), event(4L, "2", 0), event(5L, "3", 0));
+		this.failingEventIds.addAll(List.of(1L, 3L));
+		
+		assertEquals(2, this.outboxRelay.relay());
+		
+		verify(this.outboxEventRepository).copyToDeadLetters(eq(1L), any(), eq("Connection refused"));
+		verify(this.outboxEventRepository).deleteAllByEventIdIn(List.of(1L));
+		verify(this.outboxEventRepository).deleteAllByEventIdIn(List.of(2L));
+		verify(this.outboxEventRepository).reschedule(eq(List.of(3L)), any());
+		verify(this.outboxEventRepository).deleteAllByEventIdIn(List.of(5L));
+		assertFalse(this.sentBatches.contains(List.of(4L)));
+		assertEquals(1.0, this.meterRegistry.get("outbox.dead_lettered").counter().count());
+	}
+	
+	@Test
+	void testRelay_ShouldDeadLetterSingleEventOutOfAttempts() {
+		this.givenDue(event(1L, "1", 2));
+		this.failingEventIds.add(1L);
+		
+		assertEquals(0, this.outboxRelay.relay());
+		
+		verify(this.outboxEventRepository).copyToDeadLetters(eq(1L), any(), eq("Connection refused"));
+		verify(this.outboxEventRepository).deleteAllByEventIdIn(List.of(1L));
+		verify(this.outboxEventRepository, never()).reschedule(any(), any());
+		verify(this.restTemplate, times(1)).postForEntity(anyString(), anyList(), eq(Void.class));
+	}
+	
+	private void givenDue(final OutboxEvent... events) {
+		when(this.outboxEventRepository.findDue(any(), any())).thenReturn(List.of(events), List.of());
+	}
+	
+	private static OutboxEvent event(final Long eventId, final String aggregateId, final int attempts) {
+		return OutboxEvent.builder()
+				.eventId(eventId)
+				.aggregateType("ORDER")
+				.aggregateId(aggregateId)
+				.eventType("ORDER_CREATED")
+				.payload("{}")
+				.occurredAt(Instant.now())
+				.attempts(attempts)
+				.nextAttemptAt(Instant.now())
+				.build();
+	}
+	
+}
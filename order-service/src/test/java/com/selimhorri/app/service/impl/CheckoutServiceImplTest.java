@@ -0,0 +1,223 @@
+package com.selimhorri.app.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.selimhorri.app.dto.CartDto;
+import com.selimhorri.app.dto.CheckoutDto;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.dto.OrderItemDto;
+import com.selimhorri.app.dto.PaymentDto;
+import com.selimhorri.app.dto.ProductReservationDto;
+import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.exception.wrapper.CheckoutFailedException;
+import com.selimhorri.app.service.OrderService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutServiceImplTest {
+	
+	private static final long UNDO_WAIT_MILLIS = 2_000L;
+	
+	@Mock
+	private OrderService orderService;
+	
+	@Mock
+	private RestTemplate restTemplate;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private CheckoutServiceImpl checkoutService;
+	
+	@BeforeEach
+	void setUp() {
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.checkoutService = new CheckoutServiceImpl(this.orderService, this.restTemplate, this.meterRegistry,
+				4, 2, Duration.ofMillis(500));
+		when(this.orderService.save(any(OrderDto.class))).thenReturn(OrderDto.builder()
+				.orderId(7)
+				.build());
+		when(this.restTemplate.postForObject(endsWith("/api/reservations"), any(ProductReservationDto.class),
+				eq(ProductReservationDto.class))).thenAnswer(invocation -> {
+					final ProductReservationDto request = invocation.getArgument(1);
+					return reservation(request.getProductId(), "RESERVED");
+				});
+		when(this.restTemplate.postForObject(endsWith("/confirm"), isNull(), eq(ProductReservationDto.class)))
+				.thenAnswer(invocation -> reservation(productIdOf(invocation.getArgument(0)), "CONFIRMED"));
+		when(this.restTemplate.exchange(endsWith("/batch"), eq(HttpMethod.POST), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class))).thenAnswer(invocation -> {
+					final HttpEntity<List<OrderItemDto>> request = invocation.getArgument(2);
+					return ResponseEntity.ok(new DtoCollectionResponse<>(request.getBody()));
+				});
+		when(this.restTemplate.postForObject(endsWith("/payment-service/api/payments"), any(PaymentDto.class),
+				eq(PaymentDto.class))).thenReturn(PaymentDto.builder()
+						.paymentId(70)
+						.build());
+	}
+	
+	@AfterEach
+	void tearDown() {
+		this.checkoutService.shutdown();
+	}
+	
+	@Test
+	void testCheckout_ShouldConfirmReservationsOnceEveryStepSucceeded() {
+		final var checkoutDto = this.checkoutService.checkout(checkout(1, 2));
+		
+		assertEquals(7, checkoutDto.getOrderDto().getOrderId());
+		assertEquals(70, checkoutDto.getPaymentDto().getPaymentId());
+		assertEquals(2, checkoutDto.getOrderItemDtos().size());
+		verify(this.restTemplate).postForObject(endsWith("/r-1/confirm"), isNull(), eq(ProductReservationDto.class));
+		verify(this.restTemplate).postForObject(endsWith("/r-2/confirm"), isNull(), eq(ProductReservationDto.class));
+		verify(this.restTemplate, never()).postForObject(endsWith("/release"), any(), any());
+		verify(this.orderService, never()).deleteById(any());
+	}
+	
+	@Test
+	void testCheckout_ShouldUndoCompletedStepsWhenStockRunsOut() {
+		when(this.restTemplate.postForObject(endsWith("/api/reservations"), any(ProductReservationDto.class),
+				eq(ProductReservationDto.class))).thenAnswer(invocation -> {
+					final ProductReservationDto request = invocation.getArgument(1);
+					if (request.getProductId() == 2)
+						throw HttpClientErrorException.create(HttpStatus.CONFLICT, "Conflict", HttpHeaders.EMPTY,
+								new byte[0], StandardCharsets.UTF_8);
+					return reservation(request.getProductId(), "RESERVED");
+				});
+		
+		final var exception = assertThrows(CheckoutFailedException.class,
+				() -> this.checkoutService.checkout(checkout(1, 2)));
+		
+		assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+		verify(this.restTemplate, timeout(UNDO_WAIT_MILLIS)).postForObject(endsWith("/r-1/release"), isNull(),
+				eq(ProductReservationDto.class));
+		verify(this.orderService, timeout(UNDO_WAIT_MILLIS)).deleteById(7);
+		verify(this.restTemplate, never()).postForObject(endsWith("/confirm"), any(), any());
+	}
+	
+	@Test
+	void testCheckout_ShouldUndoOrderItemsOrderAndReservationsWhenPaymentFails() {
+		when(this.restTemplate.postForObject(endsWith("/payment-service/api/payments"), any(PaymentDto.class),
+				eq(PaymentDto.class))).thenThrow(HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR,
+						"Internal Server Error", HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8));
+		
+		final var exception = assertThrows(CheckoutFailedException.class,
+				() -> this.checkoutService.checkout(checkout(1)));
+		
+		assertEquals(HttpStatus.BAD_GATEWAY, exception.getHttpStatus());
+		verify(this.restTemplate, timeout(UNDO_WAIT_MILLIS)).delete(endsWith("/order/7"));
+		verify(this.orderService, timeout(UNDO_WAIT_MILLIS)).deleteById(7);
+		verify(this.restTemplate, timeout(UNDO_WAIT_MILLIS)).postForObject(endsWith("/r-1/release"), isNull(),
+				eq(ProductReservationDto.class));
+	}
+	
+	@Test
+	void testCheckout_ShouldLetStepCompletingAfterDeadlineUndoItself() throws Exception {
+		final var orderSaveStarted = new CountDownLatch(1);
+		final var orderSaveReleased = new CountDownLatch(1);
+		when(this.orderService.save(any(OrderDto.class))).thenAnswer(invocation -> {
+			orderSaveStarted.countDown();
+			orderSaveReleased.await(5, TimeUnit.SECONDS);
+			return OrderDto.builder()
+					.orderId(8)
+					.build();
+		});
+		
+		final var exception = assertThrows(CheckoutFailedException.class,
+				() -> this.checkoutService.checkout(checkout(1)));
+		
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, exception.getHttpStatus());
+		verify(this.restTemplate, timeout(UNDO_WAIT_MILLIS)).postForObject(endsWith("/r-1/release"), isNull(),
+				eq(ProductReservationDto.class));
+		assertEquals(0, orderSaveStarted.getCount());
+		verify(this.orderService, never()).deleteById(any());
+		
+		orderSaveReleased.countDown();
+		verify(this.orderService, timeout(UNDO_WAIT_MILLIS)).deleteById(8);
+		verify(this.restTemplate, never()).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+				any(ParameterizedTypeReference.class));
+	}
+	
+	@Test
+	void testCheckout_ShouldCountCompensationsThatCanNotBeUndone() {
+		when(this.restTemplate.postForObject(endsWith("/payment-service/api/payments"), any(PaymentDto.class),
+				eq(PaymentDto.class))).thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE,
+						"Service Unavailable", HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8));
+		when(this.restTemplate.postForObject(endsWith("/r-1/release"), isNull(), eq(ProductReservationDto.class)))
+				.thenThrow(HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error",
+						HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8));
+		
+		assertThrows(CheckoutFailedException.class, () -> this.checkoutService.checkout(checkout(1)));
+		
+		verify(this.orderService, timeout(UNDO_WAIT_MILLIS)).deleteById(7);
+		verify(this.restTemplate, timeout(UNDO_WAIT_MILLIS)).postForObject(endsWith("/r-1/release"), isNull(),
+				eq(ProductReservationDto.class));
+		assertEquals(1.0, this.meterRegistry.get("order.checkout.compensation.failures").counter().count());
+	}
+	
+	private static CheckoutDto checkout(final Integer... productIds) {
+		return CheckoutDto.builder()
+				.orderDto(OrderDto.builder()
+						.cartDto(CartDto.builder()
+								.cartId(1)
+								.build())
+						.build())
+				.orderItemDtos(Arrays.stream(productIds)
+						.map(productId -> OrderItemDto.builder()
+								.productId(productId)
+								.orderedQuantity(1)
+								.build())
+						.collect(Collectors.toList()))
+				.build();
+	}
+	
+	private static ProductReservationDto reservation(final Integer productId, final String status) {
+		return ProductReservationDto.builder()
+				.reservationId("r-" + productId)
+				.productId(productId)
+				.quantity(1)
+				.status(status)
+				.build();
+	}
+	
+	private static Integer productIdOf(final String confirmUrl) {
+		final var path = confirmUrl.substring(0, confirmUrl.lastIndexOf('/'));
+		return Integer.valueOf(path.substring(path.lastIndexOf("/r-") + 3));
+	}
+	
+}
@@ -0,0 +1,118 @@
+package com.selimhorri.app.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.selimhorri.app.domain.ArchivedOrder;
+import com.selimhorri.app.domain.Cart;
+import com.selimhorri.app.domain.Order;
+import com.selimhorri.app.dto.OrderDto;
+import com.selimhorri.app.helper.CursorHelper;
+import com.selimhorri.app.outbox.OutboxRecorder;
+import com.selimhorri.app.repository.ArchivedOrderRepository;
+import com.selimhorri.app.repository.OrderRepository;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+	
+	private static final Integer USER_ID = 5;
+	private static final LocalDateTime DAY = LocalDateTime.of(2026, 1, 1, 12, 0);
+	
+	@Mock
+	private OrderRepository orderRepository;
+	
+	@Mock
+	private ArchivedOrderRepository archivedOrderRepository;
+	
+	@Mock
+	private OutboxRecorder outboxRecorder;
+	
+	private OrderServiceImpl orderService;
+	
+	@BeforeEach
+	void setUp() {
+		this.orderService = new OrderServiceImpl(this.orderRepository, this.archivedOrderRepository, this.outboxRecorder);
+	}
+	
+	@Test
+	void testFindPageByUserId_ShouldNotReadArchiveWhileHotTableFillsPage() {
+		when(this.orderRepository.findFirstPageByUserId(eq(USER_ID), any()))
+				.thenReturn(List.of(order(30, 3), order(20, 2), order(10, 1)));
+		
+		final var page = this.orderService.findPageByUserId(USER_ID, null, 2);
+		
+		assertEquals(List.of(30, 20), orderIds(page.getCollection()));
+		assertEquals(CursorHelper.encode(DAY.plusDays(2), 20), page.getNextCursor());
+		verify(this.archivedOrderRepository, never()).findFirstPageByUserId(anyInt(), any());
+	}
+	
+	@Test
+	void testFindPageByUserId_ShouldContinueIntoArchiveAndKeepOrdersArchivedMeanwhileOnce() {
+		when(this.orderRepository.findFirstPageByUserId(eq(USER_ID), any()))
+				.thenReturn(List.of(order(30, 3), order(20, 2)));
+		when(this.archivedOrderRepository.findFirstPageByUserId(eq(USER_ID), any()))
+				.thenReturn(List.of(archivedOrder(20, 2), archivedOrder(10, 1), archivedOrder(5, 0)));
+		
+		final var page = this.orderService.findPageByUserId(USER_ID, null, 3);
+		
+		assertEquals(List.of(30, 20, 10), orderIds(page.getCollection()));
+		assertEquals(USER_ID, List.copyOf(page.getCollection()).get(2).getCartDto().getUserId());
+		assertEquals(CursorHelper.encode(DAY.plusDays(1), 10), page.getNextCursor());
+	}
+	
+	@Test
+	void testFindPageByUserId_ShouldPageArchiveWithTheSameKeyset() {
+		when(this.orderRepository.findPageByUserIdAfter(eq(USER_ID), eq(DAY.plusDays(1)), eq(10), any()))
+				.thenReturn(List.of());
+		when(this.archivedOrderRepository.findPageByUserIdAfter(eq(USER_ID), eq(DAY.plusDays(1)), eq(10), any()))
+				.thenReturn(List.of(archivedOrder(5, 0)));
+		
+		final var page = this.orderService.findPageByUserId(USER_ID, CursorHelper.encode(DAY.plusDays(1), 10), 3);
+		
+		assertEquals(List.of(5), orderIds(page.getCollection()));
+		assertNull(page.getNextCursor());
+	}
+	
+	private static Order order(final Integer orderId, final int day) {
+		return Order.builder()
+				.orderId(orderId)
+				.orderDate(DAY.plusDays(day))
+				.cart(Cart.builder()
+						.cartId(1)
+						.userId(USER_ID)
+						.build())
+				.build();
+	}
+	
+	private static ArchivedOrder archivedOrder(final Integer orderId, final int day) {
+		return ArchivedOrder.builder()
+				.orderId(orderId)
+				.orderDate(DAY.plusDays(day))
+				.cartId(1)
+				.build();
+	}
+	
+	private static List<Integer> orderIds(final Collection<OrderDto> orderDtos) {
+		return orderDtos.stream()
+				.map(OrderDto::getOrderId)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+}
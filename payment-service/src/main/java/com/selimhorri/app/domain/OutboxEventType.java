@@ -0,0 +1,16 @@
+package com.selimhorri.app.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum OutboxEventType {
+	
+	PAYMENT_CREATED("PAYMENT"),
+	PAYMENT_UPDATED("PAYMENT"),
+	PAYMENT_DELETED("PAYMENT");
+	
+	private final String aggregateType;
+	
+}
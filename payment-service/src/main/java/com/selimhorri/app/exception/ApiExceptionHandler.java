@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.selimhorri.app.exception.payload.ExceptionMsg;
+import com.selimhorri.app.exception.wrapper.InvalidIdempotencyKeyException;
 import com.selimhorri.app.exception.wrapper.PaymentNotFoundException;
 
 import lombok.RequiredArgsConstructor;
@@ -41,6 +42,7 @@ public class ApiExceptionHandler {
 	}
 	
 	@ExceptionHandler(value = {
+		InvalidIdempotencyKeyException.class,
 		IllegalStateException.class,
 		PaymentNotFoundException.class,
 	})
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidIdempotencyKeyException() {
+		super();
+	}
+	
+	public InvalidIdempotencyKeyException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidIdempotencyKeyException(String message) {
+		super(message);
+	}
+	
+	public InvalidIdempotencyKeyException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
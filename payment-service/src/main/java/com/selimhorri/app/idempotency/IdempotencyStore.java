@@ -0,0 +1,241 @@
+package com.selimhorri.app.idempotency;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.exception.wrapper.InvalidIdempotencyKeyException;
+import com.selimhorri.app.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Runs a create at most once per {@code Idempotency-Key} and answers repeats with the
+ * stored response. The key is claimed by inserting its row in the same transaction as
+ * the create, so a retry racing on another instance blocks on the row and then replays
+ * what was committed, while a failed create leaves no trace and may be retried. An expired
+ * row the purger has not removed yet is deleted in the claiming transaction, so the key can
+ * be used again as soon as it expires.
+ * <p>
+ * Repeats within this instance wait on the in-flight execution instead of reaching the
+ * database; recent responses are served from a bounded in-memory store. A key reused
+ * with a different request body is rejected.
+ */
+@Component
+public class IdempotencyStore {
+	
+	public static final String HEADER = "Idempotency-Key";
+	private static final int MAX_KEY_LENGTH = 128;
+	
+	private final IdempotencyRecordRepository idempotencyRecordRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter writer;
+	private final Duration ttl;
+	private final Duration waitTimeout;
+	private final Cache<String, Stored> hotStore;
+	private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+	private final Counter replays;
+	
+	public IdempotencyStore(
+			final IdempotencyRecordRepository idempotencyRecordRepository,
+			final TransactionTemplate transactionTemplate,
+			final ObjectMapper objectMapper,
+			final MeterRegistry meterRegistry,
+			@Value("${app.idempotency.ttl:24h}") final Duration ttl,
+			@Value("${app.idempotency.hot-store-size:10000}") final long hotStoreSize,
+			@Value("${app.idempotency.wait-timeout:10s}") final Duration waitTimeout) {
+		this.idempotencyRecordRepository = idempotencyRecordRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.objectMapper = objectMapper;
+		this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+		this.ttl = ttl;
+		this.waitTimeout = waitTimeout;
+		this.hotStore = Caffeine.newBuilder()
+				.maximumSize(hotStoreSize)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, this.hotStore, "idempotencyKeys");
+		this.replays = Counter.builder("idempotency.replays")
+				.description("Requests answered with the stored response of an earlier one")
+				.register(meterRegistry);
+	}
+	
+	public <T> T execute(final String scope, final String key, final Object request, 
+			final Class<T> responseType, final Supplier<T> action) {
+		
+		if (key == null || key.isBlank())
+			return action.get();
+		if (key.length() > MAX_KEY_LENGTH)
+			throw new InvalidIdempotencyKeyException(String.format("%s must not exceed %d characters", HEADER, MAX_KEY_LENGTH));
+		
+		final var recordKey = scope + ":" + key.strip();
+		final var flight = new InFlight(this.hash(request));
+		final var running = this.inFlight.putIfAbsent(recordKey, flight);
+		if (running != null) {
+			this.verify(key, running.requestHash, flight.requestHash);
+			this.replays.increment();
+			return this.read(this.await(key, running.response), responseType);
+		}
+		
+		try {
+			final var response = this.executeOnce(key, recordKey, flight.requestHash, action);
+			flight.response.complete(response);
+			return this.read(response, responseType);
+		}
+		catch (RuntimeException e) {
+			flight.response.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.inFlight.remove(recordKey, flight);
+		}
+	}
+	
+	private String executeOnce(final String key, final String recordKey, final String requestHash, final Supplier<?> action) {
+		
+		final var stored = this.find(recordKey);
+		if (stored != null) {
+			this.verify(key, stored.requestHash, requestHash);
+			this.replays.increment();
+			return stored.response;
+		}
+		
+		try {
+			final var response = this.transactionTemplate.execute(status -> {
+				final var now = Instant.now();
+				this.idempotencyRecordRepository.deleteExpired(recordKey, now);
+				this.idempotencyRecordRepository.insert(recordKey, requestHash, now, now.plus(this.ttl));
+				final var json = this.write(action.get());
+				this.idempotencyRecordRepository.updateResponse(recordKey, json);
+				return json;
+			});
+			this.hotStore.put(recordKey, new Stored(requestHash, response));
+			return response;
+		}
+		catch (DataAccessException e) {
+			final var committed = this.find(recordKey);
+			if (committed == null)
+				throw e;
+			this.verify(key, committed.requestHash, requestHash);
+			this.replays.increment();
+			return committed.response;
+		}
+	}
+	
+	private Stored find(final String recordKey) {
+		final var stored = this.hotStore.getIfPresent(recordKey);
+		if (stored != null)
+			return stored;
+		return this.idempotencyRecordRepository.findById(recordKey)
+				.filter(idempotencyRecord -> idempotencyRecord.getResponse() != null
+						&& idempotencyRecord.getExpiresAt().isAfter(Instant.now()))
+				.map(idempotencyRecord -> {
+					final var loaded = new Stored(idempotencyRecord.getRequestHash(), idempotencyRecord.getResponse());
+					this.hotStore.put(recordKey, loaded);
+					return loaded;
+				})
+				.orElse(null);
+	}
+	
+	private void verify(final String key, final String storedHash, final String requestHash) {
+		if (!storedHash.equals(requestHash))
+			throw new InvalidIdempotencyKeyException(String
+					.format("%s: %s was already used for a different request", HEADER, key));
+	}
+	
+	private String await(final String key, final CompletableFuture<String> response) {
+		try {
+			return response.get(this.waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InvalidIdempotencyKeyException(String.format("%s: %s is still in progress", HEADER, key), e);
+		}
+		catch (TimeoutException e) {
+			throw new InvalidIdempotencyKeyException(String.format("%s: %s is still in progress", HEADER, key), e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	private String hash(final Object request) {
+		try {
+			final var digest = MessageDigest.getInstance("SHA-256").digest(this.writer.writeValueAsBytes(request));
+			final var hex = new StringBuilder(digest.length * 2);
+			for (final var b : digest)
+				hex.append(String.format("%02x", b));
+			return hex.toString();
+		}
+		catch (JsonProcessingException | NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Request could not be fingerprinted", e);
+		}
+	}
+	
+	private String write(final Object response) {
+		try {
+			return this.writer.writeValueAsString(response);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Response could not be stored", e);
+		}
+	}
+	
+	private <T> T read(final String response, final Class<T> responseType) {
+		try {
+			return this.objectMapper.readValue(response, responseType);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Stored response could not be read", e);
+		}
+	}
+	
+	private static final class Stored {
+		
+		private final String requestHash;
+		private final String response;
+		
+		private Stored(final String requestHash, final String response) {
+			this.requestHash = requestHash;
+			this.response = response;
+		}
+		
+	}
+	
+	private static final class InFlight {
+		
+		private final String requestHash;
+		private final CompletableFuture<String> response = new CompletableFuture<>();
+		
+		private InFlight(final String requestHash) {
+			this.requestHash = requestHash;
+		}
+		
+	}
+	
+}
@@ -11,11 +11,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.selimhorri.app.dto.PaymentDto;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.idempotency.IdempotencyStore;
 import com.selimhorri.app.service.PaymentService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,6 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 public class PaymentResource {
 	
 	private final PaymentService paymentService;
+	private final IdempotencyStore idempotencyStore;
 	
 	@GetMapping
 	public ResponseEntity<DtoCollectionResponse<PaymentDto>> findAll() {
@@ -44,13 +47,19 @@ public class PaymentResource {
 		return ResponseEntity.ok(this.paymentService.findById(Integer.parseInt(paymentId)));
 	}
 	
+	/**
+	 * Retries carrying the same {@code Idempotency-Key} get the first response back
+	 * instead of creating another payment.
+	 */
 	@PostMapping
 	public ResponseEntity<PaymentDto> save(
+			@RequestHeader(name = IdempotencyStore.HEADER, required = false) final String idempotencyKey, 
 			@RequestBody 
 			@NotNull(message = "Input must not be NULL") 
 			@Valid final PaymentDto paymentDto) {
 		log.info("*** PaymentDto, resource; save payment *");
-		return ResponseEntity.ok(this.paymentService.save(paymentDto));
+		return ResponseEntity.ok(this.idempotencyStore.execute("payment", idempotencyKey, paymentDto, PaymentDto.class, 
+				() -> this.paymentService.save(paymentDto)));
 	}
 	
 	@PutMapping
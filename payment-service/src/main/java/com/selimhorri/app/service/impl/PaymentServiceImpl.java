@@ -9,10 +9,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.OutboxEventType;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.PaymentDto;
 import com.selimhorri.app.exception.wrapper.PaymentNotFoundException;
 import com.selimhorri.app.helper.PaymentMappingHelper;
+import com.selimhorri.app.outbox.OutboxRecorder;
 import com.selimhorri.app.repository.PaymentRepository;
 import com.selimhorri.app.service.PaymentService;
 
@@ -27,6 +29,7 @@ public class PaymentServiceImpl implements PaymentService {
 	
 	private final PaymentRepository paymentRepository;
 	private final RestTemplate restTemplate;
+	private final OutboxRecorder outboxRecorder;
 	
 	@Override
 	public List<PaymentDto> findAll() {
@@ -59,21 +62,28 @@ public class PaymentServiceImpl implements PaymentService {
 	@Override
 	public PaymentDto save(final PaymentDto paymentDto) {
 		log.info("*** PaymentDto, service; save payment *");
-		return PaymentMappingHelper.map(this.paymentRepository
+		final var savedPaymentDto = PaymentMappingHelper.map(this.paymentRepository
 				.save(PaymentMappingHelper.map(paymentDto)));
+		this.outboxRecorder.record(OutboxEventType.PAYMENT_CREATED, savedPaymentDto.getPaymentId(), savedPaymentDto);
+		return savedPaymentDto;
 	}
 	
 	@Override
 	public PaymentDto update(final PaymentDto paymentDto) {
 		log.info("*** PaymentDto, service; update payment *");
-		return PaymentMappingHelper.map(this.paymentRepository
+		final var savedPaymentDto = PaymentMappingHelper.map(this.paymentRepository
 				.save(PaymentMappingHelper.map(paymentDto)));
+		this.outboxRecorder.record(OutboxEventType.PAYMENT_UPDATED, savedPaymentDto.getPaymentId(), savedPaymentDto);
+		return savedPaymentDto;
 	}
 	
 	@Override
 	public void deleteById(final Integer paymentId) {
 		log.info("*** Void, service; delete payment by id *");
 		this.paymentRepository.deleteById(paymentId);
+		this.outboxRecorder.record(OutboxEventType.PAYMENT_DELETED, paymentId, PaymentDto.builder()
+				.paymentId(paymentId)
+				.build());
 	}
 	
 	
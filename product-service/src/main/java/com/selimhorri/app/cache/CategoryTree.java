@@ -0,0 +1,209 @@
+package com.selimhorri.app.cache;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.selimhorri.app.dto.CategoryTreeDto;
+import com.selimhorri.app.dto.projection.CategoryNodeProjection;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Immutable snapshot of the whole category hierarchy, answering ancestor,
+ * children and descendant lookups from memory.
+ */
+public final class CategoryTree {
+	
+	private final Map<Integer, Node> nodes;
+	private final List<Node> roots;
+	private final List<CategoryTreeDto> treeDtos;
+	private final Instant lastModified;
+	private final Integer maxId;
+	private final long versionSum;
+	
+	private CategoryTree(final Map<Integer, Node> nodes, final List<Node> roots, final Instant lastModified, 
+			final long versionSum) {
+		this.nodes = nodes;
+		this.roots = roots;
+		this.lastModified = lastModified;
+		this.maxId = nodes.keySet().stream()
+				.max(Integer::compareTo)
+				.orElse(null);
+		this.versionSum = versionSum;
+		this.treeDtos = roots.stream()
+				.map(this::toTreeDto)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+	public static CategoryTree build(final Collection<? extends CategoryNodeProjection> rows) {
+		
+		final Map<Integer, List<Integer>> childIds = new HashMap<>();
+		rows.stream()
+				.filter(row -> row.getParentCategoryId() != null)
+				.sorted(Comparator.comparing(CategoryNodeProjection::getCategoryId))
+				.forEach(row -> childIds.computeIfAbsent(row.getParentCategoryId(), id -> new ArrayList<>())
+						.add(row.getCategoryId()));
+		
+		final Map<Integer, Node> nodes = new HashMap<>(rows.size());
+		rows.forEach(row -> nodes.put(row.getCategoryId(), new Node(
+				row.getCategoryId(), 
+				row.getParentCategoryId(), 
+				row.getCategoryTitle(), 
+				row.getImageUrl(), 
+				List.copyOf(childIds.getOrDefault(row.getCategoryId(), List.of())))));
+		
+		final var roots = nodes.values().stream()
+				.filter(node -> node.getParentCategoryId() == null || !nodes.containsKey(node.getParentCategoryId()))
+				.sorted(Comparator.comparing(Node::getCategoryId))
+				.collect(Collectors.toUnmodifiableList());
+		
+		final var lastModified = rows.stream()
+				.map(CategoryNodeProjection::getUpdatedAt)
+				.filter(Objects::nonNull)
+				.max(Instant::compareTo)
+				.orElse(null);
+		
+		final var versionSum = rows.stream()
+				.map(CategoryNodeProjection::getVersion)
+				.filter(Objects::nonNull)
+				.mapToLong(Long::longValue)
+				.sum();
+		
+		return new CategoryTree(Collections.unmodifiableMap(nodes), roots, lastModified, versionSum);
+	}
+	
+	public static CategoryTree empty() {
+		return new CategoryTree(Map.of(), List.of(), null, 0L);
+	}
+	
+	/**
+	 * @return latest update among the categories in this snapshot, null when unknown
+	 */
+	public Instant getLastModified() {
+		return this.lastModified;
+	}
+	
+	public Integer getMaxId() {
+		return this.maxId;
+	}
+	
+	public long getVersionSum() {
+		return this.versionSum;
+	}
+	
+	public Optional<Node> findNode(final Integer categoryId) {
+		return Optional.ofNullable(this.nodes.get(categoryId));
+	}
+	
+	public List<CategoryTreeDto> getTree() {
+		return this.treeDtos;
+	}
+	
+	public List<Node> getRoots() {
+		return this.roots;
+	}
+	
+	public List<Node> findChildren(final Integer categoryId) {
+		return this.findNode(categoryId)
+				.map(node -> node.getChildIds().stream()
+						.map(this.nodes::get)
+						.collect(Collectors.toUnmodifiableList()))
+				.orElseGet(List::of);
+	}
+	
+	/**
+	 * @return the path from the root down to the given category, both included
+	 */
+	public List<Node> findBreadcrumbs(final Integer categoryId) {
+		final var breadcrumbs = new LinkedList<Node>();
+		final var visited = new HashSet<Integer>();
+		var current = this.nodes.get(categoryId);
+		while (current != null && visited.add(current.getCategoryId())) {
+			breadcrumbs.addFirst(current);
+			current = current.getParentCategoryId() == null ? null : this.nodes.get(current.getParentCategoryId());
+		}
+		return Collections.unmodifiableList(breadcrumbs);
+	}
+	
+	/**
+	 * @return every category below the given one, breadth first, the category itself excluded
+	 */
+	public List<Node> findDescendants(final Integer categoryId) {
+		final var descendants = new ArrayList<Node>();
+		final var visited = new HashSet<Integer>();
+		final var queue = new ArrayDeque<Integer>(this.findNode(categoryId)
+				.map(Node::getChildIds)
+				.orElseGet(List::of));
+		while (!queue.isEmpty()) {
+			final var node = this.nodes.get(queue.poll());
+			if (node != null && visited.add(node.getCategoryId())) {
+				descendants.add(node);
+				queue.addAll(node.getChildIds());
+			}
+		}
+		return Collections.unmodifiableList(descendants);
+	}
+	
+	public int size() {
+		return this.nodes.size();
+	}
+	
+	private CategoryTreeDto toTreeDto(final Node node) {
+		return this.toTreeDto(node, new HashSet<>());
+	}
+	
+	private CategoryTreeDto toTreeDto(final Node node, final HashSet<Integer> path) {
+		path.add(node.getCategoryId());
+		final var children = node.getChildIds().stream()
+				.filter(childId -> !path.contains(childId))
+				.map(this.nodes::get)
+				.map(child -> this.toTreeDto(child, path))
+				.collect(Collectors.toUnmodifiableList());
+		path.remove(node.getCategoryId());
+		return CategoryTreeDto.builder()
+				.categoryId(node.getCategoryId())
+				.categoryTitle(node.getCategoryTitle())
+				.imageUrl(node.getImageUrl())
+				.children(children)
+				.build();
+	}
+	
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	public static final class Node {
+		
+		private final Integer categoryId;
+		private final Integer parentCategoryId;
+		private final String categoryTitle;
+		private final String imageUrl;
+		private final List<Integer> childIds;
+		
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,94 @@
+package com.selimhorri.app.cache;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.version.CatalogVersionTracker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the current {@link CategoryTree} and swaps in a freshly built one
+ * whenever a category write commits here, or when a periodic version check
+ * finds a write committed by another instance.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CategoryTreeHolder {
+	
+	private final CategoryRepository categoryRepository;
+	private final CatalogVersionTracker catalogVersionTracker;
+	private final AtomicReference<CategoryTree> snapshot = new AtomicReference<>();
+	private volatile long builtAtVersion;
+	
+	public CategoryTree get() {
+		final var tree = this.snapshot.get();
+		return tree != null ? tree : this.rebuild();
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void onApplicationReady() {
+		this.rebuild();
+	}
+	
+	/**
+	 * Not read-only so the rebuild reads the primary, which already holds the change.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void onCategoryChanged(final CategoryChangedEvent event) {
+		this.rebuild();
+	}
+	
+	/**
+	 * Not read-only either: a trailing replica would differ from a tree just rebuilt from
+	 * the primary and swap the older tree back in.
+	 * @return whether the tree was rebuilt
+	 */
+	@Transactional
+	public boolean refreshIfChanged() {
+		if (this.snapshot.get() != null 
+				&& this.builtAtVersion == this.catalogVersionTracker.find(CatalogEntityType.CATEGORY).getVersion())
+			return false;
+		this.rebuild();
+		return true;
+	}
+	
+	/**
+	 * The version is read before the rows, so a write in between leaves the tree newer than
+	 * its version and costs one more rebuild, never a missed one.
+	 */
+	private synchronized CategoryTree rebuild() {
+		final var version = this.catalogVersionTracker.find(CatalogEntityType.CATEGORY).getVersion();
+		final var tree = CategoryTree.build(this.categoryRepository.findAllNodes());
+		this.snapshot.set(tree);
+		this.builtAtVersion = version;
+		log.info("*** CategoryTreeHolder; category tree rebuilt with {} categories *", tree.size());
+		return tree;
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,171 @@
+package com.selimhorri.app.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.version.CatalogVersionTracker;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, TTL-evicting cache in front of product detail reads.
+ * Changes are applied once their transaction commits: updated products are
+ * written through, created and deleted ones are evicted, stock moved through
+ * reservations is applied to the cached quantity, and a category change drops
+ * everything since every cached product embeds its category.
+ * <p>
+ * Writes committed on other instances are caught up by {@link #refreshChanged()}.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+	
+	private static final int RELOAD_CHUNK_SIZE = 500;
+	
+	private final ProductRepository productRepository;
+	private final CatalogTombstoneRepository catalogTombstoneRepository;
+	private final CatalogVersionTracker catalogVersionTracker;
+	private final Cache<Integer, ProductDto> cache;
+	private final Duration refreshOverlap;
+	private Instant refreshedAt = Instant.now();
+	private Long productVersion;
+	private Long categoryVersion;
+	
+	public ProductCache(
+			final ProductRepository productRepository, 
+			final CatalogTombstoneRepository catalogTombstoneRepository, 
+			final CatalogVersionTracker catalogVersionTracker, 
+			final MeterRegistry meterRegistry, 
+			@Value("${app.cache.product.maximum-size:10000}") final long maximumSize, 
+			@Value("${app.cache.product.expire-after-write:10m}") final Duration expireAfterWrite, 
+			@Value("${app.cache.product.refresh-overlap:5s}") final Duration refreshOverlap) {
+		this.productRepository = productRepository;
+		this.catalogTombstoneRepository = catalogTombstoneRepository;
+		this.catalogVersionTracker = catalogVersionTracker;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+		this.refreshOverlap = refreshOverlap;
+		CaffeineCacheMetrics.monitor(meterRegistry, this.cache, "products");
+	}
+	
+	public ProductDto get(final Integer productId, final Function<Integer, ProductDto> loader) {
+		return this.cache.get(productId, loader);
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(final ProductChangedEvent event) {
+		if (event.getChangeType() == ChangeType.UPDATED)
+			this.cache.put(event.getProductId(), event.getProductDto());
+		else {
+			log.debug("*** ProductCache; evict product: {} *", event.getProductId());
+			this.cache.invalidate(event.getProductId());
+		}
+	}
+	
+	/**
+	 * Keeps hot products cached through a run of reservations. Stock levels arrive with the
+	 * version they were written at, so an entry reloaded since is never moved back.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductStockChanged(final ProductStockChangedEvent event) {
+		event.getStockLevels().forEach(stock -> this.cache.asMap()
+				.computeIfPresent(stock.getProductId(), (id, productDto) -> productDto.getVersion() != null 
+						&& productDto.getVersion() >= stock.getVersion() ? productDto : productDto.toBuilder()
+								.quantity(stock.getQuantity())
+								.version(stock.getVersion())
+								.updatedAt(stock.getUpdatedAt())
+								.build()));
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCategoryChanged(final CategoryChangedEvent event) {
+		log.debug("*** ProductCache; evict all products after category: {} change *", event.getCategoryId());
+		this.cache.invalidateAll();
+	}
+	
+	/**
+	 * Once the catalog versions moved, reloads cached products updated since the previous run
+	 * and evicts deleted ones, or drops everything after a category change. Runs look back an
+	 * extra overlap for clock skew between instances. Not read-only, a trailing replica would
+	 * put older rows back.
+	 * @return number of cached products reloaded or evicted, -1 when everything was dropped
+	 */
+	@Transactional
+	public synchronized int refreshChanged() {
+		
+		final var now = Instant.now();
+		final var categoryVersion = this.catalogVersionTracker.find(CatalogEntityType.CATEGORY).getVersion();
+		final var productVersion = this.catalogVersionTracker.find(CatalogEntityType.PRODUCT).getVersion();
+		int refreshed = 0;
+		
+		if (this.categoryVersion == null || this.categoryVersion != categoryVersion) {
+			this.cache.invalidateAll();
+			refreshed = -1;
+		}
+		else if (this.productVersion == null || this.productVersion != productVersion) {
+			final var since = this.refreshedAt.minus(this.refreshOverlap);
+			final var changedIds = new HashSet<>(this.productRepository.findIdsUpdatedSince(since));
+			changedIds.retainAll(this.cache.asMap().keySet());
+			final var deletedIds = this.catalogTombstoneRepository.findEntityIdsDeletedSince(CatalogEntityType.PRODUCT, since);
+			this.cache.invalidateAll(deletedIds);
+			refreshed = deletedIds.size() + this.reload(new ArrayList<>(changedIds));
+		}
+		
+		this.categoryVersion = categoryVersion;
+		this.productVersion = productVersion;
+		this.refreshedAt = now;
+		return refreshed;
+	}
+	
+	private int reload(final ArrayList<Integer> productIds) {
+		for (int from = 0; from < productIds.size(); from += RELOAD_CHUNK_SIZE) {
+			final var chunk = productIds.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, productIds.size()));
+			final var found = new HashSet<Integer>();
+			this.productRepository.findAllById(chunk).forEach(product -> {
+				this.cache.put(product.getProductId(), ProductMappingHelper.map(product));
+				found.add(product.getProductId());
+			});
+			chunk.stream()
+					.filter(productId -> !found.contains(productId))
+					.forEach(this.cache::invalidate);
+		}
+		return productIds.size();
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
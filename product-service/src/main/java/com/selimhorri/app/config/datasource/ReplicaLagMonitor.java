@@ -0,0 +1,144 @@
+package com.selimhorri.app.config.datasource;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures replica lag with a heartbeat row: every interval the current time is written
+ * to the primary and read back from each replica, the difference being how far that
+ * replica trails. The estimate includes up to one heartbeat interval, so the maximum lag
+ * should be a few intervals long. A replica that can not be read, or has not been measured
+ * yet, is unavailable.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+	
+	private static final String UPDATE_HEARTBEAT = "UPDATE replication_heartbeat SET beat_at = ? WHERE heartbeat_id = 1";
+	private static final String INSERT_HEARTBEAT = "INSERT INTO replication_heartbeat (heartbeat_id, beat_at) VALUES (1, ?)";
+	private static final String SELECT_HEARTBEAT = "SELECT beat_at FROM replication_heartbeat WHERE heartbeat_id = 1";
+	
+	private final DataSource primary;
+	private final Map<String, DataSource> replicas;
+	private final JdbcTemplate primaryJdbcTemplate;
+	private final Map<String, JdbcTemplate> replicaJdbcTemplates = new LinkedHashMap<>();
+	private final Map<String, Duration> lags = new ConcurrentHashMap<>();
+	private final Set<String> available = ConcurrentHashMap.newKeySet();
+	private final Duration maxLag;
+	private final Clock clock;
+	
+	public ReplicaLagMonitor(final DataSource primary, final Map<String, DataSource> replicas, 
+			final Duration maxLag, final Clock clock, final MeterRegistry meterRegistry) {
+		this.primary = primary;
+		this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+		this.primaryJdbcTemplate = new JdbcTemplate(primary);
+		this.maxLag = maxLag;
+		this.clock = clock;
+		this.replicas.forEach((name, dataSource) -> {
+			this.replicaJdbcTemplates.put(name, new JdbcTemplate(dataSource));
+			Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds(name))
+					.tag("replica", name)
+					.baseUnit("seconds")
+					.register(meterRegistry);
+			Gauge.builder("datasource.replica.available", this, monitor -> monitor.isAvailable(name) ? 1 : 0)
+					.tag("replica", name)
+					.register(meterRegistry);
+		});
+	}
+	
+	public DataSource getPrimary() {
+		return this.primary;
+	}
+	
+	public Map<String, DataSource> getReplicas() {
+		return this.replicas;
+	}
+	
+	public boolean isAvailable(final String replica) {
+		return this.available.contains(replica);
+	}
+	
+	@Scheduled(fixedDelayString = "${app.datasource.routing.heartbeat-interval-ms:1000}")
+	public void check() {
+		
+		final var now = this.clock.instant();
+		try {
+			final var beat = Timestamp.from(now);
+			if (this.primaryJdbcTemplate.update(UPDATE_HEARTBEAT, beat) == 0)
+				this.primaryJdbcTemplate.update(INSERT_HEARTBEAT, beat);
+		}
+		catch (DataAccessException e) {
+			log.warn("*** ReplicaLagMonitor; heartbeat write to primary failed: {} *", e.getMessage());
+		}
+		
+		this.replicaJdbcTemplates.forEach((name, jdbcTemplate) -> {
+			try {
+				final var beats = jdbcTemplate.queryForList(SELECT_HEARTBEAT, Timestamp.class);
+				if (beats.isEmpty() || beats.get(0) == null) {
+					this.markUnavailable(name, null, "no heartbeat replicated yet");
+					return;
+				}
+				final var lag = Duration.between(beats.get(0).toInstant(), now);
+				final var clampedLag = lag.isNegative() ? Duration.ZERO : lag;
+				if (clampedLag.compareTo(this.maxLag) > 0) {
+					this.markUnavailable(name, clampedLag, "lag " + clampedLag + " exceeds " + this.maxLag);
+					return;
+				}
+				this.lags.put(name, clampedLag);
+				if (this.available.add(name))
+					log.info("*** ReplicaLagMonitor; replica {} available, lag {} *", name, clampedLag);
+			}
+			catch (DataAccessException e) {
+				this.markUnavailable(name, null, e.getMessage());
+			}
+		});
+	}
+	
+	/**
+	 * Closes the pools this monitor was handed, they are not beans of their own.
+	 */
+	public void close() {
+		this.replicas.values().forEach(ReplicaLagMonitor::closeQuietly);
+		closeQuietly(this.primary);
+	}
+	
+	private void markUnavailable(final String name, final Duration lag, final String reason) {
+		if (lag != null)
+			this.lags.put(name, lag);
+		else
+			this.lags.remove(name);
+		if (this.available.remove(name))
+			log.warn("*** ReplicaLagMonitor; replica {} unavailable, reads fall back to primary: {} *", name, reason);
+	}
+	
+	private static void closeQuietly(final DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable)
+			try {
+				((AutoCloseable) dataSource).close();
+			}
+			catch (Exception e) {
+				log.warn("*** ReplicaLagMonitor; closing data source failed: {} *", e.getMessage());
+			}
+	}
+	
+	private double lagSeconds(final String replica) {
+		final var lag = this.lags.get(replica);
+		return lag != null ? lag.toMillis() / 1000d : Double.NaN;
+	}
+	
+}
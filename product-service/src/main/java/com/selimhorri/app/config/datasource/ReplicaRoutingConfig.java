@@ -0,0 +1,53 @@
+package com.selimhorri.app.config.datasource;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the auto-configured data source with one routing read-only transactions to
+ * replicas when {@code app.datasource.routing.enabled} is set. Transactions that are not
+ * read-only, and reads that must see the latest commit, stay on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+	
+	@Bean
+	public ReplicaLagMonitor replicaLagMonitor(final DataSourceProperties dataSourceProperties, 
+			final ReplicaRoutingProperties replicaRoutingProperties, final MeterRegistry meterRegistry) {
+		final var replicas = new LinkedHashMap<String, DataSource>();
+		final var configured = replicaRoutingProperties.getReplicas();
+		for (int i = 0; i < configured.size(); i++) {
+			final var replica = configured.get(i);
+			replicas.put(replica.getName() != null ? replica.getName() : "replica-" + i, DataSourceBuilder.create()
+					.driverClassName(dataSourceProperties.getDriverClassName())
+					.url(replica.getUrl())
+					.username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername())
+					.password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword())
+					.build());
+		}
+		return new ReplicaLagMonitor(dataSourceProperties.initializeDataSourceBuilder().build(), replicas, 
+				replicaRoutingProperties.getMaxLag(), Clock.systemUTC(), meterRegistry);
+	}
+	
+	@Bean
+	@Primary
+	public DataSource dataSource(final ReplicaLagMonitor replicaLagMonitor, final MeterRegistry meterRegistry) {
+		return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaLagMonitor, meterRegistry));
+	}
+	
+}
@@ -0,0 +1,74 @@
+package com.selimhorri.app.config.datasource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends connections of read-only transactions round robin to the replicas the
+ * {@link ReplicaLagMonitor} reports available, everything else to the primary. The
+ * decision is taken when the connection is fetched, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction's read-only flag is only bound after it has asked for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+	
+	static final String PRIMARY = "primary";
+	static final String REASON_WRITE = "write";
+	static final String REASON_READ = "read";
+	static final String REASON_FALLBACK = "fallback";
+	
+	private final ReplicaLagMonitor replicaLagMonitor;
+	private final List<String> replicaNames;
+	private final AtomicInteger next = new AtomicInteger();
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+	
+	public ReplicaRoutingDataSource(final ReplicaLagMonitor replicaLagMonitor, final MeterRegistry meterRegistry) {
+		this.replicaLagMonitor = replicaLagMonitor;
+		this.replicaNames = new ArrayList<>(replicaLagMonitor.getReplicas().keySet());
+		this.meterRegistry = meterRegistry;
+		final Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.getReplicas());
+		targets.put(PRIMARY, replicaLagMonitor.getPrimary());
+		this.setTargetDataSources(targets);
+		this.setDefaultTargetDataSource(replicaLagMonitor.getPrimary());
+		this.setLenientFallback(false);
+		this.afterPropertiesSet();
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+			return this.decide(PRIMARY, REASON_WRITE);
+		
+		final int size = this.replicaNames.size();
+		final int start = Math.floorMod(this.next.getAndIncrement(), Math.max(size, 1));
+		for (int i = 0; i < size; i++) {
+			final var replica = this.replicaNames.get((start + i) % size);
+			if (this.replicaLagMonitor.isAvailable(replica))
+				return this.decide(replica, REASON_READ);
+		}
+		return this.decide(PRIMARY, REASON_FALLBACK);
+	}
+	
+	private String decide(final String target, final String reason) {
+		this.decisions.computeIfAbsent(target + '/' + reason, key -> Counter.builder("datasource.routing")
+				.description("Connections handed out per target data source")
+				.tag("target", target)
+				.tag("reason", reason)
+				.register(this.meterRegistry))
+			.increment();
+		return target;
+	}
+	
+}
@@ -0,0 +1,39 @@
+package com.selimhorri.app.config.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Read replicas next to the primary configured under {@code spring.datasource}.
+ */
+@ConfigurationProperties(prefix = "app.datasource.routing")
+@Data
+public class ReplicaRoutingProperties {
+	
+	private boolean enabled;
+	
+	/**
+	 * Replicas whose heartbeat trails the primary by more than this are skipped.
+	 */
+	private Duration maxLag = Duration.ofSeconds(5);
+	
+	private long heartbeatIntervalMs = 1000;
+	
+	private List<Replica> replicas = new ArrayList<>();
+	
+	@Data
+	public static class Replica {
+		
+		private String name;
+		private String url;
+		private String username;
+		private String password;
+	
+	}
+	
+}
@@ -0,0 +1,45 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "catalog_tombstones")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class CatalogTombstone implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "tombstone_id", unique = true, nullable = false, updatable = false)
+	private Long tombstoneId;
+	
+	@Enumerated(EnumType.STRING)
+	@Column(name = "entity_type", nullable = false, updatable = false, length = 16)
+	private CatalogEntityType entityType;
+	
+	@Column(name = "entity_id", nullable = false, updatable = false)
+	private Integer entityId;
+	
+	@Column(name = "deleted_at", nullable = false, updatable = false)
+	private Instant deletedAt;
+	
+}
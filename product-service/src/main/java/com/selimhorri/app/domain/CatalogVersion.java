@@ -0,0 +1,39 @@
+package com.selimhorri.app.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "catalog_versions")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public final class CatalogVersion implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Enumerated(EnumType.STRING)
+	@Column(name = "entity_type", unique = true, nullable = false, updatable = false, length = 16)
+	private CatalogEntityType entityType;
+	
+	@Column(name = "version", nullable = false)
+	private long version;
+	
+	@Column(name = "updated_at", nullable = false)
+	private Instant updatedAt;
+	
+}
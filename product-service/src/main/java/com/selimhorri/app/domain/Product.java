@@ -11,6 +11,10 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,7 +34,15 @@ public final class Product extends AbstractMappedEntity implements Serializable
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id_generator")
+	@GenericGenerator(name = "product_id_generator", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+		@Parameter(name = "table_name", value = "id_generators"),
+		@Parameter(name = "segment_column_name", value = "sequence_name"),
+		@Parameter(name = "value_column_name", value = "next_val"),
+		@Parameter(name = "segment_value", value = "products"),
+		@Parameter(name = "increment_size", value = "50"),
+		@Parameter(name = "optimizer", value = "pooled-lo"),
+	})
 	@Column(name = "product_id", unique = true, nullable = false, updatable = false)
 	private Integer productId;
 	
@@ -53,6 +65,10 @@ public final class Product extends AbstractMappedEntity implements Serializable
 	@JoinColumn(name = "category_id")
 	private Category category;
 	
+	@Version
+	@Column(name = "version", nullable = false)
+	private long version;
+	
 }
 
 
@@ -0,0 +1,27 @@
+package com.selimhorri.app.domain;
+
+import java.util.Arrays;
+
+import com.selimhorri.app.exception.wrapper.InvalidExportRequestException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum ProductExportFormat {
+	
+	NDJSON("ndjson", "application/x-ndjson"),
+	CSV("csv", "text/csv");
+	
+	private final String key;
+	private final String contentType;
+	
+	public static ProductExportFormat fromKey(final String key) {
+		return Arrays.stream(values())
+				.filter(format -> format.getKey().equalsIgnoreCase(key))
+				.findFirst()
+				.orElseThrow(() -> new InvalidExportRequestException(String.format("Unknown export format: %s", key)));
+	}
+	
+}
@@ -0,0 +1,37 @@
+package com.selimhorri.app.domain;
+
+import java.util.Arrays;
+
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum ProductSortKey {
+	
+	PRODUCT_ID("productId"),
+	PRODUCT_TITLE("productTitle"),
+	PRICE_UNIT("priceUnit");
+	
+	private final String key;
+	
+	public static ProductSortKey fromKey(final String key) {
+		return Arrays.stream(values())
+				.filter(sortKey -> sortKey.getKey().equalsIgnoreCase(key))
+				.findFirst()
+				.orElseThrow(() -> new InvalidPageRequestException(String.format("Unknown sort key: %s", key)));
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,38 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CatalogChangeDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private CatalogEntityType entityType;
+	private Integer entityId;
+	private ChangeType changeType;
+	
+	@JsonFormat(shape = Shape.STRING)
+	private Instant changedAt;
+	
+	@JsonInclude(Include.NON_NULL)
+	private ProductDto product;
+	
+	@JsonInclude(Include.NON_NULL)
+	private CategoryDto category;
+	
+}
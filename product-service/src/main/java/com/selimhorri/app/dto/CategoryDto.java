@@ -1,8 +1,10 @@
 package com.selimhorri.app.dto;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Set;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -24,6 +26,12 @@ public class CategoryDto implements Serializable {
 	private String categoryTitle;
 	private String imageUrl;
 	
+	@JsonInclude(Include.NON_NULL)
+	private Long version;
+	
+	@JsonIgnore
+	private Instant updatedAt;
+	
 	@JsonInclude(Include.NON_NULL)
 	private Set<CategoryDto> subCategoriesDtos;
 	
@@ -1,7 +1,9 @@
 package com.selimhorri.app.dto;
 
 import java.io.Serializable;
+import java.time.Instant;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -14,7 +16,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ProductDto implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
@@ -25,6 +27,12 @@ public class ProductDto implements Serializable {
 	private Double priceUnit;
 	private Integer quantity;
 	
+	@JsonInclude(Include.NON_NULL)
+	private Long version;
+	
+	@JsonIgnore
+	private Instant updatedAt;
+	
 	@JsonProperty("category")
 	@JsonInclude(Include.NON_NULL)
 	private CategoryDto categoryDto;
@@ -0,0 +1,30 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listing filter; a null field does not restrict the listing.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ProductFilterDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private Integer categoryId;
+	private Double minPrice;
+	private Double maxPrice;
+	private Boolean inStock;
+	
+	public boolean isUnrestricted() {
+		return this.categoryId == null && this.minPrice == null && this.maxPrice == null 
+				&& !Boolean.TRUE.equals(this.inStock);
+	}
+	
+}
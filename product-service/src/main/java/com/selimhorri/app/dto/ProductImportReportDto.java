@@ -0,0 +1,28 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ProductImportReportDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private Integer received;
+	private Integer imported;
+	private Integer failed;
+	
+	@JsonInclude(Include.NON_EMPTY)
+	private List<ProductImportErrorDto> errors;
+	
+}
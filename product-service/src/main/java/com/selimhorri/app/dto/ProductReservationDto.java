@@ -0,0 +1,38 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import com.selimhorri.app.domain.ReservationStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class ProductReservationDto implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private String reservationId;
+	private Integer productId;
+	private Integer quantity;
+	private ReservationStatus status;
+	
+	@JsonFormat(shape = Shape.STRING)
+	private Instant expiresAt;
+	
+	@JsonProperty(access = Access.WRITE_ONLY)
+	@JsonInclude(Include.NON_NULL)
+	private Long ttlSeconds;
+	
+}
@@ -0,0 +1,23 @@
+package com.selimhorri.app.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A representation together with the version it was read at, both from one transaction.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class VersionedDto<T> implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private ResourceVersionDto version;
+	private T body;
+	
+}
@@ -0,0 +1,14 @@
+package com.selimhorri.app.dto.projection;
+
+import java.time.Instant;
+
+public interface CategoryNodeProjection {
+	
+	Integer getCategoryId();
+	Integer getParentCategoryId();
+	String getCategoryTitle();
+	String getImageUrl();
+	Instant getUpdatedAt();
+	Long getVersion();
+	
+}
@@ -0,0 +1,45 @@
+package com.selimhorri.app.dto.projection;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Constructor projection of a category and its direct parent, the only part of the
+ * eager parent chain a category listing shows. Timestamps are only selected by the
+ * change feed.
+ */
+@Getter
+@ToString
+public final class CategoryRowProjection {
+	
+	private final Integer categoryId;
+	private final String categoryTitle;
+	private final String imageUrl;
+	private final Integer parentCategoryId;
+	private final String parentCategoryTitle;
+	private final String parentCategoryImageUrl;
+	private final Instant createdAt;
+	private final Instant updatedAt;
+	
+	public CategoryRowProjection(final Integer categoryId, final String categoryTitle, final String imageUrl, 
+			final Integer parentCategoryId, final String parentCategoryTitle, final String parentCategoryImageUrl) {
+		this(categoryId, categoryTitle, imageUrl, parentCategoryId, parentCategoryTitle, parentCategoryImageUrl, 
+				null, null);
+	}
+	
+	public CategoryRowProjection(final Integer categoryId, final String categoryTitle, final String imageUrl, 
+			final Integer parentCategoryId, final String parentCategoryTitle, final String parentCategoryImageUrl, 
+			final Instant createdAt, final Instant updatedAt) {
+		this.categoryId = categoryId;
+		this.categoryTitle = categoryTitle;
+		this.imageUrl = imageUrl;
+		this.parentCategoryId = parentCategoryId;
+		this.parentCategoryTitle = parentCategoryTitle;
+		this.parentCategoryImageUrl = parentCategoryImageUrl;
+		this.createdAt = createdAt;
+		this.updatedAt = updatedAt;
+	}
+	
+}
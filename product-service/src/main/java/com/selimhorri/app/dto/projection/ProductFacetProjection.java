@@ -0,0 +1,10 @@
+package com.selimhorri.app.dto.projection;
+
+public interface ProductFacetProjection {
+	
+	Integer getProductId();
+	Integer getCategoryId();
+	Double getPriceUnit();
+	Integer getQuantity();
+	
+}
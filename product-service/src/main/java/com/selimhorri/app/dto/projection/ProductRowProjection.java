@@ -0,0 +1,53 @@
+package com.selimhorri.app.dto.projection;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Constructor projection of the columns behind a product listing, read in one join with
+ * the category instead of loading the entity and its eager category chain. Timestamps
+ * are only selected by the change feed.
+ */
+@Getter
+@ToString
+public final class ProductRowProjection {
+	
+	private final Integer productId;
+	private final String productTitle;
+	private final String imageUrl;
+	private final String sku;
+	private final Double priceUnit;
+	private final Integer quantity;
+	private final Integer categoryId;
+	private final String categoryTitle;
+	private final String categoryImageUrl;
+	private final Instant createdAt;
+	private final Instant updatedAt;
+	
+	public ProductRowProjection(final Integer productId, final String productTitle, final String imageUrl, 
+			final String sku, final Double priceUnit, final Integer quantity, 
+			final Integer categoryId, final String categoryTitle, final String categoryImageUrl) {
+		this(productId, productTitle, imageUrl, sku, priceUnit, quantity, 
+				categoryId, categoryTitle, categoryImageUrl, null, null);
+	}
+	
+	public ProductRowProjection(final Integer productId, final String productTitle, final String imageUrl, 
+			final String sku, final Double priceUnit, final Integer quantity, 
+			final Integer categoryId, final String categoryTitle, final String categoryImageUrl, 
+			final Instant createdAt, final Instant updatedAt) {
+		this.productId = productId;
+		this.productTitle = productTitle;
+		this.imageUrl = imageUrl;
+		this.sku = sku;
+		this.priceUnit = priceUnit;
+		this.quantity = quantity;
+		this.categoryId = categoryId;
+		this.categoryTitle = categoryTitle;
+		this.categoryImageUrl = categoryImageUrl;
+		this.createdAt = createdAt;
+		this.updatedAt = updatedAt;
+	}
+	
+}
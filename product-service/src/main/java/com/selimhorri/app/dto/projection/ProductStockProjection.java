@@ -0,0 +1,31 @@
+package com.selimhorri.app.dto.projection;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Constructor projection of a product's stock level and the version it was written at,
+ * read back by key right after a reservation moved it.
+ */
+@Getter
+@ToString
+public final class ProductStockProjection implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private final Integer productId;
+	private final Integer quantity;
+	private final long version;
+	private final Instant updatedAt;
+	
+	public ProductStockProjection(final Integer productId, final Integer quantity, final long version, 
+			final Instant updatedAt) {
+		this.productId = productId;
+		this.quantity = quantity;
+		this.version = version;
+		this.updatedAt = updatedAt;
+	}
+	
+}
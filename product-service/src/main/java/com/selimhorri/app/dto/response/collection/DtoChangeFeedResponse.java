@@ -0,0 +1,24 @@
+package com.selimhorri.app.dto.response.collection;
+
+import java.util.Collection;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a change feed. The cursor is always set, even when the page is empty,
+ * so clients can store it and resume from the same position on their next poll.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class DtoChangeFeedResponse<T> {
+	
+	private Collection<T> collection;
+	private String cursor;
+	private boolean hasMore;
+	
+}
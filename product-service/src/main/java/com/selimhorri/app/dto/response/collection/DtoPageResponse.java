@@ -0,0 +1,46 @@
+package com.selimhorri.app.dto.response.collection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.selimhorri.app.dto.FacetCountDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class DtoPageResponse<T> {
+	
+	private Collection<T> collection;
+	
+	@JsonInclude(Include.NON_NULL)
+	private String nextCursor;
+	
+	@JsonInclude(Include.NON_NULL)
+	private String next;
+	
+	@JsonInclude(Include.NON_NULL)
+	private Integer total;
+	
+	@JsonInclude(Include.NON_NULL)
+	private Map<String, List<FacetCountDto>> facets;
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,29 @@
+package com.selimhorri.app.event;
+
+import java.io.Serializable;
+
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public final class CategoryChangedEvent implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final ChangeType changeType;
+	private final Integer categoryId;
+	
+}
+
+
+
+
+
+
+
+
+
+
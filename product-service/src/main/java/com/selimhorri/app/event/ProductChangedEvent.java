@@ -0,0 +1,36 @@
+package com.selimhorri.app.event;
+
+import java.io.Serializable;
+
+import com.selimhorri.app.dto.ProductDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@AllArgsConstructor
+@Data
+public final class ProductChangedEvent implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final ChangeType changeType;
+	private final Integer productId;
+	private final ProductDto productDto;
+	
+	public enum ChangeType {
+		CREATED,
+		UPDATED,
+		DELETED
+	}
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,31 @@
+package com.selimhorri.app.event;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.selimhorri.app.dto.projection.ProductStockProjection;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when quantities move through reservations rather than a product update.
+ * Carries each moved product's stock level as its transaction left it, not its full state.
+ */
+@AllArgsConstructor
+@Data
+public final class ProductStockChangedEvent implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	private final List<ProductStockProjection> stockLevels;
+	private final boolean stockReturned;
+	
+	public Set<Integer> getProductIds() {
+		return this.stockLevels.stream()
+				.map(ProductStockProjection::getProductId)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+	
+}
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidExportRequestException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidExportRequestException() {
+		super();
+	}
+	
+	public InvalidExportRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidExportRequestException(String message) {
+		super(message);
+	}
+	
+	public InvalidExportRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidImportRequestException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidImportRequestException() {
+		super();
+	}
+	
+	public InvalidImportRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidImportRequestException(String message) {
+		super(message);
+	}
+	
+	public InvalidImportRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidReservationRequestException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidReservationRequestException() {
+		super();
+	}
+	
+	public InvalidReservationRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidReservationRequestException(String message) {
+		super(message);
+	}
+	
+	public InvalidReservationRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
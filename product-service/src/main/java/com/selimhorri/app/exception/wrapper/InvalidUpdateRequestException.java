@@ -0,0 +1,35 @@
+package com.selimhorri.app.exception.wrapper;
+
+public class InvalidUpdateRequestException extends RuntimeException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidUpdateRequestException() {
+		super();
+	}
+	
+	public InvalidUpdateRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
+	public InvalidUpdateRequestException(String message) {
+		super(message);
+	}
+	
+	public InvalidUpdateRequestException(Throwable cause) {
+		super(cause);
+	}
+	
+	
+	
+}
+
+
+
+
+
+
+
+
+
+
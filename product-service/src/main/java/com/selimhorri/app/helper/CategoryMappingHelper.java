@@ -2,8 +2,10 @@ package com.selimhorri.app.helper;
 
 import java.util.Optional;
 
+import com.selimhorri.app.cache.CategoryTree;
 import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.projection.CategoryRowProjection;
 
 public interface CategoryMappingHelper {
 	
@@ -16,6 +18,8 @@ public interface CategoryMappingHelper {
 				.categoryId(category.getCategoryId())
 				.categoryTitle(category.getCategoryTitle())
 				.imageUrl(category.getImageUrl())
+				.version(category.getVersion())
+				.updatedAt(category.getUpdatedAt())
 				.parentCategoryDto(
 						CategoryDto.builder()
 							.categoryId(parentCategory.getCategoryId())
@@ -25,6 +29,28 @@ public interface CategoryMappingHelper {
 				.build();
 	}
 	
+	public static CategoryDto map(final CategoryRowProjection category) {
+		return CategoryDto.builder()
+				.categoryId(category.getCategoryId())
+				.categoryTitle(category.getCategoryTitle())
+				.imageUrl(category.getImageUrl())
+				.parentCategoryDto(
+						CategoryDto.builder()
+							.categoryId(category.getParentCategoryId())
+							.categoryTitle(category.getParentCategoryTitle())
+							.imageUrl(category.getParentCategoryImageUrl())
+							.build())
+				.build();
+	}
+	
+	public static CategoryDto map(final CategoryTree.Node node) {
+		return CategoryDto.builder()
+				.categoryId(node.getCategoryId())
+				.categoryTitle(node.getCategoryTitle())
+				.imageUrl(node.getImageUrl())
+				.build();
+	}
+	
 	public static Category map(final CategoryDto categoryDto) {
 		
 		final var parentCategoryDto = Optional.ofNullable(categoryDto
@@ -34,6 +60,7 @@ public interface CategoryMappingHelper {
 				.categoryId(categoryDto.getCategoryId())
 				.categoryTitle(categoryDto.getCategoryTitle())
 				.imageUrl(categoryDto.getImageUrl())
+				.version(categoryDto.getVersion() != null ? categoryDto.getVersion() : 0L)
 				.parentCategory(
 						Category.builder()
 							.categoryId(parentCategoryDto.getCategoryId())
@@ -0,0 +1,70 @@
+package com.selimhorri.app.helper;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.selimhorri.app.dto.ResourceVersionDto;
+
+/**
+ * Strong entity tags derived from {@code version} counters; every write bumps a version,
+ * so two states never share a tag the way same-second {@code updatedAt} values could.
+ * Listings use the catalog versions kept by {@code CatalogVersionTracker}.
+ * Versions are read in the body's transaction and before it, so a concurrent write can
+ * only make a body newer than its tag (costing one extra full response), never older.
+ * Cached products keep the versions they were read at and are tagged from those.
+ */
+public interface EntityTagHelper {
+	
+	/**
+	 * @param lastModified latest modification among the parts, may be null
+	 * @param parts versions the representation depends on
+	 */
+	public static ResourceVersionDto version(final Instant lastModified, final Object... parts) {
+		return ResourceVersionDto.builder()
+				.etag(Arrays.stream(parts)
+						.map(EntityTagHelper::encode)
+						.collect(Collectors.joining("-", "\"", "\"")))
+				.lastModified(lastModified)
+				.build();
+	}
+	
+	public static Instant latest(final Instant... instants) {
+		return Arrays.stream(instants)
+				.filter(Objects::nonNull)
+				.max(Instant::compareTo)
+				.orElse(null);
+	}
+	
+	/**
+	 * Answers the request with a 304 when the client already holds the current version,
+	 * in which case the caller must return without building a body.
+	 */
+	public static boolean isNotModified(final WebRequest webRequest, final ResourceVersionDto version) {
+		return webRequest.checkNotModified(version.getEtag(), 
+				version.getLastModified() != null ? version.getLastModified().toEpochMilli() : -1);
+	}
+	
+	public static ResponseEntity.BodyBuilder ok(final ResourceVersionDto version) {
+		final var builder = ResponseEntity.ok()
+				.eTag(version.getEtag());
+		if (version.getLastModified() != null)
+			builder.lastModified(version.getLastModified());
+		return builder;
+	}
+	
+	private static String encode(final Object part) {
+		if (part == null)
+			return "0";
+		if (part instanceof Instant)
+			return Long.toString(((Instant) part).toEpochMilli(), Character.MAX_RADIX);
+		if (part instanceof Number)
+			return Long.toString(((Number) part).longValue(), Character.MAX_RADIX);
+		return part.toString();
+	}
+	
+}
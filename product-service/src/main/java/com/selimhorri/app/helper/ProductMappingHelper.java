@@ -4,6 +4,7 @@ import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.domain.Product;
 import com.selimhorri.app.dto.CategoryDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.projection.ProductRowProjection;
 
 public interface ProductMappingHelper {
 	
@@ -15,11 +16,32 @@ public interface ProductMappingHelper {
 				.sku(product.getSku())
 				.priceUnit(product.getPriceUnit())
 				.quantity(product.getQuantity())
+				.version(product.getVersion())
+				.updatedAt(product.getUpdatedAt())
 				.categoryDto(
 						CategoryDto.builder()
 							.categoryId(product.getCategory().getCategoryId())
 							.categoryTitle(product.getCategory().getCategoryTitle())
 							.imageUrl(product.getCategory().getImageUrl())
+							.version(product.getCategory().getVersion())
+							.updatedAt(product.getCategory().getUpdatedAt())
+							.build())
+				.build();
+	}
+	
+	public static ProductDto map(final ProductRowProjection product) {
+		return ProductDto.builder()
+				.productId(product.getProductId())
+				.productTitle(product.getProductTitle())
+				.imageUrl(product.getImageUrl())
+				.sku(product.getSku())
+				.priceUnit(product.getPriceUnit())
+				.quantity(product.getQuantity())
+				.categoryDto(
+						CategoryDto.builder()
+							.categoryId(product.getCategoryId())
+							.categoryTitle(product.getCategoryTitle())
+							.imageUrl(product.getCategoryImageUrl())
 							.build())
 				.build();
 	}
@@ -32,6 +54,7 @@ public interface ProductMappingHelper {
 				.sku(productDto.getSku())
 				.priceUnit(productDto.getPriceUnit())
 				.quantity(productDto.getQuantity())
+				.version(productDto.getVersion() != null ? productDto.getVersion() : 0L)
 				.category(
 						Category.builder()
 							.categoryId(productDto.getCategoryDto().getCategoryId())
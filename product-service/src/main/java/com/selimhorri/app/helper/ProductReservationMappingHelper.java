@@ -0,0 +1,18 @@
+package com.selimhorri.app.helper;
+
+import com.selimhorri.app.domain.ProductReservation;
+import com.selimhorri.app.dto.ProductReservationDto;
+
+public interface ProductReservationMappingHelper {
+	
+	public static ProductReservationDto map(final ProductReservation productReservation) {
+		return ProductReservationDto.builder()
+				.reservationId(productReservation.getReservationId())
+				.productId(productReservation.getProductId())
+				.quantity(productReservation.getQuantity())
+				.status(productReservation.getStatus())
+				.expiresAt(productReservation.getExpiresAt())
+				.build();
+	}
+	
+}
@@ -0,0 +1,32 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogTombstone;
+
+public interface CatalogTombstoneRepository extends JpaRepository<CatalogTombstone, Long> {
+	
+	@Query("SELECT t FROM CatalogTombstone t "
+			+ "WHERE (t.deletedAt > :since OR (t.deletedAt = :since AND t.tombstoneId > :afterId)) "
+			+ "AND t.deletedAt <= :until "
+			+ "ORDER BY t.deletedAt, t.tombstoneId")
+	List<CatalogTombstone> findDeletedSince(@Param("since") final Instant since, @Param("afterId") final Long afterId, 
+			@Param("until") final Instant until, final Pageable pageable);
+	
+	@Query("SELECT t.entityId FROM CatalogTombstone t WHERE t.entityType = :entityType AND t.deletedAt >= :since")
+	List<Integer> findEntityIdsDeletedSince(@Param("entityType") final CatalogEntityType entityType, 
+			@Param("since") final Instant since);
+	
+	@Modifying
+	@Query("DELETE FROM CatalogTombstone t WHERE t.deletedAt < :before")
+	int deleteDeletedBefore(@Param("before") final Instant before);
+	
+}
@@ -0,0 +1,21 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogVersion;
+
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, CatalogEntityType> {
+	
+	@Transactional
+	@Modifying
+	@Query("UPDATE CatalogVersion v SET v.version = v.version + 1, v.updatedAt = :now WHERE v.entityType = :entityType")
+	int bump(@Param("entityType") final CatalogEntityType entityType, @Param("now") final Instant now);
+	
+}
@@ -1,11 +1,41 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.dto.projection.CategoryNodeProjection;
+import com.selimhorri.app.dto.projection.CategoryRowProjection;
 
 public interface CategoryRepository extends JpaRepository<Category, Integer> {
 	
+	String CATEGORY_ROW = "SELECT new com.selimhorri.app.dto.projection.CategoryRowProjection("
+			+ "c.categoryId, c.categoryTitle, c.imageUrl, pc.categoryId, pc.categoryTitle, pc.imageUrl) "
+			+ "FROM Category c LEFT JOIN c.parentCategory pc ";
+	
+	String CATEGORY_CHANGE_ROW = "SELECT new com.selimhorri.app.dto.projection.CategoryRowProjection("
+			+ "c.categoryId, c.categoryTitle, c.imageUrl, pc.categoryId, pc.categoryTitle, pc.imageUrl, "
+			+ "c.createdAt, c.updatedAt) "
+			+ "FROM Category c LEFT JOIN c.parentCategory pc ";
+	
+	@Query(CATEGORY_ROW + "ORDER BY c.categoryId")
+	List<CategoryRowProjection> findAllRows();
+	
+	@Query("SELECT c.categoryId AS categoryId, pc.categoryId AS parentCategoryId, "
+			+ "c.categoryTitle AS categoryTitle, c.imageUrl AS imageUrl, c.updatedAt AS updatedAt, c.version AS version "
+			+ "FROM Category c LEFT JOIN c.parentCategory pc")
+	List<CategoryNodeProjection> findAllNodes();
 	
+	@Query(CATEGORY_CHANGE_ROW
+			+ "WHERE (c.updatedAt > :since OR (c.updatedAt = :since AND c.categoryId > :afterId)) "
+			+ "AND c.updatedAt <= :until "
+			+ "ORDER BY c.updatedAt, c.categoryId")
+	List<CategoryRowProjection> findChangedSince(@Param("since") final Instant since, @Param("afterId") final Integer afterId, 
+			@Param("until") final Instant until, final Pageable pageable);
 	
 }
@@ -1,11 +1,127 @@
 package com.selimhorri.app.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.selimhorri.app.constant.AppConstant;
 import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.projection.ProductFacetProjection;
+import com.selimhorri.app.dto.projection.ProductRowProjection;
+import com.selimhorri.app.dto.projection.ProductStockProjection;
 
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 	
+	String PRODUCT_ROW = "SELECT new com.selimhorri.app.dto.projection.ProductRowProjection("
+			+ "p.productId, p.productTitle, p.imageUrl, p.sku, p.priceUnit, p.quantity, "
+			+ "c.categoryId, c.categoryTitle, c.imageUrl) "
+			+ "FROM Product p LEFT JOIN p.category c ";
+	
+	String PRODUCT_CHANGE_ROW = "SELECT new com.selimhorri.app.dto.projection.ProductRowProjection("
+			+ "p.productId, p.productTitle, p.imageUrl, p.sku, p.priceUnit, p.quantity, "
+			+ "c.categoryId, c.categoryTitle, c.imageUrl, p.createdAt, p.updatedAt) "
+			+ "FROM Product p LEFT JOIN p.category c ";
+	
+	@Query(PRODUCT_ROW + "ORDER BY p.productId")
+	List<ProductRowProjection> findAllRows();
+	
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = AppConstant.EXPORT_FETCH_SIZE),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "false"),
+	})
+	@Query(PRODUCT_ROW + "ORDER BY p.productId")
+	Stream<ProductRowProjection> streamAll();
+	
+	@Query(PRODUCT_CHANGE_ROW
+			+ "WHERE (p.updatedAt > :since OR (p.updatedAt = :since AND p.productId > :afterId)) "
+			+ "AND p.updatedAt <= :until "
+			+ "ORDER BY p.updatedAt, p.productId")
+	List<ProductRowProjection> findChangedSince(@Param("since") final Instant since, @Param("afterId") final Integer afterId, 
+			@Param("until") final Instant until, final Pageable pageable);
+	
+	@Query("SELECT p.productId FROM Product p WHERE p.updatedAt >= :since")
+	List<Integer> findIdsUpdatedSince(@Param("since") final Instant since);
+	
+	@Query("SELECT p.productId FROM Product p WHERE p.category.categoryId IN :categoryIds")
+	List<Integer> findIdsByCategoryIds(@Param("categoryIds") final Collection<Integer> categoryIds);
+	
+	@Query("SELECT p.productId AS productId, c.categoryId AS categoryId, p.priceUnit AS priceUnit, p.quantity AS quantity "
+			+ "FROM Product p LEFT JOIN p.category c")
+	List<ProductFacetProjection> findAllFacetRows();
+	
+	@Query("SELECT p.productId AS productId, c.categoryId AS categoryId, p.priceUnit AS priceUnit, p.quantity AS quantity "
+			+ "FROM Product p LEFT JOIN p.category c WHERE p.productId IN :productIds")
+	List<ProductFacetProjection> findFacetRowsByProductIdIn(@Param("productIds") final Collection<Integer> productIds);
+	
+	@Query("SELECT new com.selimhorri.app.dto.projection.ProductStockProjection(p.productId, p.quantity, p.version, p.updatedAt) "
+			+ "FROM Product p WHERE p.productId IN :productIds")
+	List<ProductStockProjection> findStockByProductIdIn(@Param("productIds") final Collection<Integer> productIds);
+	
+	@Modifying
+	@Query("UPDATE Product p SET p.quantity = p.quantity - :quantity, p.version = p.version + 1, p.updatedAt = :now "
+			+ "WHERE p.productId = :productId AND p.quantity >= :quantity")
+	int decrementQuantityIfAvailable(@Param("productId") final Integer productId, 
+			@Param("quantity") final int quantity, @Param("now") final Instant now);
+	
+	@Modifying
+	@Query("UPDATE Product p SET p.quantity = p.quantity + :quantity, p.version = p.version + 1, p.updatedAt = :now "
+			+ "WHERE p.productId = :productId")
+	int incrementQuantity(@Param("productId") final Integer productId, 
+			@Param("quantity") final int quantity, @Param("now") final Instant now);
+	
+	@Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+	Set<String> findExistingSkus(@Param("skus") final Collection<String> skus);
+	
+	@Query(PRODUCT_ROW + "WHERE p.productId IN :productIds")
+	List<ProductRowProjection> findAllByProductIdIn(@Param("productIds") final Collection<Integer> productIds);
+	
+	@Query(PRODUCT_ROW
+			+ "WHERE p.productId > :afterId "
+			+ "ORDER BY p.productId")
+	List<ProductRowProjection> findPageOrderByProductId(@Param("afterId") final Integer afterId, final Pageable pageable);
+	
+	@Query(PRODUCT_ROW
+			+ "ORDER BY p.productTitle, p.productId")
+	List<ProductRowProjection> findFirstPageOrderByProductTitle(final Pageable pageable);
+	
+	@Query(PRODUCT_ROW
+			+ "WHERE p.productTitle > :afterTitle "
+			+ "OR (p.productTitle = :afterTitle AND p.productId > :afterId) "
+			+ "ORDER BY p.productTitle, p.productId")
+	List<ProductRowProjection> findPageOrderByProductTitle(@Param("afterTitle") final String afterTitle, 
+			@Param("afterId") final Integer afterId, final Pageable pageable);
+	
+	@Query(PRODUCT_ROW
+			+ "WHERE (p.productTitle IS NULL AND p.productId > :afterId) OR p.productTitle IS NOT NULL "
+			+ "ORDER BY p.productTitle, p.productId")
+	List<ProductRowProjection> findPageOrderByProductTitleAfterNull(@Param("afterId") final Integer afterId, final Pageable pageable);
+	
+	@Query(PRODUCT_ROW
+			+ "ORDER BY p.priceUnit, p.productId")
+	List<ProductRowProjection> findFirstPageOrderByPriceUnit(final Pageable pageable);
+	
+	@Query(PRODUCT_ROW
+			+ "WHERE p.priceUnit > :afterPrice "
+			+ "OR (p.priceUnit = :afterPrice AND p.productId > :afterId) "
+			+ "ORDER BY p.priceUnit, p.productId")
+	List<ProductRowProjection> findPageOrderByPriceUnit(@Param("afterPrice") final Double afterPrice, 
+			@Param("afterId") final Integer afterId, final Pageable pageable);
 	
+	@Query(PRODUCT_ROW
+			+ "WHERE (p.priceUnit IS NULL AND p.productId > :afterId) OR p.priceUnit IS NOT NULL "
+			+ "ORDER BY p.priceUnit, p.productId")
+	List<ProductRowProjection> findPageOrderByPriceUnitAfterNull(@Param("afterId") final Integer afterId, final Pageable pageable);
 	
 }
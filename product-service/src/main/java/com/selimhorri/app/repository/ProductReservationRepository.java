@@ -0,0 +1,49 @@
+package com.selimhorri.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.selimhorri.app.domain.ProductReservation;
+import com.selimhorri.app.domain.ReservationStatus;
+
+public interface ProductReservationRepository extends JpaRepository<ProductReservation, String> {
+	
+	@Modifying
+	@Query("UPDATE ProductReservation r SET r.status = :to, r.updatedAt = :now "
+			+ "WHERE r.reservationId = :reservationId AND r.status = :from AND r.expiresAt > :now")
+	int transitionIfActive(@Param("reservationId") final String reservationId, 
+			@Param("from") final ReservationStatus from, @Param("to") final ReservationStatus to, 
+			@Param("now") final Instant now);
+	
+	@Modifying
+	@Query("UPDATE ProductReservation r SET r.status = :to, r.updatedAt = :now "
+			+ "WHERE r.reservationId = :reservationId AND r.status = :from")
+	int transition(@Param("reservationId") final String reservationId, 
+			@Param("from") final ReservationStatus from, @Param("to") final ReservationStatus to, 
+			@Param("now") final Instant now);
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT r FROM ProductReservation r "
+			+ "WHERE r.status = com.selimhorri.app.domain.ReservationStatus.RESERVED AND r.expiresAt <= :now "
+			+ "ORDER BY r.expiresAt")
+	List<ProductReservation> findExpiredForUpdate(@Param("now") final Instant now, final Pageable pageable);
+	
+	@Modifying
+	@Query("DELETE FROM ProductReservation r "
+			+ "WHERE r.status <> com.selimhorri.app.domain.ReservationStatus.RESERVED AND r.expiresAt < :before")
+	int deleteClosedExpiredBefore(@Param("before") final Instant before);
+	
+	@Modifying
+	@Query("DELETE FROM ProductReservation r WHERE r.productId = :productId")
+	int deleteByProductId(@Param("productId") final Integer productId);
+	
+}
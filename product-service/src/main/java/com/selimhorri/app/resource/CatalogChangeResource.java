@@ -0,0 +1,49 @@
+package com.selimhorri.app.resource;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.dto.CatalogChangeDto;
+import com.selimhorri.app.dto.response.collection.DtoChangeFeedResponse;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+import com.selimhorri.app.service.CatalogChangeService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/changes")
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogChangeResource {
+	
+	private final CatalogChangeService catalogChangeService;
+	
+	/**
+	 * Start with {@code since} (an ISO-8601 instant, omitted for a full sync),
+	 * then keep polling with the returned cursor as {@code after}.
+	 */
+	@GetMapping
+	public ResponseEntity<DtoChangeFeedResponse<CatalogChangeDto>> findChanges(
+			@RequestParam(name = "after", required = false) final String after, 
+			@RequestParam(name = "since", required = false) final String since, 
+			@RequestParam(name = "limit", defaultValue = AppConstant.PAGE_DEFAULT_LIMIT) final int limit) {
+		log.info("*** CatalogChangeDto Feed, resource; fetch catalog changes *");
+		try {
+			return ResponseEntity.ok(this.catalogChangeService.findChanges(after, 
+					since != null ? Instant.parse(since) : null, 
+					Math.max(1, Math.min(limit, AppConstant.PAGE_MAX_LIMIT))));
+		}
+		catch (DateTimeParseException e) {
+			throw new InvalidPageRequestException(String.format("since: %s is not an ISO-8601 instant", since), e);
+		}
+	}
+	
+}
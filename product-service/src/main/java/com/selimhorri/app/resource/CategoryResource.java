@@ -13,9 +13,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.CategoryTreeDto;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.helper.EntityTagHelper;
 import com.selimhorri.app.service.CategoryService;
 
 import lombok.RequiredArgsConstructor;
@@ -30,18 +33,73 @@ public class CategoryResource {
 	private final CategoryService categoryService;
 	
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<CategoryDto>> findAll() {
+	public ResponseEntity<DtoCollectionResponse<CategoryDto>> findAll(final WebRequest webRequest) {
 		log.info("*** CategoryDto List, controller; fetch all categories *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.categoryService.findAll()));
+		final var categories = this.categoryService.findAllWithVersion();
+		if (EntityTagHelper.isNotModified(webRequest, categories.getVersion()))
+			return null;
+		return EntityTagHelper.ok(categories.getVersion()).body(new DtoCollectionResponse<>(categories.getBody()));
 	}
 	
 	@GetMapping("/{categoryId}")
 	public ResponseEntity<CategoryDto> findById(
 			@PathVariable("categoryId") 
 			@NotBlank(message = "Input must not be blank") 
-			@Valid final String categoryId) {
+			@Valid final String categoryId, 
+			final WebRequest webRequest) {
 		log.info("*** CategoryDto, resource; fetch category by id *");
-		return ResponseEntity.ok(this.categoryService.findById(Integer.parseInt(categoryId)));
+		final var category = this.categoryService.findByIdWithVersion(Integer.parseInt(categoryId));
+		if (EntityTagHelper.isNotModified(webRequest, category.getVersion()))
+			return null;
+		return EntityTagHelper.ok(category.getVersion()).body(category.getBody());
+	}
+	
+	@GetMapping("/tree")
+	public ResponseEntity<DtoCollectionResponse<CategoryTreeDto>> findTree(final WebRequest webRequest) {
+		log.info("*** CategoryTreeDto List, resource; fetch category tree *");
+		final var version = this.categoryService.findTreeVersion();
+		if (EntityTagHelper.isNotModified(webRequest, version))
+			return null;
+		return EntityTagHelper.ok(version).body(new DtoCollectionResponse<>(this.categoryService.findTree()));
+	}
+	
+	@GetMapping("/{categoryId}/breadcrumbs")
+	public ResponseEntity<DtoCollectionResponse<CategoryDto>> findBreadcrumbs(
+			@PathVariable("categoryId") 
+			@NotBlank(message = "Input must not be blank") 
+			@Valid final String categoryId, 
+			final WebRequest webRequest) {
+		log.info("*** CategoryDto List, resource; fetch category breadcrumbs *");
+		final var version = this.categoryService.findTreeVersion();
+		if (EntityTagHelper.isNotModified(webRequest, version))
+			return null;
+		return EntityTagHelper.ok(version).body(new DtoCollectionResponse<>(this.categoryService.findBreadcrumbs(Integer.parseInt(categoryId))));
+	}
+	
+	@GetMapping("/{categoryId}/children")
+	public ResponseEntity<DtoCollectionResponse<CategoryDto>> findChildren(
+			@PathVariable("categoryId") 
+			@NotBlank(message = "Input must not be blank") 
+			@Valid final String categoryId, 
+			final WebRequest webRequest) {
+		log.info("*** CategoryDto List, resource; fetch category children *");
+		final var version = this.categoryService.findTreeVersion();
+		if (EntityTagHelper.isNotModified(webRequest, version))
+			return null;
+		return EntityTagHelper.ok(version).body(new DtoCollectionResponse<>(this.categoryService.findChildren(Integer.parseInt(categoryId))));
+	}
+	
+	@GetMapping("/{categoryId}/descendants")
+	public ResponseEntity<DtoCollectionResponse<CategoryDto>> findDescendants(
+			@PathVariable("categoryId") 
+			@NotBlank(message = "Input must not be blank") 
+			@Valid final String categoryId, 
+			final WebRequest webRequest) {
+		log.info("*** CategoryDto List, resource; fetch category descendants *");
+		final var version = this.categoryService.findTreeVersion();
+		if (EntityTagHelper.isNotModified(webRequest, version))
+			return null;
+		return EntityTagHelper.ok(version).body(new DtoCollectionResponse<>(this.categoryService.findDescendants(Integer.parseInt(categoryId))));
 	}
 	
 	@PostMapping
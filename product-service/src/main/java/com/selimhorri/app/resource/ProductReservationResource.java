@@ -0,0 +1,65 @@
+package com.selimhorri.app.resource;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.selimhorri.app.dto.ProductReservationDto;
+import com.selimhorri.app.service.ProductReservationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/reservations")
+@Slf4j
+@RequiredArgsConstructor
+public class ProductReservationResource {
+	
+	private final ProductReservationService productReservationService;
+	
+	@GetMapping("/{reservationId}")
+	public ResponseEntity<ProductReservationDto> findById(
+			@PathVariable("reservationId") 
+			@NotBlank(message = "Input must not be blank!") 
+			@Valid final String reservationId) {
+		log.info("*** ProductReservationDto, resource; fetch reservation by id *");
+		return ResponseEntity.ok(this.productReservationService.findById(reservationId));
+	}
+	
+	@PostMapping
+	public ResponseEntity<ProductReservationDto> reserve(
+			@RequestBody 
+			@NotNull(message = "Input must not be NULL!") 
+			@Valid final ProductReservationDto productReservationDto) {
+		log.info("*** ProductReservationDto, resource; reserve product *");
+		return ResponseEntity.ok(this.productReservationService.reserve(productReservationDto));
+	}
+	
+	@PostMapping("/{reservationId}/confirm")
+	public ResponseEntity<ProductReservationDto> confirm(
+			@PathVariable("reservationId") 
+			@NotBlank(message = "Input must not be blank!") 
+			@Valid final String reservationId) {
+		log.info("*** ProductReservationDto, resource; confirm reservation *");
+		return ResponseEntity.ok(this.productReservationService.confirm(reservationId));
+	}
+	
+	@PostMapping("/{reservationId}/release")
+	public ResponseEntity<ProductReservationDto> release(
+			@PathVariable("reservationId") 
+			@NotBlank(message = "Input must not be blank!") 
+			@Valid final String reservationId) {
+		log.info("*** ProductReservationDto, resource; release reservation *");
+		return ResponseEntity.ok(this.productReservationService.release(reservationId));
+	}
+	
+}
@@ -1,9 +1,18 @@
 package com.selimhorri.app.resource;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,10 +21,25 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.ProductExportFormat;
+import com.selimhorri.app.domain.ProductSortKey;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.ProductImportReportDto;
+import com.selimhorri.app.dto.response.collection.DtoBatchCollectionResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+import com.selimhorri.app.helper.EntityTagHelper;
+import com.selimhorri.app.service.ProductExportService;
+import com.selimhorri.app.service.ProductImportService;
 import com.selimhorri.app.service.ProductService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,20 +52,112 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductResource {
 	
 	private final ProductService productService;
+	private final ProductExportService productExportService;
+	private final ProductImportService productImportService;
 	
+	/**
+	 * Any filter, or {@code facets=true}, answers from the facet index with match and facet
+	 * counts, ordered by product id. Those pages carry no ETag, the index trails stock moved
+	 * by reservations by up to a refresh interval.
+	 */
 	@GetMapping
-	public ResponseEntity<DtoCollectionResponse<ProductDto>> findAll() {
-		log.info("*** ProductDto List, controller; fetch all categories *");
-		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productService.findAll()));
+	public ResponseEntity<DtoPageResponse<ProductDto>> findAll(
+			@RequestParam(name = "after", required = false) final String after, 
+			@RequestParam(name = "limit", defaultValue = AppConstant.PAGE_DEFAULT_LIMIT) final int limit, 
+			@RequestParam(name = "sort", defaultValue = "productId") final String sort, 
+			@RequestParam(name = "categoryId", required = false) final Integer categoryId, 
+			@RequestParam(name = "minPrice", required = false) final Double minPrice, 
+			@RequestParam(name = "maxPrice", required = false) final Double maxPrice, 
+			@RequestParam(name = "inStock", defaultValue = "false") final boolean inStock, 
+			@RequestParam(name = "facets", defaultValue = "false") final boolean facets, 
+			final WebRequest webRequest) {
+		log.info("*** ProductDto Page, controller; fetch products page *");
+		final var sortKey = ProductSortKey.fromKey(sort);
+		final var clampedLimit = Math.max(1, Math.min(limit, AppConstant.PAGE_MAX_LIMIT));
+		final var filter = ProductFilterDto.builder()
+				.categoryId(categoryId)
+				.minPrice(minPrice)
+				.maxPrice(maxPrice)
+				.inStock(inStock)
+				.build();
+		
+		if (facets || !filter.isUnrestricted()) {
+			if (sortKey != ProductSortKey.PRODUCT_ID)
+				throw new InvalidPageRequestException(String.format("Filtered products can only be sorted by: %s", 
+						ProductSortKey.PRODUCT_ID.getKey()));
+			return ResponseEntity.ok(this.withNextLink(this.productService.findFilteredPage(after, clampedLimit, filter)));
+		}
+		
+		final var page = this.productService.findPageWithVersion(after, clampedLimit, sortKey);
+		if (EntityTagHelper.isNotModified(webRequest, page.getVersion()))
+			return null;
+		return EntityTagHelper.ok(page.getVersion()).body(this.withNextLink(page.getBody()));
+	}
+	
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@RequestParam(name = "format", defaultValue = "ndjson") final String format) {
+		log.info("*** StreamingResponseBody, resource; export products *");
+		final var exportFormat = ProductExportFormat.fromKey(format);
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+						.filename("products." + exportFormat.getKey())
+						.build()
+						.toString())
+				.body(outputStream -> this.productExportService.export(exportFormat, outputStream));
+	}
+	
+	@GetMapping("/search")
+	public ResponseEntity<DtoCollectionResponse<ProductDto>> search(
+			@RequestParam("q") 
+			@NotBlank(message = "Input must not be blank!") 
+			@Valid final String query, 
+			@RequestParam(name = "limit", defaultValue = "20") final int limit) {
+		log.info("*** ProductDto List, resource; search products *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productService
+				.search(query, Math.max(1, Math.min(limit, AppConstant.PAGE_MAX_LIMIT)))));
+	}
+	
+	@GetMapping("/autocomplete")
+	public ResponseEntity<DtoCollectionResponse<String>> autocomplete(
+			@RequestParam("q") 
+			@NotBlank(message = "Input must not be blank!") 
+			@Valid final String query, 
+			@RequestParam(name = "limit", defaultValue = "10") final int limit) {
+		log.info("*** String List, resource; autocomplete product search *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.productService
+				.autocomplete(query, Math.max(1, Math.min(limit, AppConstant.PAGE_MAX_LIMIT)))));
 	}
 	
 	@GetMapping("/{productId}")
 	public ResponseEntity<ProductDto> findById(
 			@PathVariable("productId") 
 			@NotBlank(message = "Input must not be blank!") 
-			@Valid final String productId) {
+			@Valid final String productId, 
+			final WebRequest webRequest) {
 		log.info("*** ProductDto, resource; fetch product by id *");
-		return ResponseEntity.ok(this.productService.findById(Integer.parseInt(productId)));
+		final var product = this.productService.findByIdWithVersion(Integer.parseInt(productId));
+		if (EntityTagHelper.isNotModified(webRequest, product.getVersion()))
+			return null;
+		return EntityTagHelper.ok(product.getVersion()).body(product.getBody());
+	}
+	
+	@PostMapping("/batch")
+	public ResponseEntity<DtoBatchCollectionResponse<ProductDto>> findAllByIds(
+			@RequestBody 
+			@NotEmpty(message = "Input must not be empty!") 
+			@Valid final Set<Integer> productIds) {
+		log.info("*** ProductDto List, resource; fetch products by ids *");
+		final var productDtos = this.productService.findAllByIds(productIds);
+		final var foundIds = productDtos.stream()
+				.map(ProductDto::getProductId)
+				.collect(Collectors.toUnmodifiableSet());
+		return ResponseEntity.ok(new DtoBatchCollectionResponse<>(productDtos, productIds.stream()
+				.filter(Objects::nonNull)
+				.filter(productId -> !foundIds.contains(productId))
+				.sorted()
+				.collect(Collectors.toUnmodifiableList())));
 	}
 	
 	@PostMapping
@@ -53,6 +169,15 @@ public class ProductResource {
 		return ResponseEntity.ok(this.productService.save(productDto));
 	}
 	
+	@PostMapping("/import")
+	public ResponseEntity<ProductImportReportDto> importProducts(
+			@RequestBody 
+			@NotEmpty(message = "Input must not be empty!") 
+			@Valid final List<ProductDto> productDtos) {
+		log.info("*** ProductImportReportDto, resource; import products *");
+		return ResponseEntity.ok(this.productImportService.importProducts(productDtos));
+	}
+	
 	@PutMapping
 	public ResponseEntity<ProductDto> update(
 			@RequestBody 
@@ -81,6 +206,14 @@ public class ProductResource {
 		return ResponseEntity.ok(true);
 	}
 	
+	private DtoPageResponse<ProductDto> withNextLink(final DtoPageResponse<ProductDto> page) {
+		if (page.getNextCursor() != null)
+			page.setNext(ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("after", page.getNextCursor())
+					.toUriString());
+		return page;
+	}
+	
 	
 	
 }
@@ -0,0 +1,34 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.cache.CategoryTreeHolder;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catches the category tree up with writes made on other instances; local writes
+ * rebuild it as soon as they commit.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CategoryTreeRefresher {
+	
+	private final CategoryTreeHolder categoryTreeHolder;
+	
+	@Scheduled(
+			initialDelayString = "${app.category-tree.refresh-interval-ms:5000}", 
+			fixedDelayString = "${app.category-tree.refresh-interval-ms:5000}")
+	public void refresh() {
+		try {
+			this.categoryTreeHolder.refreshIfChanged();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** CategoryTreeRefresher; refresh failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
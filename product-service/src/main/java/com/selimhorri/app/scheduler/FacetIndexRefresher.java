@@ -0,0 +1,34 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.search.ProductFacetIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Folds stock moved by reservations into the facet index; a flash sale's worth of
+ * reservations on one product costs a single reload per interval.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FacetIndexRefresher {
+	
+	private final ProductFacetIndex productFacetIndex;
+	
+	@Scheduled(
+			initialDelayString = "${app.facets.refresh-interval-ms:1000}", 
+			fixedDelayString = "${app.facets.refresh-interval-ms:1000}")
+	public void refresh() {
+		try {
+			this.productFacetIndex.refreshDirty();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** FacetIndexRefresher; refresh failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
@@ -0,0 +1,34 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.cache.ProductCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catches cached products up with writes made on other instances; local writes
+ * are applied as soon as they commit.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductCacheRefresher {
+	
+	private final ProductCache productCache;
+	
+	@Scheduled(
+			initialDelayString = "${app.cache.product.refresh-interval-ms:1000}", 
+			fixedDelayString = "${app.cache.product.refresh-interval-ms:1000}")
+	public void refresh() {
+		try {
+			this.productCache.refreshChanged();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** ProductCacheRefresher; refresh failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
@@ -0,0 +1,30 @@
+package com.selimhorri.app.scheduler;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.selimhorri.app.service.ProductReservationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReservationExpirySweeper {
+	
+	private final ProductReservationService productReservationService;
+	
+	@Scheduled(
+			initialDelayString = "${app.reservation.sweep-interval-ms:5000}", 
+			fixedDelayString = "${app.reservation.sweep-interval-ms:5000}")
+	public void sweep() {
+		try {
+			this.productReservationService.expireOverdue();
+		}
+		catch (RuntimeException e) {
+			log.warn("*** ReservationExpirySweeper; sweep failed, retrying next run: {} *", e.getMessage());
+		}
+	}
+	
+}
@@ -0,0 +1,39 @@
+package com.selimhorri.app.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.repository.ProductReservationRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops confirmed, released and expired reservations whose hold ended longer ago than
+ * the retention; lookups of older reservation ids then answer 404.
+ */
+@Component
+@Slf4j
+public class ReservationPurger {
+	
+	private final ProductReservationRepository productReservationRepository;
+	private final Duration retention;
+	
+	public ReservationPurger(final ProductReservationRepository productReservationRepository, 
+			@Value("${app.reservation.retention:7d}") final Duration retention) {
+		this.productReservationRepository = productReservationRepository;
+		this.retention = retention;
+	}
+	
+	@Scheduled(cron = "${app.reservation.purge-cron:0 45 3 * * *}")
+	@Transactional
+	public void purge() {
+		final var purged = this.productReservationRepository.deleteClosedExpiredBefore(Instant.now().minus(this.retention));
+		log.info("*** ReservationPurger; purged {} reservations *", purged);
+	}
+	
+}
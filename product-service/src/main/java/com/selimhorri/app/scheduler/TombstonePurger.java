@@ -0,0 +1,39 @@
+package com.selimhorri.app.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drops tombstones older than the retention; clients further behind than that
+ * must resync from scratch.
+ */
+@Component
+@Slf4j
+public class TombstonePurger {
+	
+	private final CatalogTombstoneRepository catalogTombstoneRepository;
+	private final Duration retention;
+	
+	public TombstonePurger(final CatalogTombstoneRepository catalogTombstoneRepository, 
+			@Value("${app.change-feed.tombstone-retention:30d}") final Duration retention) {
+		this.catalogTombstoneRepository = catalogTombstoneRepository;
+		this.retention = retention;
+	}
+	
+	@Scheduled(cron = "${app.change-feed.tombstone-purge-cron:0 30 3 * * *}")
+	@Transactional
+	public void purge() {
+		final var purged = this.catalogTombstoneRepository.deleteDeletedBefore(Instant.now().minus(this.retention));
+		log.info("*** TombstonePurger; purged {} tombstones *", purged);
+	}
+	
+}
@@ -0,0 +1,110 @@
+package com.selimhorri.app.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Character trie over indexed terms and their document frequencies, where every node
+ * also keeps the highest frequency found below it. Completions are read best first, so
+ * a prefix shared by many terms costs as much as the completions it returns, and the
+ * result is exact. Not thread safe, guarded by the owning index lock.
+ */
+final class CompletionTrie {
+	
+	private static final Comparator<Candidate> BEST_FIRST = Comparator
+			.comparingInt((Candidate candidate) -> -candidate.frequency)
+			.thenComparing(candidate -> candidate.text)
+			.thenComparing(candidate -> candidate.node != null);
+	
+	private final Node root = new Node();
+	
+	/**
+	 * @param frequency number of products holding the term, 0 once none does
+	 */
+	void update(final String term, final int frequency) {
+		
+		final var path = new ArrayList<Node>(term.length() + 1);
+		var node = this.root;
+		path.add(node);
+		for (int i = 0; i < term.length(); i++) {
+			final var c = term.charAt(i);
+			var child = node.children.get(c);
+			if (child == null) {
+				if (frequency == 0)
+					return;
+				child = new Node();
+				node.children.put(c, child);
+			}
+			node = child;
+			path.add(node);
+		}
+		node.frequency = frequency;
+		
+		for (int depth = path.size() - 1; depth >= 0; depth--) {
+			final var current = path.get(depth);
+			current.best = current.frequency;
+			current.children.values().forEach(child -> current.best = Math.max(current.best, child.best));
+			if (current.best == 0 && depth > 0)
+				path.get(depth - 1).children.remove(term.charAt(depth - 1));
+		}
+	}
+	
+	/**
+	 * @return terms starting with the prefix, most frequent first, then alphabetically
+	 */
+	List<String> complete(final String prefix, final int limit) {
+		
+		var node = this.root;
+		for (int i = 0; i < prefix.length() && node != null; i++)
+			node = node.children.get(prefix.charAt(i));
+		if (node == null || node.best == 0 || limit <= 0)
+			return List.of();
+		
+		final var completions = new ArrayList<String>(limit);
+		final var candidates = new PriorityQueue<Candidate>(BEST_FIRST);
+		candidates.offer(new Candidate(prefix, node.best, node));
+		while (!candidates.isEmpty() && completions.size() < limit) {
+			final var candidate = candidates.poll();
+			if (candidate.node == null) {
+				completions.add(candidate.text);
+				continue;
+			}
+			if (candidate.node.frequency > 0)
+				candidates.offer(new Candidate(candidate.text, candidate.node.frequency, null));
+			candidate.node.children.forEach((c, child) ->
+					candidates.offer(new Candidate(candidate.text + c, child.best, child)));
+		}
+		return completions;
+	}
+	
+	private static final class Node {
+		
+		private final Map<Character, Node> children = new HashMap<>(4);
+		private int frequency;
+		private int best;
+		
+	}
+	
+	/**
+	 * Either a complete term, or a subtree whose terms all start with the text and
+	 * occur at most frequency times.
+	 */
+	private static final class Candidate {
+		
+		private final String text;
+		private final int frequency;
+		private final Node node;
+		
+		private Candidate(final String text, final int frequency, final Node node) {
+			this.text = text;
+			this.frequency = frequency;
+			this.node = node;
+		}
+		
+	}
+	
+}
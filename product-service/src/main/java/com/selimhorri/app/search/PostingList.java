@@ -0,0 +1,68 @@
+package com.selimhorri.app.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, growable list of (productId, weight) pairs backed by primitive arrays.
+ * Not thread safe, guarded by the owning index lock.
+ */
+final class PostingList {
+	
+	private static final int INITIAL_CAPACITY = 4;
+	
+	private int[] productIds = new int[INITIAL_CAPACITY];
+	private float[] weights = new float[INITIAL_CAPACITY];
+	private int size;
+	
+	void put(final int productId, final float weight) {
+		final int position = Arrays.binarySearch(this.productIds, 0, this.size, productId);
+		if (position >= 0) {
+			this.weights[position] = weight;
+			return;
+		}
+		final int insertAt = -position - 1;
+		if (this.size == this.productIds.length) {
+			this.productIds = Arrays.copyOf(this.productIds, this.size * 2);
+			this.weights = Arrays.copyOf(this.weights, this.size * 2);
+		}
+		System.arraycopy(this.productIds, insertAt, this.productIds, insertAt + 1, this.size - insertAt);
+		System.arraycopy(this.weights, insertAt, this.weights, insertAt + 1, this.size - insertAt);
+		this.productIds[insertAt] = productId;
+		this.weights[insertAt] = weight;
+		this.size++;
+	}
+	
+	void remove(final int productId) {
+		final int position = Arrays.binarySearch(this.productIds, 0, this.size, productId);
+		if (position < 0)
+			return;
+		System.arraycopy(this.productIds, position + 1, this.productIds, position, this.size - position - 1);
+		System.arraycopy(this.weights, position + 1, this.weights, position, this.size - position - 1);
+		this.size--;
+	}
+	
+	/**
+	 * @return the weight of the product in this list, or a negative value when absent
+	 */
+	float weightOf(final int productId) {
+		final int position = Arrays.binarySearch(this.productIds, 0, this.size, productId);
+		return position >= 0 ? this.weights[position] : -1f;
+	}
+	
+	int productIdAt(final int position) {
+		return this.productIds[position];
+	}
+	
+	float weightAt(final int position) {
+		return this.weights[position];
+	}
+	
+	int size() {
+		return this.size;
+	}
+	
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+}
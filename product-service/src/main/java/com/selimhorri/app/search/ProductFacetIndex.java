@@ -0,0 +1,452 @@
+package com.selimhorri.app.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.cache.CategoryTree;
+import com.selimhorri.app.cache.CategoryTreeHolder;
+import com.selimhorri.app.dto.FacetCountDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.projection.ProductFacetProjection;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.repository.ProductRepository;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process facet index over category, price bucket and stock. Every product gets a
+ * dense ordinal and each facet value a bitmap of ordinals, so a filtered listing and its
+ * facet counts are bitmap intersections instead of a {@code GROUP BY} per request.
+ * <p>
+ * Product writes are applied from their events as soon as they commit. Reservations only
+ * report which products moved, so those are marked dirty and reloaded in one batch by
+ * {@link #refreshDirty()}; written products are reloaded the same way, which repairs any
+ * interleaving of an event with an in-flight reload.
+ */
+@Component
+@Slf4j
+public class ProductFacetIndex {
+	
+	public static final String CATEGORY_FACET = "category";
+	public static final String PRICE_FACET = "price";
+	
+	private static final int RELOAD_CHUNK_SIZE = 500;
+	
+	private final ProductRepository productRepository;
+	private final CategoryTreeHolder categoryTreeHolder;
+	private final double[] priceBucketBounds;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Set<Integer> dirtyProductIds = ConcurrentHashMap.newKeySet();
+	private Segment segment;
+	private List<Consumer<Segment>> pendingChanges;
+	
+	public ProductFacetIndex(
+			final ProductRepository productRepository,
+			final CategoryTreeHolder categoryTreeHolder,
+			@Value("${app.facets.price-buckets:10,25,50,100,250,500,1000}") final double[] priceBucketBounds) {
+		this.productRepository = productRepository;
+		this.categoryTreeHolder = categoryTreeHolder;
+		this.priceBucketBounds = Arrays.stream(priceBucketBounds)
+				.sorted()
+				.distinct()
+				.toArray();
+		this.segment = new Segment(this.priceBucketBounds);
+	}
+	
+	/**
+	 * Rebuilds run one at a time so none of them loses the changes collected for it.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public synchronized void rebuild() {
+		
+		this.lock.writeLock().lock();
+		try {
+			this.pendingChanges = new ArrayList<>();
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		
+		final var rows = new ArrayList<>(this.productRepository.findAllFacetRows());
+		rows.sort(Comparator.comparing(ProductFacetProjection::getProductId));
+		final var rebuilt = new Segment(this.priceBucketBounds);
+		rows.forEach(rebuilt::put);
+		
+		this.lock.writeLock().lock();
+		try {
+			this.pendingChanges.forEach(change -> change.accept(rebuilt));
+			this.pendingChanges = null;
+			this.segment = rebuilt;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		log.info("*** ProductFacetIndex; index rebuilt with {} products *", rows.size());
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(final ProductChangedEvent event) {
+		final var productDto = event.getProductDto();
+		this.apply(event.getChangeType() == ChangeType.DELETED || productDto == null
+				? segment -> segment.remove(event.getProductId())
+				: segment -> segment.put(productDto));
+		this.dirtyProductIds.add(event.getProductId());
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductStockChanged(final ProductStockChangedEvent event) {
+		this.dirtyProductIds.addAll(event.getProductIds());
+	}
+	
+	/**
+	 * Deleting a category deletes its products without product events; renames and moves
+	 * need nothing since subtrees are resolved from the category tree at query time.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void onCategoryChanged(final CategoryChangedEvent event) {
+		if (event.getChangeType() == ChangeType.DELETED)
+			this.rebuild();
+	}
+	
+	/**
+	 * Reloads the products marked dirty since the last call, a chunk per query. Products
+	 * of a failed chunk stay dirty for the next call. Reads go to the primary: a product
+	 * reloaded from a trailing replica would not be marked dirty again.
+	 * @return number of products reloaded
+	 */
+	@Transactional
+	public int refreshDirty() {
+		
+		final var productIds = new ArrayList<Integer>(this.dirtyProductIds);
+		if (productIds.isEmpty())
+			return 0;
+		this.dirtyProductIds.removeAll(productIds);
+		
+		for (int from = 0; from < productIds.size(); from += RELOAD_CHUNK_SIZE) {
+			final var chunk = productIds.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, productIds.size()));
+			final List<ProductFacetProjection> rows;
+			try {
+				rows = this.productRepository.findFacetRowsByProductIdIn(chunk);
+			}
+			catch (RuntimeException e) {
+				this.dirtyProductIds.addAll(productIds.subList(from, productIds.size()));
+				throw e;
+			}
+			final var found = rows.stream()
+					.map(ProductFacetProjection::getProductId)
+					.collect(Collectors.toUnmodifiableSet());
+			this.apply(segment -> {
+				rows.forEach(segment::put);
+				chunk.stream()
+						.filter(productId -> !found.contains(productId))
+						.forEach(segment::remove);
+			});
+		}
+		return productIds.size();
+	}
+	
+	/**
+	 * @param afterId only products with a greater id are paged, matches and facets are not affected
+	 * @param limit maximum number of product ids to return
+	 */
+	public Result query(final ProductFilterDto filter, final int afterId, final int limit) {
+		
+		final var tree = this.categoryTreeHolder.get();
+		this.lock.readLock().lock();
+		try {
+			final var segment = this.segment;
+			final var categoryMask = filter.getCategoryId() != null
+					? segment.subtree(tree, filter.getCategoryId())
+					: segment.live;
+			final var priceMask = filter.getMinPrice() != null || filter.getMaxPrice() != null
+					? segment.priceRange(filter.getMinPrice(), filter.getMaxPrice())
+					: null;
+			final var stockMask = Boolean.TRUE.equals(filter.getInStock()) ? segment.inStock : null;
+			
+			final var matches = intersect(categoryMask, priceMask, stockMask);
+			
+			final var categoryFacet = new ArrayList<FacetCountDto>();
+			final var facetNodes = filter.getCategoryId() != null
+					? tree.findChildren(filter.getCategoryId())
+					: tree.getRoots();
+			for (final var node : facetNodes) {
+				final int count = intersect(segment.subtree(tree, node.getCategoryId()), priceMask, stockMask).cardinality();
+				if (count > 0)
+					categoryFacet.add(FacetCountDto.builder()
+							.value(String.valueOf(node.getCategoryId()))
+							.label(node.getCategoryTitle())
+							.count(count)
+							.build());
+			}
+			
+			final var priceFacet = new ArrayList<FacetCountDto>();
+			for (int bucket = 0; bucket < segment.priceBuckets.length; bucket++) {
+				final int count = intersect(segment.priceBuckets[bucket], categoryMask, stockMask).cardinality();
+				if (count > 0)
+					priceFacet.add(this.priceBucketFacet(bucket, count));
+			}
+			
+			return new Result(segment.page(matches, afterId, limit), matches.cardinality(),
+					Map.of(CATEGORY_FACET, Collections.unmodifiableList(categoryFacet),
+							PRICE_FACET, Collections.unmodifiableList(priceFacet)));
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.segment.live.cardinality();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	private void apply(final Consumer<Segment> change) {
+		this.lock.writeLock().lock();
+		try {
+			if (this.pendingChanges != null)
+				this.pendingChanges.add(change);
+			change.accept(this.segment);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	private FacetCountDto priceBucketFacet(final int bucket, final int count) {
+		final var from = bucket > 0 ? format(this.priceBucketBounds[bucket - 1]) : null;
+		final var to = bucket < this.priceBucketBounds.length ? format(this.priceBucketBounds[bucket]) : null;
+		return FacetCountDto.builder()
+				.value((from != null ? from : "*") + "-" + (to != null ? to : "*"))
+				.label(from == null ? "under " + to : to == null ? from + " and above" : from + " to " + to)
+				.count(count)
+				.build();
+	}
+	
+	private static String format(final double bound) {
+		return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+	}
+	
+	/**
+	 * @return a new bitmap, null masks do not restrict
+	 */
+	private static BitSet intersect(final BitSet base, final BitSet... masks) {
+		final var result = (BitSet) base.clone();
+		for (final var mask : masks)
+			if (mask != null)
+				result.and(mask);
+		return result;
+	}
+	
+	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	@Getter
+	public static final class Result {
+		
+		/**
+		 * Ascending, at most the requested limit.
+		 */
+		private final List<Integer> productIds;
+		private final int total;
+		private final Map<String, List<FacetCountDto>> facets;
+	
+	}
+	
+	/**
+	 * Not thread safe, guarded by the index lock. Ordinals of removed products are not
+	 * reused until the next rebuild.
+	 * <p>
+	 * A rebuild assigns ordinals in product id order and new products usually get the next
+	 * id, so a leading run of ordinals has ascending ids. Paging binary searches that run
+	 * and stops after the limit; only ordinals appended out of id order are scanned whole.
+	 */
+	private static final class Segment {
+		
+		private static final int INITIAL_CAPACITY = 1024;
+		private static final int NO_BUCKET = -1;
+		
+		private final double[] priceBucketBounds;
+		private final Map<Integer, Integer> ordinals = new HashMap<>();
+		private int[] productIds = new int[INITIAL_CAPACITY];
+		private Integer[] categoryIds = new Integer[INITIAL_CAPACITY];
+		private double[] prices = new double[INITIAL_CAPACITY];
+		private int size;
+		private int sortedPrefix;
+		private final BitSet live = new BitSet();
+		private final BitSet inStock = new BitSet();
+		private final Map<Integer, BitSet> categories = new HashMap<>();
+		private final BitSet[] priceBuckets;
+		
+		private Segment(final double[] priceBucketBounds) {
+			this.priceBucketBounds = priceBucketBounds;
+			this.priceBuckets = new BitSet[priceBucketBounds.length + 1];
+			Arrays.setAll(this.priceBuckets, bucket -> new BitSet());
+		}
+		
+		private void put(final ProductDto productDto) {
+			this.put(productDto.getProductId(),
+					productDto.getCategoryDto() != null ? productDto.getCategoryDto().getCategoryId() : null,
+					productDto.getPriceUnit(), productDto.getQuantity());
+		}
+		
+		private void put(final ProductFacetProjection row) {
+			this.put(row.getProductId(), row.getCategoryId(), row.getPriceUnit(), row.getQuantity());
+		}
+		
+		private void put(final Integer productId, final Integer categoryId, final Double priceUnit, final Integer quantity) {
+			
+			var ordinal = this.ordinals.get(productId);
+			if (ordinal == null) {
+				ordinal = this.size++;
+				if (ordinal == this.productIds.length) {
+					this.productIds = Arrays.copyOf(this.productIds, ordinal * 2);
+					this.categoryIds = Arrays.copyOf(this.categoryIds, ordinal * 2);
+					this.prices = Arrays.copyOf(this.prices, ordinal * 2);
+				}
+				this.ordinals.put(productId, ordinal);
+				this.productIds[ordinal] = productId;
+				if (ordinal == this.sortedPrefix && (ordinal == 0 || this.productIds[ordinal - 1] < productId))
+					this.sortedPrefix++;
+			}
+			else
+				this.clear(ordinal);
+			
+			this.categoryIds[ordinal] = categoryId;
+			this.prices[ordinal] = priceUnit != null ? priceUnit : Double.NaN;
+			this.live.set(ordinal);
+			if (quantity != null && quantity > 0)
+				this.inStock.set(ordinal);
+			if (categoryId != null)
+				this.categories.computeIfAbsent(categoryId, key -> new BitSet()).set(ordinal);
+			final int bucket = this.bucketOf(this.prices[ordinal]);
+			if (bucket != NO_BUCKET)
+				this.priceBuckets[bucket].set(ordinal);
+		}
+		
+		private void remove(final Integer productId) {
+			final var ordinal = this.ordinals.remove(productId);
+			if (ordinal != null)
+				this.clear(ordinal);
+		}
+		
+		private void clear(final int ordinal) {
+			this.live.clear(ordinal);
+			this.inStock.clear(ordinal);
+			final var categoryId = this.categoryIds[ordinal];
+			if (categoryId != null) {
+				final var members = this.categories.get(categoryId);
+				members.clear(ordinal);
+				if (members.isEmpty())
+					this.categories.remove(categoryId);
+			}
+			final int bucket = this.bucketOf(this.prices[ordinal]);
+			if (bucket != NO_BUCKET)
+				this.priceBuckets[bucket].clear(ordinal);
+		}
+		
+		/**
+		 * Bucket i holds prices in [bound i-1, bound i), the first and last are open ended.
+		 */
+		private int bucketOf(final double price) {
+			if (Double.isNaN(price))
+				return NO_BUCKET;
+			final int position = Arrays.binarySearch(this.priceBucketBounds, price);
+			return position >= 0 ? position + 1 : -position - 1;
+		}
+		
+		private BitSet subtree(final CategoryTree tree, final Integer categoryId) {
+			final var members = new BitSet();
+			final var own = this.categories.get(categoryId);
+			if (own != null)
+				members.or(own);
+			tree.findDescendants(categoryId).forEach(node -> {
+				final var descendant = this.categories.get(node.getCategoryId());
+				if (descendant != null)
+					members.or(descendant);
+			});
+			return members;
+		}
+		
+		/**
+		 * Buckets entirely inside [minPrice, maxPrice] are taken whole, only the boundary
+		 * buckets are checked product by product.
+		 */
+		private BitSet priceRange(final Double minPrice, final Double maxPrice) {
+			final var members = new BitSet();
+			for (int bucket = 0; bucket < this.priceBuckets.length; bucket++) {
+				final double low = bucket > 0 ? this.priceBucketBounds[bucket - 1] : Double.NEGATIVE_INFINITY;
+				final double high = bucket < this.priceBucketBounds.length
+						? this.priceBucketBounds[bucket] : Double.POSITIVE_INFINITY;
+				if ((maxPrice != null && low > maxPrice) || (minPrice != null && high <= minPrice))
+					continue;
+				final var bucketMembers = this.priceBuckets[bucket];
+				if ((minPrice == null || low >= minPrice) && (maxPrice == null || high <= maxPrice)) {
+					members.or(bucketMembers);
+					continue;
+				}
+				for (int ordinal = bucketMembers.nextSetBit(0); ordinal >= 0; ordinal = bucketMembers.nextSetBit(ordinal + 1)) {
+					final double price = this.prices[ordinal];
+					if ((minPrice == null || price >= minPrice) && (maxPrice == null || price <= maxPrice))
+						members.set(ordinal);
+				}
+			}
+			return members;
+		}
+		
+		private List<Integer> page(final BitSet matches, final int afterId, final int limit) {
+			final var lowest = new PriorityQueue<Integer>(limit + 1, Comparator.reverseOrder());
+			final int position = Arrays.binarySearch(this.productIds, 0, this.sortedPrefix, afterId);
+			for (int ordinal = matches.nextSetBit(position >= 0 ? position + 1 : -position - 1);
+					ordinal >= 0 && ordinal < this.sortedPrefix && lowest.size() < limit;
+					ordinal = matches.nextSetBit(ordinal + 1))
+				lowest.offer(this.productIds[ordinal]);
+			for (int ordinal = matches.nextSetBit(this.sortedPrefix); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+				final int productId = this.productIds[ordinal];
+				if (productId <= afterId)
+					continue;
+				lowest.offer(productId);
+				if (lowest.size() > limit)
+					lowest.poll();
+			}
+			return lowest.stream()
+					.sorted()
+					.collect(Collectors.toUnmodifiableList());
+		}
+	
+	}
+	
+}
@@ -0,0 +1,280 @@
+package com.selimhorri.app.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.ProductRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process inverted index over product title, sku and category title.
+ * Queries are tokenized and AND-ed, hits are ranked by field weight times idf,
+ * and autocomplete reads the most frequent terms for the last query token from a trie.
+ * The index is rebuilt at startup and kept current from committed product changes.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+	
+	private static final float TITLE_WEIGHT = 3f;
+	private static final float SKU_WEIGHT = 5f;
+	private static final float CATEGORY_WEIGHT = 1f;
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	
+	private final ProductRepository productRepository;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private Segment segment = new Segment();
+	private List<ProductChangedEvent> pendingChanges;
+	
+	/**
+	 * Rebuilds run one at a time: each one collects the changes committed while it reads,
+	 * and a later rebuild must not swap in its segment before an earlier one has finished.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public synchronized void rebuild() {
+		
+		this.lock.writeLock().lock();
+		try {
+			this.pendingChanges = new ArrayList<>();
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		
+		final var rebuilt = new Segment();
+		this.productRepository.findAllRows()
+				.forEach(product -> rebuilt.index(ProductMappingHelper.map(product)));
+		
+		this.lock.writeLock().lock();
+		try {
+			this.pendingChanges.forEach(rebuilt::apply);
+			this.pendingChanges = null;
+			this.segment = rebuilt;
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		log.info("*** ProductSearchIndex; index rebuilt with {} products and {} terms *", 
+				rebuilt.productTerms.size(), rebuilt.postings.size());
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(final ProductChangedEvent event) {
+		this.lock.writeLock().lock();
+		try {
+			if (this.pendingChanges != null)
+				this.pendingChanges.add(event);
+			this.segment.apply(event);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Category titles are denormalized into the index, so a renamed or removed category
+	 * reindexes the catalog; category writes are rare compared to product writes.
+	 * The reindex reads the primary, a replica may not have the change yet.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void onCategoryChanged(final CategoryChangedEvent event) {
+		this.rebuild();
+	}
+	
+	/**
+	 * @return ids of the products matching every query token, best match first
+	 */
+	public List<Integer> search(final String query, final int limit) {
+		
+		final var terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+		if (terms.isEmpty() || limit <= 0)
+			return List.of();
+		
+		this.lock.readLock().lock();
+		try {
+			final var postingLists = new ArrayList<PostingList>(terms.size());
+			for (final var term : terms) {
+				final var postingList = this.segment.postings.get(term);
+				if (postingList == null)
+					return List.of();
+				postingLists.add(postingList);
+			}
+			postingLists.sort(Comparator.comparingInt(PostingList::size));
+			
+			final int productCount = this.segment.productTerms.size();
+			final var idfs = new float[postingLists.size()];
+			for (int i = 0; i < idfs.length; i++)
+				idfs[i] = (float) Math.log(1d + (double) productCount / postingLists.get(i).size());
+			
+			final var topHits = new PriorityQueue<ScoredProduct>(limit + 1, ScoredProduct.WORST_FIRST);
+			final var driver = postingLists.get(0);
+			candidates:
+			for (int position = 0; position < driver.size(); position++) {
+				final int productId = driver.productIdAt(position);
+				float score = driver.weightAt(position) * idfs[0];
+				for (int i = 1; i < postingLists.size(); i++) {
+					final float weight = postingLists.get(i).weightOf(productId);
+					if (weight < 0)
+						continue candidates;
+					score += weight * idfs[i];
+				}
+				topHits.offer(new ScoredProduct(productId, score));
+				if (topHits.size() > limit)
+					topHits.poll();
+			}
+			
+			final var productIds = new Integer[topHits.size()];
+			for (int i = productIds.length - 1; i >= 0; i--)
+				productIds[i] = topHits.poll().productId;
+			return Arrays.asList(productIds);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Completes the last token of the query with the most frequent indexed terms
+	 * starting with it, keeping the preceding tokens as typed.
+	 */
+	public List<String> autocomplete(final String query, final int limit) {
+		
+		final var tokens = tokenize(query);
+		if (tokens.isEmpty() || limit <= 0)
+			return List.of();
+		final var prefix = tokens.get(tokens.size() - 1);
+		final var leading = tokens.subList(0, tokens.size() - 1).stream()
+				.map(token -> token + " ")
+				.collect(Collectors.joining());
+		
+		this.lock.readLock().lock();
+		try {
+			return this.segment.completions.complete(prefix, limit).stream()
+					.map(term -> leading + term)
+					.collect(Collectors.toUnmodifiableList());
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.segment.productTerms.size();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+	
+	static List<String> tokenize(final String text) {
+		if (text == null || text.isBlank())
+			return List.of();
+		final var normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+				.replaceAll("")
+				.toLowerCase(Locale.ROOT);
+		return Arrays.stream(TOKEN_SEPARATORS.split(normalized))
+				.filter(token -> !token.isEmpty())
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+	private static final class Segment {
+		
+		private final Map<String, PostingList> postings = new HashMap<>();
+		private final Map<Integer, Set<String>> productTerms = new HashMap<>();
+		private final CompletionTrie completions = new CompletionTrie();
+		
+		private void apply(final ProductChangedEvent event) {
+			if (event.getChangeType() == ChangeType.DELETED)
+				this.remove(event.getProductId());
+			else
+				this.index(event.getProductDto());
+		}
+		
+		private void index(final ProductDto productDto) {
+			
+			this.remove(productDto.getProductId());
+			
+			final Map<String, Float> weights = new HashMap<>();
+			tokenize(productDto.getProductTitle())
+					.forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+			final var skuTokens = tokenize(productDto.getSku());
+			skuTokens.forEach(term -> weights.merge(term, SKU_WEIGHT, Float::sum));
+			if (skuTokens.size() > 1)
+				weights.merge(String.join("", skuTokens), SKU_WEIGHT, Float::sum);
+			if (productDto.getCategoryDto() != null)
+				tokenize(productDto.getCategoryDto().getCategoryTitle())
+						.forEach(term -> weights.merge(term, CATEGORY_WEIGHT, Float::sum));
+			
+			weights.forEach((term, weight) -> {
+				final var postingList = this.postings.computeIfAbsent(term, key -> new PostingList());
+				postingList.put(productDto.getProductId(), weight);
+				this.completions.update(term, postingList.size());
+			});
+			this.productTerms.put(productDto.getProductId(), Set.copyOf(weights.keySet()));
+		}
+		
+		private void remove(final Integer productId) {
+			final var terms = this.productTerms.remove(productId);
+			if (terms == null)
+				return;
+			terms.forEach(term -> {
+				final var postingList = this.postings.get(term);
+				postingList.remove(productId);
+				this.completions.update(term, postingList.size());
+				if (postingList.isEmpty())
+					this.postings.remove(term);
+			});
+		}
+		
+	}
+	
+	private static final class ScoredProduct {
+		
+		private static final Comparator<ScoredProduct> WORST_FIRST = Comparator
+				.comparingDouble((ScoredProduct scoredProduct) -> scoredProduct.score)
+				.thenComparingInt(scoredProduct -> -scoredProduct.productId);
+		
+		private final int productId;
+		private final float score;
+		
+		private ScoredProduct(final int productId, final float score) {
+			this.productId = productId;
+			this.score = score;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,12 @@
+package com.selimhorri.app.service;
+
+import java.time.Instant;
+
+import com.selimhorri.app.dto.CatalogChangeDto;
+import com.selimhorri.app.dto.response.collection.DtoChangeFeedResponse;
+
+public interface CatalogChangeService {
+	
+	DtoChangeFeedResponse<CatalogChangeDto> findChanges(final String after, final Instant since, final int limit);
+	
+}
@@ -3,11 +3,21 @@ package com.selimhorri.app.service;
 import java.util.List;
 
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.CategoryTreeDto;
+import com.selimhorri.app.dto.ResourceVersionDto;
+import com.selimhorri.app.dto.VersionedDto;
 
 public interface CategoryService {
 	
 	List<CategoryDto> findAll();
 	CategoryDto findById(final Integer categoryId);
+	VersionedDto<List<CategoryDto>> findAllWithVersion();
+	VersionedDto<CategoryDto> findByIdWithVersion(final Integer categoryId);
+	ResourceVersionDto findTreeVersion();
+	List<CategoryTreeDto> findTree();
+	List<CategoryDto> findBreadcrumbs(final Integer categoryId);
+	List<CategoryDto> findChildren(final Integer categoryId);
+	List<CategoryDto> findDescendants(final Integer categoryId);
 	CategoryDto save(final CategoryDto categoryDto);
 	CategoryDto update(final CategoryDto categoryDto);
 	CategoryDto update(final Integer categoryId, final CategoryDto categoryDto);
@@ -0,0 +1,12 @@
+package com.selimhorri.app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.selimhorri.app.domain.ProductExportFormat;
+
+public interface ProductExportService {
+	
+	long export(final ProductExportFormat format, final OutputStream outputStream) throws IOException;
+	
+}
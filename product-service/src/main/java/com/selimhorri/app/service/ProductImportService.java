@@ -0,0 +1,12 @@
+package com.selimhorri.app.service;
+
+import java.util.List;
+
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductImportReportDto;
+
+public interface ProductImportService {
+	
+	ProductImportReportDto importProducts(final List<ProductDto> productDtos);
+	
+}
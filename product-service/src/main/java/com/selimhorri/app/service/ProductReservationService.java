@@ -0,0 +1,13 @@
+package com.selimhorri.app.service;
+
+import com.selimhorri.app.dto.ProductReservationDto;
+
+public interface ProductReservationService {
+	
+	ProductReservationDto findById(final String reservationId);
+	ProductReservationDto reserve(final ProductReservationDto productReservationDto);
+	ProductReservationDto confirm(final String reservationId);
+	ProductReservationDto release(final String reservationId);
+	int expireOverdue();
+	
+}
@@ -1,13 +1,26 @@
 package com.selimhorri.app.service;
 
+import java.util.Collection;
 import java.util.List;
 
+import com.selimhorri.app.domain.ProductSortKey;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.VersionedDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
 
 public interface ProductService {
 	
 	List<ProductDto> findAll();
+	DtoPageResponse<ProductDto> findPage(final String after, final int limit, final ProductSortKey sortKey);
+	VersionedDto<DtoPageResponse<ProductDto>> findPageWithVersion(final String after, final int limit, 
+			final ProductSortKey sortKey);
+	DtoPageResponse<ProductDto> findFilteredPage(final String after, final int limit, final ProductFilterDto filter);
 	ProductDto findById(final Integer productId);
+	VersionedDto<ProductDto> findByIdWithVersion(final Integer productId);
+	List<ProductDto> findAllByIds(final Collection<Integer> productIds);
+	List<ProductDto> search(final String query, final int limit);
+	List<String> autocomplete(final String query, final int limit);
 	ProductDto save(final ProductDto productDto);
 	ProductDto update(final ProductDto productDto);
 	ProductDto update(final Integer productId, final ProductDto productDto);
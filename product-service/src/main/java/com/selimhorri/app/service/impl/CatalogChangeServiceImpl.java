@@ -0,0 +1,200 @@
+package com.selimhorri.app.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogTombstone;
+import com.selimhorri.app.dto.CatalogChangeDto;
+import com.selimhorri.app.dto.response.collection.DtoChangeFeedResponse;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+import com.selimhorri.app.helper.CategoryMappingHelper;
+import com.selimhorri.app.helper.CursorHelper;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.service.CatalogChangeService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Merges category, product and tombstone changes into one feed ordered by
+ * (changedAt, source, id). Each source is read by keyset from the same position,
+ * so a page costs three index range scans whatever the catalog size.
+ * <p>
+ * Changes younger than the settle lag are held back: a transaction that stamped
+ * {@code updated_at} before a poll but commits after it would otherwise land behind
+ * the client's cursor and be missed. For the same reason the feed is read from the
+ * primary; replica lag would eat into the settle lag.
+ */
+@Service
+@Slf4j
+public class CatalogChangeServiceImpl implements CatalogChangeService {
+	
+	private static final int CATEGORY_SOURCE = 0;
+	private static final int PRODUCT_SOURCE = 1;
+	private static final int TOMBSTONE_SOURCE = 2;
+	
+	private final ProductRepository productRepository;
+	private final CategoryRepository categoryRepository;
+	private final CatalogTombstoneRepository catalogTombstoneRepository;
+	private final Clock clock;
+	private final Duration settleLag;
+	
+	@Autowired
+	public CatalogChangeServiceImpl(
+			final ProductRepository productRepository,
+			final CategoryRepository categoryRepository,
+			final CatalogTombstoneRepository catalogTombstoneRepository,
+			@Value("${app.change-feed.settle-lag:5s}") final Duration settleLag) {
+		this(productRepository, categoryRepository, catalogTombstoneRepository, Clock.systemUTC(), settleLag);
+	}
+	
+	CatalogChangeServiceImpl(
+			final ProductRepository productRepository,
+			final CategoryRepository categoryRepository,
+			final CatalogTombstoneRepository catalogTombstoneRepository,
+			final Clock clock,
+			final Duration settleLag) {
+		this.productRepository = productRepository;
+		this.categoryRepository = categoryRepository;
+		this.catalogTombstoneRepository = catalogTombstoneRepository;
+		this.clock = clock;
+		this.settleLag = settleLag;
+	}
+	
+	@Override
+	@Transactional
+	public DtoChangeFeedResponse<CatalogChangeDto> findChanges(final String after, final Instant since, final int limit) {
+		
+		log.info("*** CatalogChangeDto Feed, service; fetch catalog changes *");
+		final var position = after != null ? Position.decode(after)
+				: new Position(since != null ? since : Instant.EPOCH, TOMBSTONE_SOURCE, Long.MAX_VALUE);
+		final var until = this.clock.instant().minus(this.settleLag);
+		final var pageRequest = PageRequest.of(0, limit + 1);
+		
+		final var changes = new ArrayList<Change>();
+		this.categoryRepository.findChangedSince(position.changedAt, position.afterIntIdFor(CATEGORY_SOURCE), until, pageRequest)
+				.forEach(category -> changes.add(new Change(category.getUpdatedAt(), CATEGORY_SOURCE, category.getCategoryId(),
+						CatalogChangeDto.builder()
+								.entityType(CatalogEntityType.CATEGORY)
+								.entityId(category.getCategoryId())
+								.changeType(changeType(category.getCreatedAt(), category.getUpdatedAt()))
+								.changedAt(category.getUpdatedAt())
+								.category(CategoryMappingHelper.map(category))
+								.build())));
+		this.productRepository.findChangedSince(position.changedAt, position.afterIntIdFor(PRODUCT_SOURCE), until, pageRequest)
+				.forEach(product -> changes.add(new Change(product.getUpdatedAt(), PRODUCT_SOURCE, product.getProductId(),
+						CatalogChangeDto.builder()
+								.entityType(CatalogEntityType.PRODUCT)
+								.entityId(product.getProductId())
+								.changeType(changeType(product.getCreatedAt(), product.getUpdatedAt()))
+								.changedAt(product.getUpdatedAt())
+								.product(ProductMappingHelper.map(product))
+								.build())));
+		this.catalogTombstoneRepository.findDeletedSince(position.changedAt, position.afterIdFor(TOMBSTONE_SOURCE), until, pageRequest)
+				.forEach(tombstone -> changes.add(new Change(tombstone.getDeletedAt(), TOMBSTONE_SOURCE, tombstone.getTombstoneId(),
+						map(tombstone))));
+		
+		changes.sort(Change.FEED_ORDER);
+		final var hasMore = changes.size() > limit;
+		final var page = hasMore ? changes.subList(0, limit) : changes;
+		final var last = page.isEmpty() ? position : page.get(page.size() - 1).position;
+		
+		return DtoChangeFeedResponse.<CatalogChangeDto>builder()
+				.collection(page.stream()
+						.map(change -> change.changeDto)
+						.collect(Collectors.toUnmodifiableList()))
+				.cursor(last.encode())
+				.hasMore(hasMore)
+				.build();
+	}
+	
+	private static ChangeType changeType(final Instant createdAt, final Instant updatedAt) {
+		return createdAt != null && createdAt.equals(updatedAt) ? ChangeType.CREATED : ChangeType.UPDATED;
+	}
+	
+	private static CatalogChangeDto map(final CatalogTombstone tombstone) {
+		return CatalogChangeDto.builder()
+				.entityType(tombstone.getEntityType())
+				.entityId(tombstone.getEntityId())
+				.changeType(ChangeType.DELETED)
+				.changedAt(tombstone.getDeletedAt())
+				.build();
+	}
+	
+	/**
+	 * Feed position (changedAt, source, id); everything at or before it has been delivered.
+	 */
+	private static final class Position {
+		
+		private final Instant changedAt;
+		private final int source;
+		private final long id;
+		
+		private Position(final Instant changedAt, final int source, final long id) {
+			this.changedAt = changedAt;
+			this.source = source;
+			this.id = id;
+		}
+		
+		private static Position decode(final String cursor) {
+			final var parts = CursorHelper.decode(cursor, 3);
+			try {
+				return new Position(Instant.parse(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+			}
+			catch (NullPointerException | NumberFormatException | DateTimeParseException e) {
+				throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", cursor), e);
+			}
+		}
+		
+		private String encode() {
+			return CursorHelper.encode(this.changedAt, this.source, this.id);
+		}
+		
+		/**
+		 * Rows of a source ordered before this position at {@link #changedAt} are skipped
+		 * entirely, those of the position's own source resume after its id, later sources
+		 * are read in full.
+		 */
+		private long afterIdFor(final int source) {
+			return source < this.source ? Long.MAX_VALUE : source == this.source ? this.id : 0L;
+		}
+		
+		private int afterIntIdFor(final int source) {
+			return (int) Math.min(this.afterIdFor(source), Integer.MAX_VALUE);
+		}
+		
+	}
+	
+	private static final class Change {
+		
+		private static final Comparator<Change> FEED_ORDER = Comparator
+				.comparing((Change change) -> change.position.changedAt)
+				.thenComparingInt(change -> change.position.source)
+				.thenComparingLong(change -> change.position.id);
+		
+		private final Position position;
+		private final CatalogChangeDto changeDto;
+		
+		private Change(final Instant changedAt, final int source, final long id, final CatalogChangeDto changeDto) {
+			this.position = new Position(changedAt, source, id);
+			this.changeDto = changeDto;
+		}
+	
+	}
+	
+}
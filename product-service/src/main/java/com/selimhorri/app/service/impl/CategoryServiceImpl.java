@@ -1,17 +1,33 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimhorri.app.cache.CategoryTree;
+import com.selimhorri.app.cache.CategoryTreeHolder;
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogTombstone;
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.CategoryTreeDto;
+import com.selimhorri.app.dto.ResourceVersionDto;
+import com.selimhorri.app.dto.VersionedDto;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
 import com.selimhorri.app.exception.wrapper.CategoryNotFoundException;
+import com.selimhorri.app.exception.wrapper.InvalidUpdateRequestException;
 import com.selimhorri.app.helper.CategoryMappingHelper;
+import com.selimhorri.app.helper.EntityTagHelper;
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
 import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
 import com.selimhorri.app.service.CategoryService;
+import com.selimhorri.app.version.CatalogVersionTracker;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,11 +39,17 @@ import lombok.extern.slf4j.Slf4j;
 public class CategoryServiceImpl implements CategoryService {
 	
 	private final CategoryRepository categoryRepository;
+	private final CategoryTreeHolder categoryTreeHolder;
+	private final ProductRepository productRepository;
+	private final CatalogTombstoneRepository catalogTombstoneRepository;
+	private final CatalogVersionTracker catalogVersionTracker;
+	private final ApplicationEventPublisher eventPublisher;
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<CategoryDto> findAll() {
 		log.info("*** CategoryDto List, service; fetch all categorys *");
-		return this.categoryRepository.findAll()
+		return this.categoryRepository.findAllRows()
 				.stream()
 					.map(CategoryMappingHelper::map)
 					.distinct()
@@ -35,6 +57,7 @@ public class CategoryServiceImpl implements CategoryService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public CategoryDto findById(final Integer categoryId) {
 		log.info("*** CategoryDto, service; fetch category by id *");
 		return this.categoryRepository.findById(categoryId)
@@ -42,31 +65,147 @@ public class CategoryServiceImpl implements CategoryService {
 				.orElseThrow(() -> new CategoryNotFoundException(String.format("Category with id: %d not found", categoryId)));
 	}
 	
+	@Override
+	@Transactional(readOnly = true)
+	public VersionedDto<List<CategoryDto>> findAllWithVersion() {
+		final var version = this.findVersion();
+		return new VersionedDto<>(version, this.findAll());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public VersionedDto<CategoryDto> findByIdWithVersion(final Integer categoryId) {
+		final var version = this.findVersion();
+		return new VersionedDto<>(version, this.findById(categoryId));
+	}
+	
+	/**
+	 * Categories embed their parent, so every category view is versioned by all categories.
+	 * Read in the same transaction as the body and before it.
+	 */
+	private ResourceVersionDto findVersion() {
+		final var version = this.catalogVersionTracker.find(CatalogEntityType.CATEGORY);
+		return EntityTagHelper.version(version.getUpdatedAt(), "categories", version.getVersion());
+	}
+	
+	/**
+	 * Tree views are served from the in-memory snapshot and versioned by it,
+	 * so their tag always matches the snapshot the body is built from.
+	 */
+	@Override
+	public ResourceVersionDto findTreeVersion() {
+		final var tree = this.categoryTreeHolder.get();
+		return EntityTagHelper.version(tree.getLastModified(), 
+				"categoryTree", tree.size(), tree.getMaxId(), tree.getVersionSum());
+	}
+	
+	@Override
+	public List<CategoryTreeDto> findTree() {
+		log.info("*** CategoryTreeDto List, service; fetch category tree *");
+		return this.categoryTreeHolder.get().getTree();
+	}
+	
+	@Override
+	public List<CategoryDto> findBreadcrumbs(final Integer categoryId) {
+		log.info("*** CategoryDto List, service; fetch category breadcrumbs *");
+		return this.mapNodes(this.requireTree(categoryId).findBreadcrumbs(categoryId));
+	}
+	
+	@Override
+	public List<CategoryDto> findChildren(final Integer categoryId) {
+		log.info("*** CategoryDto List, service; fetch category children *");
+		return this.mapNodes(this.requireTree(categoryId).findChildren(categoryId));
+	}
+	
+	@Override
+	public List<CategoryDto> findDescendants(final Integer categoryId) {
+		log.info("*** CategoryDto List, service; fetch category descendants *");
+		return this.mapNodes(this.requireTree(categoryId).findDescendants(categoryId));
+	}
+	
+	private CategoryTree requireTree(final Integer categoryId) {
+		final var tree = this.categoryTreeHolder.get();
+		tree.findNode(categoryId)
+				.orElseThrow(() -> new CategoryNotFoundException(String.format("Category with id: %d not found", categoryId)));
+		return tree;
+	}
+	
+	private List<CategoryDto> mapNodes(final List<CategoryTree.Node> nodes) {
+		return nodes.stream()
+				.map(CategoryMappingHelper::map)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
 	@Override
 	public CategoryDto save(final CategoryDto categoryDto) {
 		log.info("*** CategoryDto, service; save category *");
-		return CategoryMappingHelper.map(this.categoryRepository
-				.save(CategoryMappingHelper.map(categoryDto)));
+		return this.publish(ChangeType.CREATED, CategoryMappingHelper.map(this.categoryRepository
+				.saveAndFlush(CategoryMappingHelper.map(categoryDto))));
 	}
 	
+	/**
+	 * Updates carry the version the client read, so a stale one fails the optimistic check
+	 * with a conflict instead of overwriting a newer write.
+	 */
 	@Override
 	public CategoryDto update(final CategoryDto categoryDto) {
 		log.info("*** CategoryDto, service; update category *");
-		return CategoryMappingHelper.map(this.categoryRepository
-				.save(CategoryMappingHelper.map(categoryDto)));
+		requireVersion(categoryDto);
+		return this.publish(ChangeType.UPDATED, CategoryMappingHelper.map(this.categoryRepository
+				.saveAndFlush(CategoryMappingHelper.map(categoryDto))));
 	}
 	
 	@Override
 	public CategoryDto update(final Integer categoryId, final CategoryDto categoryDto) {
 		log.info("*** CategoryDto, service; update category with categoryId *");
-		return CategoryMappingHelper.map(this.categoryRepository
-				.save(CategoryMappingHelper.map(this.findById(categoryId))));
+		final var category = CategoryMappingHelper.map(this.findById(categoryId));
+		category.setVersion(requireVersion(categoryDto));
+		return this.publish(ChangeType.UPDATED, CategoryMappingHelper.map(this.categoryRepository
+				.saveAndFlush(category)));
 	}
 	
+	/**
+	 * Deleting a category cascades to its subcategories and their products,
+	 * so every removed row gets a tombstone for the change feed.
+	 */
 	@Override
 	public void deleteById(final Integer categoryId) {
 		log.info("*** Void, service; delete category by id *");
+		final var categoryIds = new ArrayList<Integer>();
+		categoryIds.add(categoryId);
+		this.categoryTreeHolder.get().findDescendants(categoryId)
+				.forEach(node -> categoryIds.add(node.getCategoryId()));
+		final var productIds = this.productRepository.findIdsByCategoryIds(categoryIds);
+		
 		this.categoryRepository.deleteById(categoryId);
+		
+		final var deletedAt = Instant.now();
+		final var tombstones = new ArrayList<CatalogTombstone>(categoryIds.size() + productIds.size());
+		categoryIds.forEach(id -> tombstones.add(tombstone(CatalogEntityType.CATEGORY, id, deletedAt)));
+		productIds.forEach(id -> tombstones.add(tombstone(CatalogEntityType.PRODUCT, id, deletedAt)));
+		this.catalogTombstoneRepository.saveAll(tombstones);
+		this.eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.DELETED, categoryId));
+	}
+	
+	private static CatalogTombstone tombstone(final CatalogEntityType entityType, final Integer entityId, 
+			final Instant deletedAt) {
+		return CatalogTombstone.builder()
+				.entityType(entityType)
+				.entityId(entityId)
+				.deletedAt(deletedAt)
+				.build();
+	}
+	
+	private static long requireVersion(final CategoryDto categoryDto) {
+		if (categoryDto.getVersion() == null)
+			throw new InvalidUpdateRequestException(String.format("Category with id: %d needs the version it was read at", 
+					categoryDto.getCategoryId()));
+		return categoryDto.getVersion();
+	}
+	
+	private CategoryDto publish(final ChangeType changeType, final CategoryDto categoryDto) {
+		this.eventPublisher.publishEvent(new CategoryChangedEvent(changeType, categoryDto.getCategoryId()));
+		return categoryDto;
 	}
 	
 	
@@ -0,0 +1,116 @@
+package com.selimhorri.app.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.selimhorri.app.constant.AppConstant;
+import com.selimhorri.app.domain.ProductExportFormat;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.service.ProductExportService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes the catalog row by row from a forward-only cursor. Rows are read as projections,
+ * so nothing enters the persistence context and heap use stays flat regardless of
+ * catalog size.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductExportServiceImpl implements ProductExportService {
+	
+	private static final String[] CSV_HEADER = {
+		"productId", "productTitle", "imageUrl", "sku", "priceUnit", "quantity", 
+		"categoryId", "categoryTitle"
+	};
+	private static final int FLUSH_INTERVAL = Integer.parseInt(AppConstant.EXPORT_FETCH_SIZE);
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+	
+	private final ProductRepository productRepository;
+	private final ObjectMapper objectMapper;
+	
+	@Override
+	@Transactional(readOnly = true)
+	public long export(final ProductExportFormat format, final OutputStream outputStream) throws IOException {
+		
+		log.info("*** long, service; export products as {} *", format);
+		final var jsonWriter = this.objectMapper.writerFor(ProductDto.class)
+				.without(SerializationFeature.INDENT_OUTPUT);
+		final var writer = new BufferedWriter(
+				new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+		
+		if (format == ProductExportFormat.CSV)
+			writeCsvRow(writer, (Object[]) CSV_HEADER);
+		
+		long exported = 0;
+		try (final var products = this.productRepository.streamAll()) {
+			final var iterator = products.iterator();
+			while (iterator.hasNext()) {
+				final var productDto = ProductMappingHelper.map(iterator.next());
+				
+				if (format == ProductExportFormat.CSV)
+					writeCsv(writer, productDto);
+				else
+					writeNdjson(writer, jsonWriter, productDto);
+				
+				if (++exported % FLUSH_INTERVAL == 0)
+					writer.flush();
+			}
+		}
+		writer.flush();
+		
+		log.info("*** long, service; exported {} products *", exported);
+		return exported;
+	}
+	
+	private static void writeNdjson(final Writer writer, final ObjectWriter jsonWriter, 
+			final ProductDto productDto) throws IOException {
+		writer.write(jsonWriter.writeValueAsString(productDto));
+		writer.write('\n');
+	}
+	
+	private static void writeCsv(final Writer writer, final ProductDto productDto) throws IOException {
+		final var categoryDto = productDto.getCategoryDto();
+		writeCsvRow(writer, 
+				productDto.getProductId(), 
+				productDto.getProductTitle(), 
+				productDto.getImageUrl(), 
+				productDto.getSku(), 
+				productDto.getPriceUnit(), 
+				productDto.getQuantity(), 
+				categoryDto != null ? categoryDto.getCategoryId() : null, 
+				categoryDto != null ? categoryDto.getCategoryTitle() : null);
+	}
+	
+	private static void writeCsvRow(final Writer writer, final Object... values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				writer.write(',');
+			if (values[i] != null)
+				writer.write(escapeCsv(values[i].toString()));
+		}
+		writer.write("\r\n");
+	}
+	
+	static String escapeCsv(final String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 
+				&& value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+			return value;
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+	
+}
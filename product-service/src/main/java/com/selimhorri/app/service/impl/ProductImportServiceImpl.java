@@ -0,0 +1,217 @@
+package com.selimhorri.app.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductImportErrorDto;
+import com.selimhorri.app.dto.ProductImportReportDto;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.exception.wrapper.InvalidImportRequestException;
+import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.service.ProductImportService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports products in chunks, each committed in its own transaction. Ids come from the
+ * pooled table allocator on {@link Product}, so Hibernate can group the inserts of a
+ * chunk into JDBC batches. Rows are validated up front; a chunk rejected by the database
+ * is retried row by row so the failure is reported against the offending row only.
+ */
+@Service
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+	
+	private final ProductRepository productRepository;
+	private final CategoryRepository categoryRepository;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int chunkSize;
+	private final int maxRows;
+	
+	public ProductImportServiceImpl(
+			final ProductRepository productRepository,
+			final CategoryRepository categoryRepository,
+			final EntityManager entityManager,
+			final TransactionTemplate transactionTemplate,
+			final ApplicationEventPublisher eventPublisher,
+			@Value("${app.import.chunk-size:1000}") final int chunkSize,
+			@Value("${app.import.max-rows:50000}") final int maxRows) {
+		this.productRepository = productRepository;
+		this.categoryRepository = categoryRepository;
+		this.entityManager = entityManager;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+		this.chunkSize = chunkSize;
+		this.maxRows = maxRows;
+	}
+	
+	@Override
+	public ProductImportReportDto importProducts(final List<ProductDto> productDtos) {
+		
+		log.info("*** ProductImportReportDto, service; import {} products *", productDtos.size());
+		if (productDtos.size() > this.maxRows)
+			throw new InvalidImportRequestException(String.format("Import of %d products exceeds the limit of %d rows",
+					productDtos.size(), this.maxRows));
+		
+		final var categories = this.categoryRepository.findAllById(productDtos.stream()
+				.filter(Objects::nonNull)
+				.map(ProductDto::getCategoryDto)
+				.filter(Objects::nonNull)
+				.map(categoryDto -> categoryDto.getCategoryId())
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet()))
+			.stream()
+				.collect(Collectors.toMap(Category::getCategoryId, Function.identity()));
+		
+		final var errors = new ArrayList<ProductImportErrorDto>();
+		final var skus = new HashSet<String>();
+		final var rows = new ArrayList<ImportRow>(productDtos.size());
+		for (int i = 0; i < productDtos.size(); i++) {
+			final var productDto = productDtos.get(i);
+			final var message = validate(productDto, categories, skus);
+			if (message != null)
+				errors.add(error(i, productDto, message));
+			else
+				rows.add(new ImportRow(i, productDto));
+		}
+		
+		int imported = 0;
+		for (int from = 0; from < rows.size(); from += this.chunkSize)
+			imported += this.importChunk(rows.subList(from, Math.min(from + this.chunkSize, rows.size())),
+					categories, errors);
+		
+		errors.sort(Comparator.comparing(ProductImportErrorDto::getRow));
+		log.info("*** ProductImportReportDto, service; imported {} products, {} rows failed *", imported, errors.size());
+		return ProductImportReportDto.builder()
+				.received(productDtos.size())
+				.imported(imported)
+				.failed(errors.size())
+				.errors(errors)
+				.build();
+	}
+	
+	private int importChunk(final List<ImportRow> rows, final Map<Integer, Category> categories,
+			final List<ProductImportErrorDto> errors) {
+		
+		final var chunkErrors = new ArrayList<ProductImportErrorDto>();
+		try {
+			final int imported = this.transactionTemplate.execute(status -> this.persist(rows, categories, chunkErrors));
+			errors.addAll(chunkErrors);
+			return imported;
+		}
+		catch (DataAccessException | PersistenceException | TransactionException e) {
+			if (rows.size() == 1) {
+				errors.add(error(rows.get(0).index, rows.get(0).productDto,
+						NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+				return 0;
+			}
+			log.warn("*** ProductImportReportDto, service; chunk of {} rows rejected, retrying row by row: {} *",
+					rows.size(), e.getMessage());
+			return rows.stream()
+					.mapToInt(row -> this.importChunk(List.of(row), categories, errors))
+					.sum();
+		}
+	}
+	
+	private int persist(final List<ImportRow> rows, final Map<Integer, Category> categories,
+			final List<ProductImportErrorDto> chunkErrors) {
+		
+		final var existingSkus = this.productRepository.findExistingSkus(rows.stream()
+				.map(row -> row.productDto.getSku())
+				.collect(Collectors.toUnmodifiableList()));
+		
+		final var products = new ArrayList<Product>(rows.size());
+		for (final var row : rows) {
+			final var productDto = row.productDto;
+			if (existingSkus.contains(productDto.getSku())) {
+				chunkErrors.add(error(row.index, productDto, "sku already exists"));
+				continue;
+			}
+			final var product = Product.builder()
+					.productTitle(productDto.getProductTitle())
+					.imageUrl(productDto.getImageUrl())
+					.sku(productDto.getSku())
+					.priceUnit(productDto.getPriceUnit())
+					.quantity(productDto.getQuantity())
+					.category(categories.get(productDto.getCategoryDto().getCategoryId()))
+					.build();
+			this.entityManager.persist(product);
+			products.add(product);
+		}
+		this.entityManager.flush();
+		this.entityManager.clear();
+		
+		products.forEach(product -> this.eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.CREATED,
+				product.getProductId(), ProductMappingHelper.map(product))));
+		return products.size();
+	}
+	
+	private static String validate(final ProductDto productDto, final Map<Integer, Category> categories,
+			final HashSet<String> skus) {
+		if (productDto == null)
+			return "row must not be null";
+		if (productDto.getProductId() != null)
+			return "productId must not be set, import only creates products";
+		if (productDto.getProductTitle() == null || productDto.getProductTitle().isBlank())
+			return "productTitle must not be blank";
+		if (productDto.getSku() == null || productDto.getSku().isBlank())
+			return "sku must not be blank";
+		if (productDto.getPriceUnit() == null || productDto.getPriceUnit() < 0)
+			return "priceUnit must be zero or positive";
+		if (productDto.getQuantity() == null || productDto.getQuantity() < 0)
+			return "quantity must be zero or positive";
+		if (productDto.getCategoryDto() == null || productDto.getCategoryDto().getCategoryId() == null)
+			return "category must not be empty";
+		if (!categories.containsKey(productDto.getCategoryDto().getCategoryId()))
+			return String.format("Category with id: %d not found", productDto.getCategoryDto().getCategoryId());
+		if (!skus.add(productDto.getSku()))
+			return "sku is duplicated in this import";
+		return null;
+	}
+	
+	private static ProductImportErrorDto error(final int index, final ProductDto productDto, final String message) {
+		return ProductImportErrorDto.builder()
+				.row(index)
+				.sku(productDto != null ? productDto.getSku() : null)
+				.message(message)
+				.build();
+	}
+	
+	private static final class ImportRow {
+		
+		private final int index;
+		private final ProductDto productDto;
+		
+		private ImportRow(final int index, final ProductDto productDto) {
+			this.index = index;
+			this.productDto = productDto;
+		}
+	
+	}
+	
+}
@@ -0,0 +1,252 @@
+package com.selimhorri.app.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.selimhorri.app.domain.ProductReservation;
+import com.selimhorri.app.domain.ReservationStatus;
+import com.selimhorri.app.dto.ProductReservationDto;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.exception.wrapper.InsufficientStockException;
+import com.selimhorri.app.exception.wrapper.InvalidReservationRequestException;
+import com.selimhorri.app.exception.wrapper.ProductNotFoundException;
+import com.selimhorri.app.exception.wrapper.ReservationNotFoundException;
+import com.selimhorri.app.exception.wrapper.ReservationStateException;
+import com.selimhorri.app.helper.ProductReservationMappingHelper;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.repository.ProductReservationRepository;
+import com.selimhorri.app.service.ProductReservationService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stock is taken when a reservation is made and given back when it is released or expires;
+ * confirming only closes the reservation. Every quantity change is a single conditional
+ * UPDATE instead of a read-modify-write of the product, and its transaction only records
+ * the reservation and reads the new stock level back by key before committing, so the
+ * row lock on a hot product is held briefly.
+ * <p>
+ * During flash sales most requests for a hot product fail once it sells out. The smallest
+ * quantity that could not be reserved is remembered briefly per product so those requests
+ * are rejected without queueing on the row lock; the hint is dropped as soon as stock is
+ * returned or the product is updated.
+ */
+@Service
+@Slf4j
+public class ProductReservationServiceImpl implements ProductReservationService {
+	
+	private final ProductRepository productRepository;
+	private final ProductReservationRepository productReservationRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Clock clock;
+	private final Duration defaultTtl;
+	private final Duration maxTtl;
+	private final int sweepBatchSize;
+	private final Cache<Integer, Integer> shortfallHints;
+	
+	@Autowired
+	public ProductReservationServiceImpl(
+			final ProductRepository productRepository,
+			final ProductReservationRepository productReservationRepository,
+			final TransactionTemplate transactionTemplate,
+			final ApplicationEventPublisher eventPublisher,
+			@Value("${app.reservation.default-ttl:15m}") final Duration defaultTtl,
+			@Value("${app.reservation.max-ttl:1h}") final Duration maxTtl,
+			@Value("${app.reservation.sweep-batch-size:500}") final int sweepBatchSize,
+			@Value("${app.reservation.shortfall-hint-ttl:1s}") final Duration shortfallHintTtl) {
+		this(productRepository, productReservationRepository, transactionTemplate, eventPublisher,
+				Clock.systemUTC(), defaultTtl, maxTtl, sweepBatchSize, shortfallHintTtl);
+	}
+	
+	ProductReservationServiceImpl(
+			final ProductRepository productRepository,
+			final ProductReservationRepository productReservationRepository,
+			final TransactionTemplate transactionTemplate,
+			final ApplicationEventPublisher eventPublisher,
+			final Clock clock,
+			final Duration defaultTtl,
+			final Duration maxTtl,
+			final int sweepBatchSize,
+			final Duration shortfallHintTtl) {
+		this.productRepository = productRepository;
+		this.productReservationRepository = productReservationRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+		this.clock = clock;
+		this.defaultTtl = defaultTtl;
+		this.maxTtl = maxTtl;
+		this.sweepBatchSize = sweepBatchSize;
+		this.shortfallHints = Caffeine.newBuilder()
+				.expireAfterWrite(shortfallHintTtl)
+				.build();
+	}
+	
+	/**
+	 * Not read-only, so a reservation is found on the primary right after it was made.
+	 */
+	@Override
+	@Transactional
+	public ProductReservationDto findById(final String reservationId) {
+		log.info("*** ProductReservationDto, service; fetch reservation by id *");
+		return ProductReservationMappingHelper.map(this.findReservation(reservationId));
+	}
+	
+	@Override
+	@Transactional
+	public ProductReservationDto reserve(final ProductReservationDto productReservationDto) {
+		
+		log.info("*** ProductReservationDto, service; reserve product *");
+		final var productId = productReservationDto.getProductId();
+		final var quantity = productReservationDto.getQuantity();
+		if (productId == null || quantity == null || quantity <= 0)
+			throw new InvalidReservationRequestException("Reservation needs a productId and a positive quantity");
+		final var ttl = this.resolveTtl(productReservationDto.getTtlSeconds());
+		
+		final var shortfall = this.shortfallHints.getIfPresent(productId);
+		if (shortfall != null && quantity >= shortfall)
+			throw insufficientStock(productId, quantity);
+		
+		if (this.productRepository.decrementQuantityIfAvailable(productId, quantity, this.clock.instant()) == 0) {
+			if (!this.productRepository.existsById(productId))
+				throw new ProductNotFoundException(String.format("Product with id: %d not found", productId));
+			this.shortfallHints.asMap().merge(productId, quantity, Math::min);
+			throw insufficientStock(productId, quantity);
+		}
+		final var productReservation = this.productReservationRepository.save(ProductReservation.builder()
+				.productId(productId)
+				.quantity(quantity)
+				.status(ReservationStatus.RESERVED)
+				.expiresAt(this.clock.instant().plus(ttl))
+				.build());
+		this.eventPublisher.publishEvent(new ProductStockChangedEvent(
+				this.productRepository.findStockByProductIdIn(Set.of(productId)), false));
+		return ProductReservationMappingHelper.map(productReservation);
+	}
+	
+	@Override
+	@Transactional
+	public ProductReservationDto confirm(final String reservationId) {
+		log.info("*** ProductReservationDto, service; confirm reservation *");
+		final var now = this.clock.instant();
+		if (this.productReservationRepository.transitionIfActive(reservationId,
+				ReservationStatus.RESERVED, ReservationStatus.CONFIRMED, now) == 1)
+			return ProductReservationMappingHelper.map(this.findReservation(reservationId));
+		
+		final var productReservation = this.findReservation(reservationId);
+		if (productReservation.getStatus() == ReservationStatus.CONFIRMED)
+			return ProductReservationMappingHelper.map(productReservation);
+		throw new ReservationStateException(String.format("Reservation with id: %s is %s and can not be confirmed",
+				reservationId, productReservation.getStatus() == ReservationStatus.RESERVED
+						? ReservationStatus.EXPIRED : productReservation.getStatus()));
+	}
+	
+	@Override
+	@Transactional
+	public ProductReservationDto release(final String reservationId) {
+		log.info("*** ProductReservationDto, service; release reservation *");
+		final var now = this.clock.instant();
+		if (this.productReservationRepository.transition(reservationId,
+				ReservationStatus.RESERVED, ReservationStatus.RELEASED, now) == 1) {
+			final var productReservation = this.findReservation(reservationId);
+			this.productRepository.incrementQuantity(productReservation.getProductId(), productReservation.getQuantity(), now);
+			this.eventPublisher.publishEvent(new ProductStockChangedEvent(
+					this.productRepository.findStockByProductIdIn(Set.of(productReservation.getProductId())), true));
+			return ProductReservationMappingHelper.map(productReservation);
+		}
+		
+		final var productReservation = this.findReservation(reservationId);
+		if (productReservation.getStatus() == ReservationStatus.CONFIRMED)
+			throw new ReservationStateException(String.format("Reservation with id: %s is CONFIRMED and can not be released",
+					reservationId));
+		return ProductReservationMappingHelper.map(productReservation);
+	}
+	
+	/**
+	 * Expires overdue reservations in batches, each in its own short transaction. Rows are
+	 * locked while they are expired so a concurrent release or another instance's sweep can
+	 * not return the same stock twice, and quantities are given back once per product.
+	 */
+	@Override
+	public int expireOverdue() {
+		int expired = 0;
+		int batch;
+		do {
+			batch = this.transactionTemplate.execute(status -> this.expireBatch());
+			expired += batch;
+		}
+		while (batch == this.sweepBatchSize);
+		if (expired > 0)
+			log.info("*** Integer, service; expired {} reservations *", expired);
+		return expired;
+	}
+	
+	private int expireBatch() {
+		
+		final var now = this.clock.instant();
+		final List<ProductReservation> productReservations = this.productReservationRepository
+				.findExpiredForUpdate(now, PageRequest.of(0, this.sweepBatchSize));
+		if (productReservations.isEmpty())
+			return 0;
+		
+		final var returnedQuantities = new TreeMap<Integer, Integer>();
+		productReservations.forEach(productReservation -> {
+			productReservation.setStatus(ReservationStatus.EXPIRED);
+			productReservation.setUpdatedAt(now);
+			returnedQuantities.merge(productReservation.getProductId(), productReservation.getQuantity(), Integer::sum);
+		});
+		this.productReservationRepository.flush();
+		returnedQuantities.forEach((productId, quantity) -> this.productRepository.incrementQuantity(productId, quantity, now));
+		
+		this.eventPublisher.publishEvent(new ProductStockChangedEvent(
+				this.productRepository.findStockByProductIdIn(returnedQuantities.keySet()), true));
+		return productReservations.size();
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductStockChanged(final ProductStockChangedEvent event) {
+		if (event.isStockReturned())
+			this.shortfallHints.invalidateAll(event.getProductIds());
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(final ProductChangedEvent event) {
+		this.shortfallHints.invalidate(event.getProductId());
+	}
+	
+	private ProductReservation findReservation(final String reservationId) {
+		return this.productReservationRepository.findById(reservationId)
+				.orElseThrow(() -> new ReservationNotFoundException(String
+						.format("Reservation with id: %s not found", reservationId)));
+	}
+	
+	private Duration resolveTtl(final Long ttlSeconds) {
+		if (ttlSeconds == null)
+			return this.defaultTtl;
+		if (ttlSeconds <= 0 || ttlSeconds > this.maxTtl.getSeconds())
+			throw new InvalidReservationRequestException(String.format("ttlSeconds must be between 1 and %d",
+					this.maxTtl.getSeconds()));
+		return Duration.ofSeconds(ttlSeconds);
+	}
+	
+	private static InsufficientStockException insufficientStock(final Integer productId, final int quantity) {
+		return new InsufficientStockException(String.format("Product with id: %d has less than %d items available",
+				productId, quantity));
+	}
+	
+}
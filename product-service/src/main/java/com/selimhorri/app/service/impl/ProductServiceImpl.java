@@ -1,17 +1,47 @@
 package com.selimhorri.app.service.impl;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
-import javax.transaction.Transactional;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.selimhorri.app.cache.ProductCache;
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogTombstone;
+import com.selimhorri.app.domain.ProductSortKey;
+import com.selimhorri.app.dto.CategoryDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.ResourceVersionDto;
+import com.selimhorri.app.dto.VersionedDto;
+import com.selimhorri.app.dto.projection.ProductRowProjection;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.exception.wrapper.InvalidPageRequestException;
+import com.selimhorri.app.exception.wrapper.InvalidUpdateRequestException;
 import com.selimhorri.app.exception.wrapper.ProductNotFoundException;
+import com.selimhorri.app.helper.CursorHelper;
+import com.selimhorri.app.helper.EntityTagHelper;
 import com.selimhorri.app.helper.ProductMappingHelper;
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
 import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.repository.ProductReservationRepository;
+import com.selimhorri.app.search.ProductFacetIndex;
+import com.selimhorri.app.search.ProductSearchIndex;
 import com.selimhorri.app.service.ProductService;
+import com.selimhorri.app.version.CatalogVersionTracker;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,52 +52,257 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 	
+	private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+	
 	private final ProductRepository productRepository;
+	private final ProductReservationRepository productReservationRepository;
+	private final CatalogTombstoneRepository catalogTombstoneRepository;
+	private final ProductCache productCache;
+	private final ProductSearchIndex productSearchIndex;
+	private final ProductFacetIndex productFacetIndex;
+	private final CatalogVersionTracker catalogVersionTracker;
+	private final ApplicationEventPublisher eventPublisher;
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<ProductDto> findAll() {
 		log.info("*** ProductDto List, service; fetch all products *");
-		return this.productRepository.findAll()
+		return this.productRepository.findAllRows()
 				.stream()
 					.map(ProductMappingHelper::map)
 					.distinct()
 					.collect(Collectors.toUnmodifiableList());
 	}
 	
+	@Override
+	@Transactional(readOnly = true)
+	public DtoPageResponse<ProductDto> findPage(final String after, final int limit, final ProductSortKey sortKey) {
+		log.info("*** ProductDto Page, service; fetch products page *");
+		final var products = this.findPageRows(after, PageRequest.of(0, limit + 1), sortKey);
+		final var hasNext = products.size() > limit;
+		final var pageRows = hasNext ? products.subList(0, limit) : products;
+		return DtoPageResponse.<ProductDto>builder()
+				.collection(pageRows.stream()
+						.map(ProductMappingHelper::map)
+						.collect(Collectors.toUnmodifiableList()))
+				.nextCursor(hasNext ? this.encodeCursor(pageRows.get(limit - 1), sortKey) : null)
+				.build();
+	}
+	
+	/**
+	 * Matches and facet counts come from the facet index; only the page itself is read
+	 * from the database. Filtered pages are ordered by product id.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public DtoPageResponse<ProductDto> findFilteredPage(final String after, final int limit, final ProductFilterDto filter) {
+		
+		log.info("*** ProductDto Page, service; fetch filtered products page *");
+		if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice())
+			throw new InvalidPageRequestException(String.format("minPrice: %s must not exceed maxPrice: %s", 
+					filter.getMinPrice(), filter.getMaxPrice()));
+		var afterId = 0;
+		if (after != null) {
+			final var cursor = CursorHelper.decode(after, 3);
+			if (!ProductSortKey.PRODUCT_ID.name().equals(cursor[0]))
+				throw new InvalidPageRequestException(String.format("Cursor: %s does not match sort key: %s", 
+						after, ProductSortKey.PRODUCT_ID.getKey()));
+			try {
+				afterId = Integer.parseInt(cursor[1]);
+			}
+			catch (NumberFormatException e) {
+				throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", after), e);
+			}
+		}
+		
+		final var result = this.productFacetIndex.query(filter, afterId, limit + 1);
+		final var hasNext = result.getProductIds().size() > limit;
+		final var pageIds = hasNext ? result.getProductIds().subList(0, limit) : result.getProductIds();
+		return DtoPageResponse.<ProductDto>builder()
+				.collection(this.findAllByIds(pageIds))
+				.nextCursor(hasNext ? CursorHelper.encode(ProductSortKey.PRODUCT_ID.name(), pageIds.get(limit - 1), null) : null)
+				.total(result.getTotal())
+				.facets(result.getFacets())
+				.build();
+	}
+	
+	private List<ProductRowProjection> findPageRows(final String after, final PageRequest pageRequest, final ProductSortKey sortKey) {
+		
+		if (after == null)
+			switch (sortKey) {
+				case PRODUCT_TITLE:
+					return this.productRepository.findFirstPageOrderByProductTitle(pageRequest);
+				case PRICE_UNIT:
+					return this.productRepository.findFirstPageOrderByPriceUnit(pageRequest);
+				default:
+					return this.productRepository.findPageOrderByProductId(0, pageRequest);
+			}
+		
+		final var cursor = CursorHelper.decode(after, 3);
+		if (!sortKey.name().equals(cursor[0]))
+			throw new InvalidPageRequestException(String.format("Cursor: %s does not match sort key: %s", after, sortKey.getKey()));
+		try {
+			final var afterId = Integer.parseInt(cursor[1]);
+			final var afterValue = cursor[2];
+			switch (sortKey) {
+				case PRODUCT_TITLE:
+					return afterValue == null 
+							? this.productRepository.findPageOrderByProductTitleAfterNull(afterId, pageRequest) 
+							: this.productRepository.findPageOrderByProductTitle(afterValue, afterId, pageRequest);
+				case PRICE_UNIT:
+					return afterValue == null 
+							? this.productRepository.findPageOrderByPriceUnitAfterNull(afterId, pageRequest) 
+							: this.productRepository.findPageOrderByPriceUnit(Double.valueOf(afterValue), afterId, pageRequest);
+				default:
+					return this.productRepository.findPageOrderByProductId(afterId, pageRequest);
+			}
+		}
+		catch (NumberFormatException e) {
+			throw new InvalidPageRequestException(String.format("Cursor: %s is malformed", after), e);
+		}
+	}
+	
+	private String encodeCursor(final ProductRowProjection product, final ProductSortKey sortKey) {
+		switch (sortKey) {
+			case PRODUCT_TITLE:
+				return CursorHelper.encode(sortKey.name(), product.getProductId(), product.getProductTitle());
+			case PRICE_UNIT:
+				return CursorHelper.encode(sortKey.name(), product.getProductId(), product.getPriceUnit());
+			default:
+				return CursorHelper.encode(sortKey.name(), product.getProductId(), null);
+		}
+	}
+	
+	/**
+	 * Stays on the primary: misses mostly follow the eviction of a just-written product,
+	 * and a trailing replica would put the old row back in the cache.
+	 */
 	@Override
 	public ProductDto findById(final Integer productId) {
 		log.info("*** ProductDto, service; fetch product by id *");
-		return this.productRepository.findById(productId)
+		return this.productCache.get(productId, id -> this.productRepository.findById(id)
 				.map(ProductMappingHelper::map)
-				.orElseThrow(() -> new ProductNotFoundException(String.format("Product with id: %d not found", productId)));
+				.orElseThrow(() -> new ProductNotFoundException(String.format("Product with id: %d not found", id))));
+	}
+	
+	/**
+	 * Tagged with the versions the cached product and its category were read at, so the
+	 * tag always describes the body it is sent with.
+	 */
+	@Override
+	public VersionedDto<ProductDto> findByIdWithVersion(final Integer productId) {
+		final var productDto = this.findById(productId);
+		final var categoryDto = Optional.ofNullable(productDto.getCategoryDto()).orElseGet(CategoryDto::new);
+		return new VersionedDto<>(EntityTagHelper.version(EntityTagHelper.latest(productDto.getUpdatedAt(), 
+				categoryDto.getUpdatedAt()), "product", productDto.getVersion(), categoryDto.getVersion()), productDto);
+	}
+	
+	/**
+	 * The version is read first and in the same transaction as the page, so both come from
+	 * one connection and a replica can not pair a newer tag with an older page.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public VersionedDto<DtoPageResponse<ProductDto>> findPageWithVersion(final String after, final int limit, 
+			final ProductSortKey sortKey) {
+		final var version = this.findVersion();
+		return new VersionedDto<>(version, this.findPage(after, limit, sortKey));
+	}
+	
+	/**
+	 * Product listings embed each product's category, so their version covers both parts of the catalog.
+	 */
+	private ResourceVersionDto findVersion() {
+		final var products = this.catalogVersionTracker.find(CatalogEntityType.PRODUCT);
+		final var categories = this.catalogVersionTracker.find(CatalogEntityType.CATEGORY);
+		return EntityTagHelper.version(EntityTagHelper.latest(products.getUpdatedAt(), categories.getUpdatedAt()), 
+				"products", products.getVersion(), categories.getVersion());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ProductDto> findAllByIds(final Collection<Integer> productIds) {
+		log.info("*** ProductDto List, service; fetch all products by ids *");
+		final var distinctIds = new ArrayList<>(productIds.stream()
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedHashSet::new)));
+		final Map<Integer, ProductDto> productDtos = new HashMap<>(distinctIds.size());
+		for (int from = 0; from < distinctIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+			this.productRepository.findAllByProductIdIn(distinctIds
+					.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.size())))
+				.forEach(p -> productDtos.put(p.getProductId(), ProductMappingHelper.map(p)));
+		}
+		return distinctIds.stream()
+				.map(productDtos::get)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<ProductDto> search(final String query, final int limit) {
+		log.info("*** ProductDto List, service; search products *");
+		return this.findAllByIds(this.productSearchIndex.search(query, limit));
+	}
+	
+	@Override
+	public List<String> autocomplete(final String query, final int limit) {
+		log.info("*** String List, service; autocomplete product search *");
+		return this.productSearchIndex.autocomplete(query, limit);
 	}
 	
 	@Override
 	public ProductDto save(final ProductDto productDto) {
 		log.info("*** ProductDto, service; save product *");
-		return ProductMappingHelper.map(this.productRepository
-				.save(ProductMappingHelper.map(productDto)));
+		return this.publish(ChangeType.CREATED, ProductMappingHelper.map(this.productRepository
+				.saveAndFlush(ProductMappingHelper.map(productDto))));
 	}
 	
+	/**
+	 * Updates carry the version the client read, so a stale one fails the optimistic check
+	 * with a conflict instead of overwriting a newer write.
+	 */
 	@Override
 	public ProductDto update(final ProductDto productDto) {
 		log.info("*** ProductDto, service; update product *");
-		return ProductMappingHelper.map(this.productRepository
-				.save(ProductMappingHelper.map(productDto)));
+		requireVersion(productDto);
+		return this.publish(ChangeType.UPDATED, ProductMappingHelper.map(this.productRepository
+				.saveAndFlush(ProductMappingHelper.map(productDto))));
 	}
 	
 	@Override
 	public ProductDto update(final Integer productId, final ProductDto productDto) {
 		log.info("*** ProductDto, service; update product with productId *");
-		return ProductMappingHelper.map(this.productRepository
-				.save(ProductMappingHelper.map(this.findById(productId))));
+		final var product = ProductMappingHelper.map(this.findById(productId));
+		product.setVersion(requireVersion(productDto));
+		return this.publish(ChangeType.UPDATED, ProductMappingHelper.map(this.productRepository
+				.saveAndFlush(product)));
 	}
 	
 	@Override
 	public void deleteById(final Integer productId) {
 		log.info("*** Void, service; delete product by id *");
-		this.productRepository.delete(ProductMappingHelper
-				.map(this.findById(productId)));
+		this.productReservationRepository.deleteByProductId(productId);
+		this.productRepository.delete(this.productRepository.findById(productId)
+				.orElseThrow(() -> new ProductNotFoundException(String.format("Product with id: %d not found", productId))));
+		this.catalogTombstoneRepository.save(CatalogTombstone.builder()
+				.entityType(CatalogEntityType.PRODUCT)
+				.entityId(productId)
+				.deletedAt(Instant.now())
+				.build());
+		this.eventPublisher.publishEvent(new ProductChangedEvent(ChangeType.DELETED, productId, null));
+	}
+	
+	private static long requireVersion(final ProductDto productDto) {
+		if (productDto.getVersion() == null)
+			throw new InvalidUpdateRequestException(String.format("Product with id: %d needs the version it was read at", 
+					productDto.getProductId()));
+		return productDto.getVersion();
+	}
+	
+	private ProductDto publish(final ChangeType changeType, final ProductDto productDto) {
+		this.eventPublisher.publishEvent(new ProductChangedEvent(changeType, productDto.getProductId(), productDto));
+		return productDto;
 	}
 	
 	
@@ -0,0 +1,132 @@
+package com.selimhorri.app.version;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogVersion;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.repository.CatalogVersionRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a version row per part of the catalog in {@code catalog_versions}, bumped by every
+ * transaction writing products or categories, so listings are tagged from a primary key
+ * read instead of aggregating the tables they list.
+ * <p>
+ * The bump is deferred to just before the writer commits and done once per transaction and
+ * part, so the row lock all writers share is held only for the commit. Parts are bumped in
+ * a fixed order, two writers of both parts can not deadlock on them.
+ */
+@Component
+@Slf4j
+public class CatalogVersionTracker {
+	
+	private final CatalogVersionRepository catalogVersionRepository;
+	private final TransactionTemplate transactionTemplate;
+	
+	public CatalogVersionTracker(final CatalogVersionRepository catalogVersionRepository, 
+			final TransactionTemplate transactionTemplate) {
+		this.catalogVersionRepository = catalogVersionRepository;
+		this.transactionTemplate = transactionTemplate;
+	}
+	
+	/**
+	 * Creates missing version rows; of two instances creating one at once, the second fails
+	 * on the key and keeps the first one's row.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		for (final var entityType : CatalogEntityType.values()) {
+			if (this.catalogVersionRepository.existsById(entityType))
+				continue;
+			try {
+				this.transactionTemplate.executeWithoutResult(status -> this.catalogVersionRepository.save(CatalogVersion.builder()
+						.entityType(entityType)
+						.version(0L)
+						.updatedAt(Instant.now())
+						.build()));
+				log.info("*** CatalogVersionTracker; created version row for: {} *", entityType);
+			}
+			catch (DataIntegrityViolationException e) {
+				log.debug("*** CatalogVersionTracker; version row for: {} created by another instance *", entityType);
+			}
+		}
+	}
+	
+	/**
+	 * @return the current version of the given part, read in the caller's transaction
+	 */
+	public CatalogVersion find(final CatalogEntityType entityType) {
+		return this.catalogVersionRepository.findById(entityType)
+				.orElseGet(() -> CatalogVersion.builder()
+						.entityType(entityType)
+						.build());
+	}
+	
+	@EventListener
+	public void onProductChanged(final ProductChangedEvent event) {
+		this.touch(CatalogEntityType.PRODUCT);
+	}
+	
+	@EventListener
+	public void onProductStockChanged(final ProductStockChangedEvent event) {
+		this.touch(CatalogEntityType.PRODUCT);
+	}
+	
+	/**
+	 * Deleting a category deletes its products without product events.
+	 */
+	@EventListener
+	public void onCategoryChanged(final CategoryChangedEvent event) {
+		this.touch(CatalogEntityType.CATEGORY);
+		if (event.getChangeType() == ChangeType.DELETED)
+			this.touch(CatalogEntityType.PRODUCT);
+	}
+	
+	/**
+	 * Bumps the given part when the surrounding transaction commits, or right away without one.
+	 */
+	public void touch(final CatalogEntityType entityType) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			this.catalogVersionRepository.bump(entityType, Instant.now());
+			return;
+		}
+		TransactionSynchronizationManager.getSynchronizations().stream()
+				.filter(PendingBumps.class::isInstance)
+				.map(PendingBumps.class::cast)
+				.findFirst()
+				.orElseGet(() -> {
+					final var pendingBumps = new PendingBumps();
+					TransactionSynchronizationManager.registerSynchronization(pendingBumps);
+					return pendingBumps;
+				})
+				.entityTypes.add(entityType);
+	}
+	
+	private final class PendingBumps implements TransactionSynchronization {
+		
+		private final Set<CatalogEntityType> entityTypes = EnumSet.noneOf(CatalogEntityType.class);
+		
+		@Override
+		public void beforeCommit(final boolean readOnly) {
+			final var now = Instant.now();
+			this.entityTypes.forEach(entityType -> catalogVersionRepository.bump(entityType, now));
+		}
+		
+	}
+	
+}
@@ -0,0 +1,4 @@
+
+UPDATE categories SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE products SET updated_at = created_at WHERE updated_at IS NULL;
+
@@ -0,0 +1,13 @@
+
+CREATE INDEX idx_products_updated_id ON products (updated_at, product_id);
+CREATE INDEX idx_categories_updated_id ON categories (updated_at, category_id);
+
+CREATE TABLE catalog_tombstones (
+	tombstone_id BIGINT NOT NULL PRIMARY KEY AUTO_INCREMENT,
+	entity_type VARCHAR(16) NOT NULL,
+	entity_id INT(11) NOT NULL,
+	deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_catalog_tombstones_deleted_id ON catalog_tombstones (deleted_at, tombstone_id);
+
@@ -0,0 +1,6 @@
+
+CREATE TABLE replication_heartbeat (
+	heartbeat_id INT(11) NOT NULL PRIMARY KEY,
+	beat_at TIMESTAMP NOT NULL
+);
+
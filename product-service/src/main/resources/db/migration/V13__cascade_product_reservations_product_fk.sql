@@ -0,0 +1,7 @@
+
+ALTER TABLE product_reservations
+  DROP CONSTRAINT fk_product_reservations_product;
+
+ALTER TABLE product_reservations
+  ADD CONSTRAINT fk_product_reservations_product FOREIGN KEY (product_id) REFERENCES products (product_id) ON DELETE CASCADE;
+
@@ -0,0 +1,7 @@
+
+ALTER TABLE products
+  ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE categories
+  ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
@@ -0,0 +1,13 @@
+
+CREATE TABLE catalog_versions (
+	entity_type VARCHAR(16) NOT NULL PRIMARY KEY,
+	version BIGINT NOT NULL,
+	updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO catalog_versions (entity_type, version, updated_at)
+  SELECT 'CATEGORY', 0, COALESCE(MAX(updated_at), LOCALTIMESTAMP) FROM categories;
+
+INSERT INTO catalog_versions (entity_type, version, updated_at)
+  SELECT 'PRODUCT', 0, COALESCE(MAX(updated_at), LOCALTIMESTAMP) FROM products;
+
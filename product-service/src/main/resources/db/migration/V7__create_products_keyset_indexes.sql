@@ -0,0 +1,4 @@
+
+CREATE INDEX idx_products_title_id ON products (product_title, product_id);
+CREATE INDEX idx_products_price_id ON products (price_unit, product_id);
+
@@ -0,0 +1,16 @@
+
+CREATE TABLE product_reservations (
+	reservation_id VARCHAR(36) NOT NULL PRIMARY KEY,
+	product_id INT(11) NOT NULL,
+	quantity INT(11) NOT NULL,
+	status VARCHAR(16) NOT NULL,
+	expires_at TIMESTAMP NOT NULL,
+	created_at TIMESTAMP DEFAULT LOCALTIMESTAMP NOT NULL NULL_TO_DEFAULT,
+	updated_at TIMESTAMP
+);
+
+ALTER TABLE product_reservations
+  ADD CONSTRAINT fk_product_reservations_product FOREIGN KEY (product_id) REFERENCES products (product_id);
+
+CREATE INDEX idx_product_reservations_status_expires ON product_reservations (status, expires_at);
+
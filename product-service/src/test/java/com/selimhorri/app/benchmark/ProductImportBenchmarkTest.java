@@ -0,0 +1,93 @@
+package com.selimhorri.app.benchmark;
+
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductImportReportDto;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.service.ProductImportService;
+import com.selimhorri.app.service.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares bulk import throughput against saving the same number of products one by one.
+ * Run with {@code mvn test -Dtest=ProductImportBenchmarkTest -Dbenchmark=true [-Dbenchmark.rows=20000]}.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class ProductImportBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 10_000);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void compareImportWithSaveLoop() {
+        CategoryDto category = createCategory();
+
+        List<ProductDto> saveLoopRows = buildProducts(category, "loop");
+        long saveLoopStart = System.nanoTime();
+        saveLoopRows.forEach(productService::save);
+        long saveLoopNanos = System.nanoTime() - saveLoopStart;
+
+        List<ProductDto> importRows = buildProducts(category, "import");
+        long importStart = System.nanoTime();
+        ProductImportReportDto report = productImportService.importProducts(importRows);
+        long importNanos = System.nanoTime() - importStart;
+
+        assertEquals(ROWS, report.getImported());
+        log.info("*** ProductImportBenchmark; save loop: {} rows in {} ms, import: {} rows in {} ms ({}x) *", ROWS,
+                saveLoopNanos / 1_000_000, ROWS, importNanos / 1_000_000,
+                String.format("%.1f", (double) saveLoopNanos / importNanos));
+        assertTrue(importNanos < saveLoopNanos, "bulk import should outrun the save loop");
+    }
+
+    private CategoryDto createCategory() {
+        Category category = categoryRepository.save(Category.builder()
+                .categoryTitle("Benchmark Category")
+                .build());
+        return CategoryDto.builder()
+                .categoryId(category.getCategoryId())
+                .categoryTitle(category.getCategoryTitle())
+                .build();
+    }
+
+    private List<ProductDto> buildProducts(CategoryDto category, String prefix) {
+        return IntStream.range(0, ROWS)
+                .mapToObj(i -> ProductDto.builder()
+                        .productTitle("Benchmark product " + i)
+                        .imageUrl("http://example.com/" + i + ".png")
+                        .sku(prefix + "-" + i)
+                        .priceUnit(10.0)
+                        .quantity(1)
+                        .categoryDto(category)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.selimhorri.app.cache;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogVersion;
+import com.selimhorri.app.dto.projection.CategoryNodeProjection;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.version.CatalogVersionTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryTreeHolderTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    private CategoryTreeHolder categoryTreeHolder;
+
+    @BeforeEach
+    void setUp() {
+        categoryTreeHolder = new CategoryTreeHolder(categoryRepository, catalogVersionTracker);
+        when(catalogVersionTracker.find(CatalogEntityType.CATEGORY)).thenReturn(version(2L));
+        when(categoryRepository.findAllNodes()).thenReturn(List.of(node(1, null, "Electronics", 0L), node(2, 1, "Laptops", 2L)));
+        categoryTreeHolder.onApplicationReady();
+    }
+
+    @Test
+    void testRefreshIfChanged_ShouldKeepTreeWhileTableIsUnchanged() {
+        assertFalse(categoryTreeHolder.refreshIfChanged());
+        verify(categoryRepository, times(1)).findAllNodes();
+    }
+
+    @Test
+    void testRefreshIfChanged_ShouldRebuildAfterWriteOnAnotherInstance() {
+        when(catalogVersionTracker.find(CatalogEntityType.CATEGORY)).thenReturn(version(3L));
+        when(categoryRepository.findAllNodes()).thenReturn(List.of(node(1, null, "Electronics", 0L), node(2, 1, "Notebooks", 3L)));
+
+        assertTrue(categoryTreeHolder.refreshIfChanged());
+        assertEquals("Notebooks", categoryTreeHolder.get().findNode(2).orElseThrow().getCategoryTitle());
+    }
+
+    private static CatalogVersion version(long version) {
+        return CatalogVersion.builder()
+                .entityType(CatalogEntityType.CATEGORY)
+                .version(version)
+                .build();
+    }
+
+    private static CategoryNodeProjection node(Integer categoryId, Integer parentCategoryId, String title, Long version) {
+        return new CategoryNodeProjection() {
+            @Override
+            public Integer getCategoryId() {
+                return categoryId;
+            }
+            @Override
+            public Integer getParentCategoryId() {
+                return parentCategoryId;
+            }
+            @Override
+            public String getCategoryTitle() {
+                return title;
+            }
+            @Override
+            public String getImageUrl() {
+                return null;
+            }
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
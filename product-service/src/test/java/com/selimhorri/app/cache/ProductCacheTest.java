@@ -0,0 +1,144 @@
+package com.selimhorri.app.cache;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogVersion;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.projection.ProductStockProjection;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.util.ProductUtil;
+import com.selimhorri.app.version.CatalogVersionTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CatalogTombstoneRepository catalogTombstoneRepository;
+
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    private ProductCache productCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(productRepository, catalogTombstoneRepository, catalogVersionTracker,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testOnProductStockChanged_ShouldApplyNewerStockLevelsInPlace() {
+        get(1);
+
+        productCache.onProductStockChanged(new ProductStockChangedEvent(List.of(stock(1, 3, 2L)), false));
+        productCache.onProductStockChanged(new ProductStockChangedEvent(List.of(stock(1, 4, 3L)), true));
+
+        assertEquals(4, get(1).getQuantity());
+        assertEquals(3L, get(1).getVersion());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testOnProductStockChanged_ShouldKeepEntryReloadedPastTheEvent() {
+        get(1);
+
+        productCache.onProductStockChanged(new ProductStockChangedEvent(List.of(stock(1, 9, 1L)), false));
+
+        assertEquals(5, get(1).getQuantity());
+    }
+
+    @Test
+    void testRefreshChanged_ShouldReloadProductsWrittenOnAnotherInstance() {
+        versions(1L, 1L);
+        productCache.refreshChanged();
+        get(1);
+        get(2);
+
+        Product changed = ProductUtil.getSampleProduct();
+        changed.setPriceUnit(999.0);
+        versions(1L, 3L);
+        when(productRepository.findIdsUpdatedSince(any())).thenReturn(List.of(1, 7));
+        when(productRepository.findAllById(List.of(1))).thenReturn(List.of(changed));
+        when(catalogTombstoneRepository.findEntityIdsDeletedSince(eq(CatalogEntityType.PRODUCT), any())).thenReturn(List.of(2));
+
+        assertEquals(2, productCache.refreshChanged());
+        assertEquals(999.0, get(1).getPriceUnit());
+        get(2);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testRefreshChanged_ShouldSkipQueriesWhileVersionsAreUnchanged() {
+        versions(1L, 1L);
+        productCache.refreshChanged();
+        get(1);
+
+        assertEquals(0, productCache.refreshChanged());
+        verify(productRepository, never()).findIdsUpdatedSince(any());
+        verify(productRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void testRefreshChanged_ShouldDropEverythingAfterCategoryChange() {
+        versions(1L, 1L);
+        productCache.refreshChanged();
+        get(1);
+
+        versions(2L, 1L);
+        productCache.refreshChanged();
+        get(1);
+
+        assertEquals(2, loads.get());
+    }
+
+    private ProductDto get(Integer productId) {
+        return productCache.get(productId, id -> {
+            loads.incrementAndGet();
+            ProductDto productDto = ProductUtil.getSampleProductDto();
+            productDto.setProductId(id);
+            productDto.setVersion(1L);
+            return productDto;
+        });
+    }
+
+    private ProductStockProjection stock(Integer productId, int quantity, long version) {
+        return new ProductStockProjection(productId, quantity, version, Instant.now());
+    }
+
+    private void versions(long categoryVersion, long productVersion) {
+        when(catalogVersionTracker.find(CatalogEntityType.CATEGORY)).thenReturn(CatalogVersion.builder()
+                .entityType(CatalogEntityType.CATEGORY)
+                .version(categoryVersion)
+                .build());
+        when(catalogVersionTracker.find(CatalogEntityType.PRODUCT)).thenReturn(CatalogVersion.builder()
+                .entityType(CatalogEntityType.PRODUCT)
+                .version(productVersion)
+                .build());
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.selimhorri.app.config.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and a replica; replication of the
+ * heartbeat is simulated by writing it to the replica directly.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate replicaJdbcTemplate;
+    private ReplicaLagMonitor replicaLagMonitor;
+    private JdbcTemplate routedJdbcTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        replicaJdbcTemplate = new JdbcTemplate(replica);
+        replicaLagMonitor = new ReplicaLagMonitor(primary, Map.of("replica-0", replica),
+                Duration.ofSeconds(5), clock, meterRegistry);
+
+        DataSource routed = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaLagMonitor, meterRegistry));
+        routedJdbcTemplate = new JdbcTemplate(routed);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routed);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Test
+    void testRouting_ShouldSendReadOnlyTransactionsToReplicaOnceMeasured() {
+        assertEquals("primary", readOnlyTransactionTemplate.execute(status -> node()));
+
+        replicate(NOW);
+        replicaLagMonitor.check();
+
+        assertEquals("replica", readOnlyTransactionTemplate.execute(status -> node()));
+        assertEquals("primary", transactionTemplate.execute(status -> node()));
+        assertEquals(1, count("replica-0", ReplicaRoutingDataSource.REASON_READ));
+        assertEquals(1, count(ReplicaRoutingDataSource.PRIMARY, ReplicaRoutingDataSource.REASON_FALLBACK));
+    }
+
+    @Test
+    void testRouting_ShouldFallBackToPrimaryWhileReplicaLags() {
+        replicate(NOW);
+        replicaLagMonitor.check();
+        clock.set(NOW.plusSeconds(30));
+        replicaLagMonitor.check();
+
+        assertFalse(replicaLagMonitor.isAvailable("replica-0"));
+        assertEquals("primary", readOnlyTransactionTemplate.execute(status -> node()));
+        assertEquals(30d, meterRegistry.get("datasource.replica.lag").gauge().value());
+
+        replicate(NOW.plusSeconds(29));
+        replicaLagMonitor.check();
+
+        assertEquals("replica", readOnlyTransactionTemplate.execute(status -> node()));
+    }
+
+    private String node() {
+        return routedJdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private void replicate(Instant beatAt) {
+        replicaJdbcTemplate.update("MERGE INTO replication_heartbeat (heartbeat_id, beat_at) KEY (heartbeat_id) VALUES (1, ?)",
+                Timestamp.from(beatAt));
+    }
+
+    private double count(String target, String reason) {
+        return meterRegistry.get("datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "_" + UUID.randomUUID().toString().replace("-", "") + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE replication_heartbeat (heartbeat_id INT PRIMARY KEY, beat_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        private void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.selimhorri.app.integration;
+
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.domain.ProductSortKey;
+import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.service.CategoryService;
+import com.selimhorri.app.service.ProductService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listings are read through projections, so a page costs one statement however deep
+ * the category chain of its products is.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional
+@Rollback
+class ListQueryCountTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Integer> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Category root = categoryRepository.save(category("Root", null));
+        Category child = categoryRepository.save(category("Child", root));
+        Category leaf = categoryRepository.save(category("Leaf", child));
+        for (Category category : List.of(root, child, leaf, leaf))
+            productIds.add(productRepository.save(Product.builder()
+                    .productTitle("Product in " + category.getCategoryTitle())
+                    .sku("SKU-" + UUID.randomUUID())
+                    .priceUnit(10.0)
+                    .quantity(1)
+                    .category(category)
+                    .build()).getProductId());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindPage_ShouldReadPageInOneStatement() {
+        List<ProductDto> page = new ArrayList<>(productService.findPage(null, 50, ProductSortKey.PRODUCT_TITLE).getCollection());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(page.stream().anyMatch(productDto -> "Leaf".equals(productDto.getCategoryDto().getCategoryTitle())));
+    }
+
+    @Test
+    void testFindAllByIds_ShouldReadProductsInOneStatement() {
+        List<ProductDto> products = productService.findAllByIds(productIds);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(productIds, products.stream()
+                .map(ProductDto::getProductId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testFindAllCategories_ShouldReadCategoriesAndParentsInOneStatement() {
+        List<CategoryDto> categories = categoryService.findAll();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(categories.stream().anyMatch(categoryDto -> "Leaf".equals(categoryDto.getCategoryTitle())
+                && "Child".equals(categoryDto.getParentCategoryDto().getCategoryTitle())));
+    }
+
+    private static Category category(String title, Category parentCategory) {
+        return Category.builder()
+                .categoryTitle(title)
+                .imageUrl("http://example.com/" + UUID.randomUUID() + ".png")
+                .parentCategory(parentCategory)
+                .build();
+    }
+
+}
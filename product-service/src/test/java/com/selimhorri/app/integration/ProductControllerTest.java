@@ -2,7 +2,9 @@ package com.selimhorri.app.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -26,6 +28,7 @@ import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpClientErrorException;
 
 import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.domain.Product;
@@ -138,6 +141,86 @@ class ProductControllerTest {
         assertThat(productRepository.findById(response.getBody().getProductId())).isPresent();
     }
 
+    @Test
+    void shouldAnswerNotModifiedWhileProductIsUnchanged() {
+        Category category = categoryRepository.save(Category.builder()
+                .categoryTitle("Monitors")
+                .imageUrl("http://example.com/monitors.png")
+                .build());
+
+        Product persistedProduct = productRepository.save(Product.builder()
+                .productTitle("4K Monitor")
+                .imageUrl("http://example.com/4k.png")
+                .sku("SKU-" + UUID.randomUUID())
+                .priceUnit(499.99)
+                .quantity(3)
+                .category(category)
+                .build());
+        String productUrl = baseUrl() + "/" + persistedProduct.getProductId();
+
+        ResponseEntity<ProductDto> response = restTemplate.getForEntity(productUrl, ProductDto.class);
+        String etag = response.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(etag);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<ProductDto> conditionalResponse = restTemplate.exchange(
+                productUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                ProductDto.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, conditionalResponse.getStatusCode());
+        assertEquals(etag, conditionalResponse.getHeaders().getETag());
+
+        ProductDto changedProduct = response.getBody();
+        changedProduct.setQuantity(2);
+        restTemplate.put(baseUrl(), changedProduct);
+        ResponseEntity<ProductDto> changedResponse = restTemplate.exchange(
+                productUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                ProductDto.class);
+        assertEquals(HttpStatus.OK, changedResponse.getStatusCode());
+        assertNotEquals(etag, changedResponse.getHeaders().getETag());
+        assertEquals(2, changedResponse.getBody().getQuantity());
+    }
+
+    @Test
+    void shouldRejectUpdateCarryingStaleVersion() {
+        Category category = categoryRepository.save(Category.builder()
+                .categoryTitle("Keyboards")
+                .imageUrl("http://example.com/keyboards.png")
+                .build());
+
+        Product persistedProduct = productRepository.save(Product.builder()
+                .productTitle("Mechanical Keyboard")
+                .imageUrl("http://example.com/keyboard.png")
+                .sku("SKU-" + UUID.randomUUID())
+                .priceUnit(89.99)
+                .quantity(4)
+                .category(category)
+                .build());
+        ProductDto firstRead = restTemplate.getForObject(baseUrl() + "/" + persistedProduct.getProductId(), ProductDto.class);
+        ProductDto secondRead = restTemplate.getForObject(baseUrl() + "/" + persistedProduct.getProductId(), ProductDto.class);
+
+        firstRead.setPriceUnit(79.99);
+        assertEquals(HttpStatus.OK, restTemplate.exchange(baseUrl(), HttpMethod.PUT, new HttpEntity<>(firstRead),
+                ProductDto.class).getStatusCode());
+        secondRead.setQuantity(1);
+        HttpClientErrorException staleResponse = assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.put(baseUrl(), secondRead));
+        secondRead.setVersion(null);
+        HttpClientErrorException unversionedResponse = assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.put(baseUrl(), secondRead));
+
+        assertEquals(HttpStatus.CONFLICT, staleResponse.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, unversionedResponse.getStatusCode());
+        Product stored = productRepository.findById(persistedProduct.getProductId()).orElseThrow();
+        assertEquals(79.99, stored.getPriceUnit());
+        assertEquals(4, stored.getQuantity());
+    }
+
     private String baseUrl() {
         return "http://localhost:" + port + BASE_PATH;
     }
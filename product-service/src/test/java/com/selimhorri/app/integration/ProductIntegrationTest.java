@@ -3,14 +3,19 @@ package com.selimhorri.app.integration;
 import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.dto.CategoryDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductReservationDto;
+import com.selimhorri.app.service.ProductReservationService;
 import com.selimhorri.app.service.ProductService;
 import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.repository.ProductReservationRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import javax.persistence.EntityManager;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +33,18 @@ class ProductIntegrationTest {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductReservationService productReservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductReservationRepository productReservationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void testMultipleProductsSaved() {
         CategoryDto category = createCategory("Bulk Category");
@@ -40,6 +57,31 @@ class ProductIntegrationTest {
         assertTrue(all.stream().anyMatch(dto -> dto.getProductId().equals(p2.getProductId())));
     }
 
+    @Test
+    void testDeleteProductWithReservationHistory() {
+        CategoryDto category = createCategory("Reserved Category");
+        ProductDto product = productService.save(buildProduct(category, "R", 15.0, 5));
+        ProductReservationDto released = productReservationService.reserve(ProductReservationDto.builder()
+                .productId(product.getProductId())
+                .quantity(2)
+                .build());
+        productReservationService.release(released.getReservationId());
+        productReservationService.reserve(ProductReservationDto.builder()
+                .productId(product.getProductId())
+                .quantity(1)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        productService.deleteById(product.getProductId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(productRepository.existsById(product.getProductId()));
+        assertTrue(productReservationRepository.findAll().stream()
+                .noneMatch(reservation -> reservation.getProductId().equals(product.getProductId())));
+    }
+
     private CategoryDto createCategory(String title) {
         Category category = categoryRepository.save(Category.builder()
                 .categoryTitle(title)
@@ -0,0 +1,171 @@
+package com.selimhorri.app.search;
+
+import com.selimhorri.app.cache.CategoryTree;
+import com.selimhorri.app.cache.CategoryTreeHolder;
+import com.selimhorri.app.dto.FacetCountDto;
+import com.selimhorri.app.dto.ProductFilterDto;
+import com.selimhorri.app.dto.projection.CategoryNodeProjection;
+import com.selimhorri.app.dto.projection.ProductFacetProjection;
+import com.selimhorri.app.dto.projection.ProductStockProjection;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryTreeHolder categoryTreeHolder;
+
+    private ProductFacetIndex productFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        productFacetIndex = new ProductFacetIndex(productRepository, categoryTreeHolder,
+                new double[] {10, 25, 50, 100, 250, 500, 1000});
+        when(productRepository.findAllFacetRows()).thenReturn(List.of(
+                row(13, 4, 15d, 1), row(10, 2, 999d, 5), row(11, 2, 1500d, 0), row(12, 3, 20d, 3)));
+        productFacetIndex.rebuild();
+    }
+
+    @Test
+    void testQuery_ShouldFilterCategorySubtreeAndCountFacets() {
+        givenCategoryTree();
+
+        ProductFacetIndex.Result result = productFacetIndex.query(ProductFilterDto.builder()
+                .categoryId(1)
+                .inStock(true)
+                .build(), 0, 10);
+
+        assertEquals(List.of(10, 12), result.getProductIds());
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of("2=1", "3=1"), counts(result.getFacets().get(ProductFacetIndex.CATEGORY_FACET)));
+        assertEquals(List.of("10-25=1", "500-1000=1"), counts(result.getFacets().get(ProductFacetIndex.PRICE_FACET)));
+    }
+
+    @Test
+    void testQuery_ShouldFilterPriceRangeAndPageAfterId() {
+        givenCategoryTree();
+
+        ProductFacetIndex.Result result = productFacetIndex.query(ProductFilterDto.builder()
+                .minPrice(15d)
+                .maxPrice(999d)
+                .build(), 10, 1);
+
+        assertEquals(List.of(12), result.getProductIds());
+        assertEquals(3, result.getTotal());
+        assertEquals(List.of("1=2", "4=1"), counts(result.getFacets().get(ProductFacetIndex.CATEGORY_FACET)));
+    }
+
+    @Test
+    void testRefreshDirty_ShouldReloadStockMovedByReservations() {
+        givenCategoryTree();
+        when(productRepository.findFacetRowsByProductIdIn(List.of(11))).thenReturn(List.of(row(11, 2, 1500d, 4)));
+
+        productFacetIndex.onProductStockChanged(new ProductStockChangedEvent(List.of(stock(11, 4)), true));
+        assertEquals(1, productFacetIndex.refreshDirty());
+        productFacetIndex.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 12, null));
+
+        assertEquals(List.of(10, 11, 13), productFacetIndex.query(ProductFilterDto.builder()
+                .inStock(true)
+                .build(), 0, 10).getProductIds());
+        assertEquals(3, productFacetIndex.size());
+    }
+
+    @Test
+    void testQuery_ShouldPageProductsAddedOutOfIdOrder() {
+        givenCategoryTree();
+        when(productRepository.findFacetRowsByProductIdIn(anyList())).thenReturn(List.of(
+                row(14, 4, 30d, 2), row(5, 3, 40d, 1)));
+
+        productFacetIndex.onProductStockChanged(new ProductStockChangedEvent(List.of(stock(14, 2), stock(5, 1)), false));
+        productFacetIndex.refreshDirty();
+
+        assertEquals(List.of(5, 10), productFacetIndex.query(ProductFilterDto.builder().build(), 0, 2).getProductIds());
+        assertEquals(List.of(12, 13), productFacetIndex.query(ProductFilterDto.builder().build(), 11, 2).getProductIds());
+        assertEquals(List.of(14), productFacetIndex.query(ProductFilterDto.builder().build(), 13, 2).getProductIds());
+    }
+
+    private void givenCategoryTree() {
+        when(categoryTreeHolder.get()).thenReturn(CategoryTree.build(List.of(
+                node(1, null, "Electronics"), node(2, 1, "Laptops"), node(3, 1, "Phones"), node(4, null, "Books"))));
+    }
+
+    private static List<String> counts(List<FacetCountDto> facet) {
+        return facet.stream()
+                .map(facetCount -> facetCount.getValue() + "=" + facetCount.getCount())
+                .collect(Collectors.toList());
+    }
+
+    private static ProductStockProjection stock(Integer productId, Integer quantity) {
+        return new ProductStockProjection(productId, quantity, 2L, Instant.now());
+    }
+
+    private static ProductFacetProjection row(Integer productId, Integer categoryId, Double priceUnit, Integer quantity) {
+        return new ProductFacetProjection() {
+            @Override
+            public Integer getProductId() {
+                return productId;
+            }
+            @Override
+            public Integer getCategoryId() {
+                return categoryId;
+            }
+            @Override
+            public Double getPriceUnit() {
+                return priceUnit;
+            }
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+        };
+    }
+
+    private static CategoryNodeProjection node(Integer categoryId, Integer parentCategoryId, String title) {
+        return new CategoryNodeProjection() {
+            @Override
+            public Integer getCategoryId() {
+                return categoryId;
+            }
+            @Override
+            public Integer getParentCategoryId() {
+                return parentCategoryId;
+            }
+            @Override
+            public String getCategoryTitle() {
+                return title;
+            }
+            @Override
+            public String getImageUrl() {
+                return null;
+            }
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+    }
+
+}
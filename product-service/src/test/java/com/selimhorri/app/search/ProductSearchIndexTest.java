@@ -0,0 +1,86 @@
+package com.selimhorri.app.search;
+
+import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex(productRepository);
+        index(1, "Asus Zenbook Laptop", "SKU-100", "Computer");
+        index(2, "Asus Gaming Mouse", "SKU-200", "Accessories");
+        index(3, "Dell XPS Laptop", "SKU-300", "Computer");
+    }
+
+    @Test
+    void testSearch_ShouldMatchAllTokensRankedByRelevance() {
+        assertEquals(List.of(1), productSearchIndex.search("asus laptop", 10));
+        assertEquals(List.of(1, 3), productSearchIndex.search("LAPTOP", 10));
+        assertEquals(List.of(2), productSearchIndex.search("sku-200", 10));
+        assertTrue(productSearchIndex.search("asus tablet", 10).isEmpty());
+    }
+
+    @Test
+    void testAutocomplete_ShouldCompleteLastTokenByFrequency() {
+        assertEquals(List.of("asus"), productSearchIndex.autocomplete("as", 10));
+        assertEquals(List.of("dell laptop"), productSearchIndex.autocomplete("dell lap", 10));
+    }
+
+    @Test
+    void testOnProductChanged_ShouldReindexAndRemoveProducts() {
+        index(1, "Lenovo Thinkpad", "SKU-100", "Computer");
+        productSearchIndex.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 3, null));
+
+        assertTrue(productSearchIndex.search("laptop", 10).isEmpty());
+        assertEquals(List.of(1), productSearchIndex.search("thinkpad", 10));
+        assertEquals(2, productSearchIndex.size());
+    }
+
+    @Test
+    void testAutocomplete_ShouldRankEveryMatchingTermAndFollowRemovals() {
+        for (int productId = 100; productId < 12_100; productId++)
+            index(productId, "Cable c" + productId, "SKU-" + productId, "Accessories");
+        index(3, "Dell XPS Laptop Cz", "SKU-300", "Computer");
+        index(20_000, "Czech Keyboard Cz", "SKU-20000", "Accessories");
+
+        assertEquals(List.of("cable", "computer", "cz", "c100"), productSearchIndex.autocomplete("c", 4));
+        assertEquals(List.of("cz", "czech"), productSearchIndex.autocomplete("cz", 10));
+
+        productSearchIndex.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 20_000, null));
+        index(3, "Dell XPS Laptop", "SKU-300", "Computer");
+
+        assertTrue(productSearchIndex.autocomplete("cz", 10).isEmpty());
+        assertEquals(List.of("computer"), productSearchIndex.autocomplete("comp", 10));
+    }
+
+    private void index(Integer productId, String title, String sku, String categoryTitle) {
+        productSearchIndex.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, productId, ProductDto.builder()
+                .productId(productId)
+                .productTitle(title)
+                .sku(sku)
+                .categoryDto(CategoryDto.builder()
+                        .categoryTitle(categoryTitle)
+                        .build())
+                .build()));
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.selimhorri.app.service.impl;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogTombstone;
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.CatalogChangeDto;
+import com.selimhorri.app.dto.response.collection.DtoChangeFeedResponse;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.repository.CatalogTombstoneRepository;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.util.CategoryUtil;
+import com.selimhorri.app.util.ProductUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogChangeServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+    private static final Instant T1 = NOW.minusSeconds(60);
+    private static final Instant T2 = NOW.minusSeconds(30);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CatalogTombstoneRepository catalogTombstoneRepository;
+
+    private CatalogChangeServiceImpl catalogChangeService;
+
+    @BeforeEach
+    void setUp() {
+        catalogChangeService = new CatalogChangeServiceImpl(productRepository, categoryRepository,
+                catalogTombstoneRepository, Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testFindChanges_ShouldMergeSourcesInFeedOrderAndResumeFromCursor() {
+        Category category = ProductUtil.getSampleCategory();
+        category.setCreatedAt(T1);
+        category.setUpdatedAt(T2);
+        Product product = ProductUtil.getSampleProduct();
+        product.setCreatedAt(T1);
+        product.setUpdatedAt(T1);
+        CatalogTombstone tombstone = CatalogTombstone.builder()
+                .tombstoneId(7L)
+                .entityType(CatalogEntityType.PRODUCT)
+                .entityId(9)
+                .deletedAt(T2)
+                .build();
+        Instant until = NOW.minusSeconds(5);
+        when(categoryRepository.findChangedSince(eq(Instant.EPOCH), eq(Integer.MAX_VALUE), eq(until), any()))
+                .thenReturn(List.of(CategoryUtil.toRow(category)));
+        when(productRepository.findChangedSince(eq(Instant.EPOCH), eq(Integer.MAX_VALUE), eq(until), any()))
+                .thenReturn(List.of(ProductUtil.toRow(product)));
+        when(catalogTombstoneRepository.findDeletedSince(eq(Instant.EPOCH), eq(Long.MAX_VALUE), eq(until), any()))
+                .thenReturn(List.of(tombstone));
+
+        DtoChangeFeedResponse<CatalogChangeDto> firstPage = catalogChangeService.findChanges(null, null, 2);
+
+        assertTrue(firstPage.isHasMore());
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED), firstPage.getCollection().stream()
+                .map(CatalogChangeDto::getChangeType)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(CatalogEntityType.PRODUCT, CatalogEntityType.CATEGORY), firstPage.getCollection().stream()
+                .map(CatalogChangeDto::getEntityType)
+                .collect(Collectors.toList()));
+
+        when(categoryRepository.findChangedSince(eq(T2), eq(category.getCategoryId()), eq(until), any()))
+                .thenReturn(List.of());
+        when(productRepository.findChangedSince(eq(T2), eq(0), eq(until), any()))
+                .thenReturn(List.of());
+        when(catalogTombstoneRepository.findDeletedSince(eq(T2), eq(0L), eq(until), any()))
+                .thenReturn(List.of(tombstone));
+
+        DtoChangeFeedResponse<CatalogChangeDto> secondPage = catalogChangeService.findChanges(firstPage.getCursor(), null, 2);
+
+        assertFalse(secondPage.isHasMore());
+        assertEquals(1, secondPage.getCollection().size());
+        assertEquals(ChangeType.DELETED, secondPage.getCollection().iterator().next().getChangeType());
+        assertNotNull(secondPage.getCursor());
+    }
+
+}
@@ -1,8 +1,12 @@
 package com.selimhorri.app.service.impl;
 
+import com.selimhorri.app.cache.CategoryTree;
+import com.selimhorri.app.cache.CategoryTreeHolder;
 import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.projection.CategoryNodeProjection;
 import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.util.CategoryUtil;
 import com.selimhorri.app.util.ProductUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,9 +15,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +30,9 @@ public class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CategoryTreeHolder categoryTreeHolder;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -49,7 +58,7 @@ public class CategoryServiceImplTest {
 
     @Test
     void testFindAll_ShouldReturnCategoryList() {
-        when(categoryRepository.findAll()).thenReturn(Collections.singletonList(category));
+        when(categoryRepository.findAllRows()).thenReturn(Collections.singletonList(CategoryUtil.toRow(category)));
 
         List<CategoryDto> result = categoryService.findAll();
 
@@ -58,5 +67,49 @@ public class CategoryServiceImplTest {
         assertEquals("Electronics", result.get(0).getCategoryTitle());
     }
 
+    @Test
+    void testFindBreadcrumbs_ShouldReturnPathFromRoot() {
+        when(categoryTreeHolder.get()).thenReturn(CategoryTree.build(List.of(
+                node(1, null, "Root"), node(2, 1, "Child"), node(3, 2, "Leaf"), node(4, 1, "Sibling"))));
+
+        List<CategoryDto> breadcrumbs = categoryService.findBreadcrumbs(3);
+        List<CategoryDto> descendants = categoryService.findDescendants(1);
+
+        assertEquals(List.of("Root", "Child", "Leaf"), breadcrumbs.stream()
+                .map(CategoryDto::getCategoryTitle)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(2, 4, 3), descendants.stream()
+                .map(CategoryDto::getCategoryId)
+                .collect(Collectors.toList()));
+    }
+
+    private static CategoryNodeProjection node(Integer categoryId, Integer parentCategoryId, String title) {
+        return new CategoryNodeProjection() {
+            @Override
+            public Integer getCategoryId() {
+                return categoryId;
+            }
+            @Override
+            public Integer getParentCategoryId() {
+                return parentCategoryId;
+            }
+            @Override
+            public String getCategoryTitle() {
+                return title;
+            }
+            @Override
+            public String getImageUrl() {
+                return null;
+            }
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+    }
 
 }
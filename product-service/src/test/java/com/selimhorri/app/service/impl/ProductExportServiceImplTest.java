@@ -0,0 +1,67 @@
+package com.selimhorri.app.service.impl;
+
+import com.selimhorri.app.config.mapper.MapperConfig;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.domain.ProductExportFormat;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.util.ProductUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExportServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductExportServiceImpl productExportService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productExportService = new ProductExportServiceImpl(productRepository, new MapperConfig().objectMapperBean());
+        product = ProductUtil.getSampleProduct();
+        product.setProductTitle("Laptop, \"Dell\" XPS 13");
+    }
+
+    @Test
+    void testExport_ShouldWriteOneJsonDocumentPerLine() throws IOException {
+        Product secondProduct = ProductUtil.getSampleProduct();
+        secondProduct.setProductId(2);
+        when(productRepository.streamAll()).thenReturn(Stream.of(ProductUtil.toRow(product), ProductUtil.toRow(secondProduct)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long exported = productExportService.export(ProductExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exported);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"productId\":1,"));
+        assertTrue(lines[1].startsWith("{\"productId\":2,"));
+    }
+
+    @Test
+    void testExport_ShouldQuoteCsvFieldsContainingSeparators() throws IOException {
+        when(productRepository.streamAll()).thenReturn(Stream.of(ProductUtil.toRow(product)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        productExportService.export(ProductExportFormat.CSV, outputStream);
+
+        assertEquals("productId,productTitle,imageUrl,sku,priceUnit,quantity,categoryId,categoryTitle\r\n"
+                + "1,\"Laptop, \"\"Dell\"\" XPS 13\",https://example.com/laptop.png,SKU12345,1200.0,5,1,Electronics\r\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+}
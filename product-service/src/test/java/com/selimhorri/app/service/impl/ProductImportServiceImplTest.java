@@ -0,0 +1,102 @@
+package com.selimhorri.app.service.impl;
+
+import com.selimhorri.app.domain.Category;
+import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.ProductImportReportDto;
+import com.selimhorri.app.repository.CategoryRepository;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.util.ProductUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductImportServiceImpl productImportService;
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportServiceImpl(productRepository, categoryRepository, entityManager,
+                transactionTemplate, eventPublisher, 2, 100);
+        Category category = ProductUtil.getSampleCategory();
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(category));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testImportProducts_ShouldReportInvalidAndDuplicateRows() {
+        when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of("SKU-EXISTING"));
+
+        ProductImportReportDto report = productImportService.importProducts(List.of(
+                row("SKU-1"),
+                row("SKU-1"),
+                row("SKU-EXISTING"),
+                row(" "),
+                row("SKU-2")));
+
+        assertEquals(5, report.getReceived());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(1, 2, 3), report.getErrors().stream().map(error -> error.getRow()).collect(Collectors.toList()));
+        verify(entityManager, times(2)).persist(any(Product.class));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testImportProducts_ShouldRetryRejectedChunkRowByRow() {
+        when(productRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+        doThrow(new PersistenceException("value too long"))
+                .doThrow(new PersistenceException("value too long"))
+                .doNothing()
+                .when(entityManager).flush();
+
+        ProductImportReportDto report = productImportService.importProducts(List.of(row("SKU-1"), row("SKU-2")));
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals("SKU-1", report.getErrors().get(0).getSku());
+        assertEquals("value too long", report.getErrors().get(0).getMessage());
+    }
+
+    private ProductDto row(String sku) {
+        ProductDto productDto = ProductUtil.getSampleProductDto();
+        productDto.setProductId(null);
+        productDto.setSku(sku);
+        return productDto;
+    }
+
+}
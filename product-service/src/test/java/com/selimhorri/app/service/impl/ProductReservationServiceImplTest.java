@@ -0,0 +1,142 @@
+package com.selimhorri.app.service.impl;
+
+import com.selimhorri.app.domain.ProductReservation;
+import com.selimhorri.app.domain.ReservationStatus;
+import com.selimhorri.app.dto.ProductReservationDto;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.exception.wrapper.InsufficientStockException;
+import com.selimhorri.app.exception.wrapper.ReservationStateException;
+import com.selimhorri.app.repository.ProductRepository;
+import com.selimhorri.app.repository.ProductReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductReservationServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductReservationRepository productReservationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductReservationServiceImpl productReservationService;
+
+    @BeforeEach
+    void setUp() {
+        productReservationService = new ProductReservationServiceImpl(productRepository, productReservationRepository,
+                transactionTemplate, eventPublisher, Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofMinutes(15),
+                Duration.ofHours(1), 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testReserve_ShouldDecrementStockAndSaveReservation() {
+        when(productRepository.decrementQuantityIfAvailable(1, 3, NOW)).thenReturn(1);
+        when(productReservationRepository.save(any(ProductReservation.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProductReservationDto result = productReservationService.reserve(request(1, 3));
+
+        assertEquals(ReservationStatus.RESERVED, result.getStatus());
+        assertEquals(NOW.plus(Duration.ofMinutes(15)), result.getExpiresAt());
+        verify(eventPublisher).publishEvent(any(ProductStockChangedEvent.class));
+    }
+
+    @Test
+    void testReserve_ShouldRejectWithoutHittingDatabaseAfterShortfall() {
+        when(productRepository.decrementQuantityIfAvailable(1, 5, NOW)).thenReturn(0);
+        when(productRepository.existsById(1)).thenReturn(true);
+
+        assertThrows(InsufficientStockException.class, () -> productReservationService.reserve(request(1, 5)));
+        assertThrows(InsufficientStockException.class, () -> productReservationService.reserve(request(1, 6)));
+
+        verify(productRepository, times(1)).decrementQuantityIfAvailable(eq(1), anyInt(), any());
+        verify(productReservationRepository, never()).save(any());
+    }
+
+    @Test
+    void testRelease_ShouldReturnStockOnce() {
+        ProductReservation reservation = reservation(ReservationStatus.RELEASED, 1, 3);
+        when(productReservationRepository.transition("r-1", ReservationStatus.RESERVED, ReservationStatus.RELEASED, NOW))
+                .thenReturn(1)
+                .thenReturn(0);
+        when(productReservationRepository.findById("r-1")).thenReturn(Optional.of(reservation));
+
+        productReservationService.release("r-1");
+        ProductReservationDto result = productReservationService.release("r-1");
+
+        assertEquals(ReservationStatus.RELEASED, result.getStatus());
+        verify(productRepository, times(1)).incrementQuantity(1, 3, NOW);
+    }
+
+    @Test
+    void testConfirm_ShouldRejectExpiredReservation() {
+        when(productReservationRepository.transitionIfActive("r-1", ReservationStatus.RESERVED,
+                ReservationStatus.CONFIRMED, NOW)).thenReturn(0);
+        when(productReservationRepository.findById("r-1"))
+                .thenReturn(Optional.of(reservation(ReservationStatus.EXPIRED, 1, 3)));
+
+        assertThrows(ReservationStateException.class, () -> productReservationService.confirm("r-1"));
+    }
+
+    @Test
+    void testExpireOverdue_ShouldReturnStockPerProductInBatches() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(productReservationRepository.findExpiredForUpdate(eq(NOW), any(Pageable.class)))
+                .thenReturn(List.of(reservation(ReservationStatus.RESERVED, 1, 2), reservation(ReservationStatus.RESERVED, 1, 3)))
+                .thenReturn(List.of(reservation(ReservationStatus.RESERVED, 2, 1)));
+
+        int expired = productReservationService.expireOverdue();
+
+        assertEquals(3, expired);
+        verify(productRepository).incrementQuantity(1, 5, NOW);
+        verify(productRepository).incrementQuantity(2, 1, NOW);
+    }
+
+    private ProductReservationDto request(Integer productId, Integer quantity) {
+        return ProductReservationDto.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+
+    private ProductReservation reservation(ReservationStatus status, Integer productId, Integer quantity) {
+        return ProductReservation.builder()
+                .reservationId("r-1")
+                .productId(productId)
+                .quantity(quantity)
+                .status(status)
+                .expiresAt(NOW)
+                .build();
+    }
+
+}
@@ -1,16 +1,29 @@
 package com.selimhorri.app.service.impl;
 
+import com.selimhorri.app.cache.ProductCache;
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.domain.CatalogVersion;
 import com.selimhorri.app.domain.Product;
+import com.selimhorri.app.domain.ProductSortKey;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.response.collection.DtoPageResponse;
 import com.selimhorri.app.repository.ProductRepository;
 import com.selimhorri.app.util.ProductUtil;
+import com.selimhorri.app.version.CatalogVersionTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.List;
 import java.util.Collections;
@@ -24,6 +37,16 @@ public class ProductServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(null, null, null, new SimpleMeterRegistry(), 100, 
+            Duration.ofMinutes(1), Duration.ofSeconds(5));
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -47,5 +70,68 @@ public class ProductServiceImplTest {
         assertEquals(productDto.getProductTitle(), result.getProductTitle());
     }
 
-}
+    @Test
+    void testFindById_ShouldServeRepeatedReadsFromCache() {
+        when(productRepository.findById(product.getProductId())).thenReturn(Optional.of(product));
+
+        productService.findById(product.getProductId());
+        ProductDto result = productService.findById(product.getProductId());
+
+        assertEquals(productDto.getProductId(), result.getProductId());
+        verify(productRepository, times(1)).findById(product.getProductId());
+    }
+
+    @Test
+    void testFindAllByIds_ShouldReturnFoundProductsInRequestOrder() {
+        Product other = ProductUtil.getSampleProduct();
+        other.setProductId(2);
+        when(productRepository.findAllByProductIdIn(List.of(2, 1, 3))).thenReturn(List.of(ProductUtil.toRow(product), ProductUtil.toRow(other)));
 
+        List<ProductDto> result = productService.findAllByIds(List.of(2, 1, 2, 3));
+
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(0).getProductId());
+        assertEquals(1, result.get(1).getProductId());
+    }
+
+    @Test
+    void testFindPage_ShouldReturnCursorWhenMoreRowsExist() {
+        Product other = ProductUtil.getSampleProduct();
+        other.setProductId(2);
+        when(productRepository.findPageOrderByProductId(0, PageRequest.of(0, 2)))
+                .thenReturn(List.of(ProductUtil.toRow(product), ProductUtil.toRow(other)));
+        when(productRepository.findPageOrderByProductId(1, PageRequest.of(0, 2))).thenReturn(List.of(ProductUtil.toRow(other)));
+
+        DtoPageResponse<ProductDto> firstPage = productService.findPage(null, 1, ProductSortKey.PRODUCT_ID);
+        DtoPageResponse<ProductDto> lastPage = productService.findPage(firstPage.getNextCursor(), 1, ProductSortKey.PRODUCT_ID);
+
+        assertEquals(1, firstPage.getCollection().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(2, lastPage.getCollection().iterator().next().getProductId());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testFindPageWithVersion_ShouldChangeTagWhenRowsChangeWithinOneTimestamp() {
+        Instant lastModified = Instant.parse("2024-01-01T10:00:00Z");
+        when(productRepository.findPageOrderByProductId(0, PageRequest.of(0, 2))).thenReturn(List.of(ProductUtil.toRow(product)));
+        when(catalogVersionTracker.find(CatalogEntityType.CATEGORY)).thenReturn(version(CatalogEntityType.CATEGORY, 3L, lastModified));
+        when(catalogVersionTracker.find(CatalogEntityType.PRODUCT))
+                .thenReturn(version(CatalogEntityType.PRODUCT, 4L, lastModified))
+                .thenReturn(version(CatalogEntityType.PRODUCT, 5L, lastModified));
+
+        String before = productService.findPageWithVersion(null, 1, ProductSortKey.PRODUCT_ID).getVersion().getEtag();
+        String after = productService.findPageWithVersion(null, 1, ProductSortKey.PRODUCT_ID).getVersion().getEtag();
+
+        assertNotEquals(before, after);
+    }
+
+    private static CatalogVersion version(CatalogEntityType entityType, long version, Instant updatedAt) {
+        return CatalogVersion.builder()
+                .entityType(entityType)
+                .version(version)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.selimhorri.app.util;
 
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.projection.CategoryRowProjection;
 import com.selimhorri.app.domain.Category;
 
 import java.util.Arrays;
@@ -27,4 +28,11 @@ public class CategoryUtil {
     public static List<Category> getSampleCategories() {
         return Arrays.asList(getSampleCategory());
     }
+
+    public static CategoryRowProjection toRow(Category category) {
+        Category parentCategory = category.getParentCategory() != null ? category.getParentCategory() : new Category();
+        return new CategoryRowProjection(category.getCategoryId(), category.getCategoryTitle(), category.getImageUrl(),
+                parentCategory.getCategoryId(), parentCategory.getCategoryTitle(), parentCategory.getImageUrl(),
+                category.getCreatedAt(), category.getUpdatedAt());
+    }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.selimhorri.app.domain.Product;
 import com.selimhorri.app.domain.Category;
 import com.selimhorri.app.dto.ProductDto;
 import com.selimhorri.app.dto.CategoryDto;
+import com.selimhorri.app.dto.projection.ProductRowProjection;
 
 public class ProductUtil {
 
@@ -49,4 +50,12 @@ public class ProductUtil {
                 .imageUrl("https://example.com/category.png")
                 .build();
     }
+
+    public static ProductRowProjection toRow(Product product) {
+        Category category = product.getCategory();
+        return new ProductRowProjection(product.getProductId(), product.getProductTitle(), product.getImageUrl(),
+                product.getSku(), product.getPriceUnit(), product.getQuantity(),
+                category.getCategoryId(), category.getCategoryTitle(), category.getImageUrl(),
+                product.getCreatedAt(), product.getUpdatedAt());
+    }
 }
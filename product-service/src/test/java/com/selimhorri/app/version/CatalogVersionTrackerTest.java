@@ -0,0 +1,86 @@
+package com.selimhorri.app.version;
+
+import com.selimhorri.app.domain.CatalogEntityType;
+import com.selimhorri.app.dto.projection.ProductStockProjection;
+import com.selimhorri.app.event.CategoryChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent;
+import com.selimhorri.app.event.ProductChangedEvent.ChangeType;
+import com.selimhorri.app.event.ProductStockChangedEvent;
+import com.selimhorri.app.repository.CatalogVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogVersionTrackerTest {
+
+    @Mock
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersionTracker = new CatalogVersionTracker(catalogVersionRepository, transactionTemplate);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void testTouch_ShouldBumpEachPartOnceJustBeforeCommit() {
+        catalogVersionTracker.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, 1, null));
+        catalogVersionTracker.onProductStockChanged(new ProductStockChangedEvent(List.of(
+                new ProductStockProjection(1, 4, 2L, Instant.now()), new ProductStockProjection(2, 0, 3L, Instant.now())), false));
+        catalogVersionTracker.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, 3, null));
+        verifyNoInteractions(catalogVersionRepository);
+
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        verify(catalogVersionRepository, times(1)).bump(eq(CatalogEntityType.PRODUCT), any());
+        verify(catalogVersionRepository, never()).bump(eq(CatalogEntityType.CATEGORY), any());
+    }
+
+    @Test
+    void testOnCategoryChanged_ShouldBumpProductsOnDeleteInFixedOrder() {
+        catalogVersionTracker.onProductChanged(new ProductChangedEvent(ChangeType.DELETED, 1, null));
+        catalogVersionTracker.onCategoryChanged(new CategoryChangedEvent(ChangeType.DELETED, 2));
+
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        InOrder inOrder = inOrder(catalogVersionRepository);
+        inOrder.verify(catalogVersionRepository).bump(eq(CatalogEntityType.CATEGORY), any());
+        inOrder.verify(catalogVersionRepository).bump(eq(CatalogEntityType.PRODUCT), any());
+    }
+
+    @Test
+    void testTouch_ShouldBumpRightAwayWithoutTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        catalogVersionTracker.touch(CatalogEntityType.CATEGORY);
+
+        verify(catalogVersionRepository).bump(eq(CatalogEntityType.CATEGORY), any());
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+}
@@ -1,12 +1,17 @@
 package com.selimhorri.app.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.OrderItem;
 import com.selimhorri.app.domain.id.OrderItemId;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, OrderItemId> {
 	
-	
+	@Modifying
+	@Query("DELETE FROM OrderItem o WHERE o.orderId = :orderId")
+	int deleteAllByOrderId(@Param("orderId") final Integer orderId);
 	
 }
@@ -1,6 +1,9 @@
 package com.selimhorri.app.resource;
 
+import java.util.List;
+
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.http.ResponseEntity;
@@ -62,6 +65,15 @@ public class OrderItemResource {
 		return ResponseEntity.ok(this.orderItemService.save(orderItemDto));
 	}
 	
+	@PostMapping("/batch")
+	public ResponseEntity<DtoCollectionResponse<OrderItemDto>> saveAll(
+			@RequestBody 
+			@NotEmpty(message = "Input must not be empty") 
+			@Valid final List<OrderItemDto> orderItemDtos) {
+		log.info("*** OrderItemDto List, resource; save orderItems *");
+		return ResponseEntity.ok(new DtoCollectionResponse<>(this.orderItemService.saveAll(orderItemDtos)));
+	}
+	
 	@PutMapping
 	public ResponseEntity<OrderItemDto> update(
 			@RequestBody 
@@ -80,6 +92,13 @@ public class OrderItemResource {
 		return ResponseEntity.ok(true);
 	}
 	
+	@DeleteMapping("/order/{orderId}")
+	public ResponseEntity<Boolean> deleteAllByOrderId(@PathVariable("orderId") final String orderId) {
+		log.info("*** Boolean, resource; delete orderItems by orderId *");
+		this.orderItemService.deleteAllByOrderId(Integer.parseInt(orderId));
+		return ResponseEntity.ok(true);
+	}
+	
 	@DeleteMapping("/delete")
 	public ResponseEntity<Boolean> deleteById(
 			@RequestBody 
@@ -1,10 +1,17 @@
 package com.selimhorri.app.service.impl;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -13,6 +20,7 @@ import com.selimhorri.app.domain.id.OrderItemId;
 import com.selimhorri.app.dto.OrderDto;
 import com.selimhorri.app.dto.OrderItemDto;
 import com.selimhorri.app.dto.ProductDto;
+import com.selimhorri.app.dto.response.collection.DtoBatchCollectionResponse;
 import com.selimhorri.app.exception.wrapper.OrderItemNotFoundException;
 import com.selimhorri.app.helper.OrderItemMappingHelper;
 import com.selimhorri.app.repository.OrderItemRepository;
@@ -29,16 +37,21 @@ public class OrderItemServiceImpl implements OrderItemService {
 	
 	private final OrderItemRepository orderItemRepository;
 	private final RestTemplate restTemplate;
+	private final EntityManager entityManager;
 	
 	@Override
 	public List<OrderItemDto> findAll() {
 		log.info("*** OrderItemDto List, service; fetch all orderItems *");
-		return this.orderItemRepository.findAll()
+		final var orderItemDtos = this.orderItemRepository.findAll()
 				.stream()
 					.map(OrderItemMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+		final var productDtos = this.findAllProductsByIds(orderItemDtos.stream()
+				.map(OrderItemDto::getProductId)
+				.collect(Collectors.toUnmodifiableSet()));
+		return orderItemDtos.stream()
 					.map(o -> {
-						o.setProductDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
-								.PRODUCT_SERVICE_API_URL + "/" + o.getProductDto().getProductId(), ProductDto.class));
+						o.setProductDto(productDtos.getOrDefault(o.getProductId(), o.getProductDto()));
 						o.setOrderDto(this.restTemplate.getForObject(AppConstant.DiscoveredDomainsApi
 								.ORDER_SERVICE_API_URL + "/" + o.getOrderDto().getOrderId(), OrderDto.class));
 						return o;
@@ -47,6 +60,25 @@ public class OrderItemServiceImpl implements OrderItemService {
 					.collect(Collectors.toUnmodifiableList());
 	}
 	
+	/**
+	 * Products missing from the response, or a response without a body, leave the
+	 * items with the id-only product they were mapped with.
+	 */
+	private Map<Integer, ProductDto> findAllProductsByIds(final Set<Integer> productIds) {
+		if (productIds.isEmpty())
+			return Map.of();
+		final var response = this.restTemplate.exchange(AppConstant.DiscoveredDomainsApi
+						.PRODUCT_SERVICE_API_URL + "/batch", HttpMethod.POST, new HttpEntity<>(productIds), 
+				new ParameterizedTypeReference<DtoBatchCollectionResponse<ProductDto>>() {}).getBody();
+		if (response == null || response.getCollection() == null) {
+			log.warn("*** OrderItemDto List, service; product batch returned no body, keeping product ids only *");
+			return Map.of();
+		}
+		return response.getCollection()
+				.stream()
+					.collect(Collectors.toUnmodifiableMap(ProductDto::getProductId, Function.identity()));
+	}
+	
 	@Override
 	public OrderItemDto findById(final OrderItemId orderItemId) {
 		log.info("*** OrderItemDto, service; fetch orderItem by id *");
@@ -69,6 +101,23 @@ public class OrderItemServiceImpl implements OrderItemService {
 				.save(OrderItemMappingHelper.map(orderItemDto)));
 	}
 	
+	/**
+	 * All items of one order in a single transaction, flushed as JDBC batches. Items are
+	 * new, so they are persisted directly; {@code saveAll} would merge them, selecting
+	 * each assigned id first.
+	 */
+	@Override
+	public List<OrderItemDto> saveAll(final List<OrderItemDto> orderItemDtos) {
+		log.info("*** OrderItemDto List, service; save orderItems *");
+		final var orderItems = orderItemDtos.stream()
+				.map(OrderItemMappingHelper::map)
+				.collect(Collectors.toUnmodifiableList());
+		orderItems.forEach(this.entityManager::persist);
+		return orderItems.stream()
+					.map(OrderItemMappingHelper::map)
+					.collect(Collectors.toUnmodifiableList());
+	}
+	
 	@Override
 	public OrderItemDto update(final OrderItemDto orderItemDto) {
 		log.info("*** OrderItemDto, service; update orderItem *");
@@ -82,6 +131,12 @@ public class OrderItemServiceImpl implements OrderItemService {
 		this.orderItemRepository.deleteById(orderItemId);
 	}
 	
+	@Override
+	public void deleteAllByOrderId(final Integer orderId) {
+		log.info("*** Void, service; delete orderItems by orderId *");
+		this.orderItemRepository.deleteAllByOrderId(orderId);
+	}
+	
 	
 	
 }
@@ -1,8 +1,12 @@
 package com.selimhorri.app.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.selimhorri.app.domain.User;
 
@@ -10,4 +14,11 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 	
 	Optional<User> findByCredentialUsername(final String username);
 	
+	/**
+	 * Credential is the inverse side of a one-to-one, so it cannot be proxied and
+	 * would otherwise be loaded by one extra select per user.
+	 */
+	@Query("SELECT u FROM User u LEFT JOIN FETCH u.credential WHERE u.userId IN :userIds")
+	List<User> findAllWithCredentialByUserIdIn(@Param("userIds") final Collection<Integer> userIds);
+	
 }
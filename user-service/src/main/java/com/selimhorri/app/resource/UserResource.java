@@ -1,7 +1,12 @@
 package com.selimhorri.app.resource;
 
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.http.ResponseEntity;
@@ -15,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.selimhorri.app.dto.UserDto;
+import com.selimhorri.app.dto.response.collection.DtoBatchCollectionResponse;
 import com.selimhorri.app.dto.response.collection.DtoCollectionResponse;
 import com.selimhorri.app.service.UserService;
 
@@ -44,6 +50,23 @@ public class UserResource {
 		return ResponseEntity.ok(this.userService.findById(Integer.parseInt(userId.strip())));
 	}
 	
+	@PostMapping("/batch")
+	public ResponseEntity<DtoBatchCollectionResponse<UserDto>> findAllByIds(
+			@RequestBody 
+			@NotEmpty(message = "Input must not be empty!") 
+			@Valid final Set<Integer> userIds) {
+		log.info("*** UserDto List, resource; fetch users by ids *");
+		final var userDtos = this.userService.findAllByIds(userIds);
+		final var foundIds = userDtos.stream()
+				.map(UserDto::getUserId)
+				.collect(Collectors.toUnmodifiableSet());
+		return ResponseEntity.ok(new DtoBatchCollectionResponse<>(userDtos, userIds.stream()
+				.filter(Objects::nonNull)
+				.filter(userId -> !foundIds.contains(userId))
+				.sorted()
+				.collect(Collectors.toUnmodifiableList())));
+	}
+	
 	@PostMapping
 	public ResponseEntity<UserDto> save(
 			@RequestBody 
@@ -1,6 +1,12 @@
 package com.selimhorri.app.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
@@ -22,6 +28,8 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 	
+	private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+	
 	private final UserRepository userRepository;
 	
 	@Override
@@ -42,6 +50,24 @@ public class UserServiceImpl implements UserService {
 				.orElseThrow(() -> new UserObjectNotFoundException(String.format("User with id: %d not found", userId)));
 	}
 	
+	@Override
+	public List<UserDto> findAllByIds(final Collection<Integer> userIds) {
+		log.info("*** UserDto List, service; fetch all users by ids *");
+		final var distinctIds = new ArrayList<>(userIds.stream()
+				.filter(Objects::nonNull)
+				.collect(Collectors.toCollection(LinkedHashSet::new)));
+		final Map<Integer, UserDto> userDtos = new HashMap<>(distinctIds.size());
+		for (int from = 0; from < distinctIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+			this.userRepository.findAllWithCredentialByUserIdIn(distinctIds
+					.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, distinctIds.size())))
+				.forEach(u -> userDtos.put(u.getUserId(), UserMappingHelper.map(u)));
+		}
+		return distinctIds.stream()
+				.map(userDtos::get)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toUnmodifiableList());
+	}
+	
 	@Override
 	public UserDto save(final UserDto userDto) {
 		log.info("*** UserDto, service; save user *");
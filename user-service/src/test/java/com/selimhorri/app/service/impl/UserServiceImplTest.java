@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,5 +57,16 @@ public class UserServiceImplTest {
         assertEquals(userDto.getLastName(), result.getLastName());
     }
 
+    @Test
+    void testFindAllByIds_ShouldSkipMissingAndDuplicateIds() {
+        when(userRepository.findAllWithCredentialByUserIdIn(List.of(userDto.getUserId(), -1)))
+                .thenReturn(List.of(UserUtil.getSampleUser()));
+
+        List<UserDto> result = userService.findAllByIds(List.of(userDto.getUserId(), -1, userDto.getUserId()));
+
+        assertEquals(1, result.size());
+        assertEquals(userDto.getUserId(), result.get(0).getUserId());
+    }
+
 
 }
\ No newline at end of file